@@ -0,0 +1,192 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.benchmarks;
+
+import com.meistermeier.neo4j.toolbelt.mapper.Mapper;
+import com.meistermeier.neo4j.toolbelt.renderer.BatchWriteResult;
+import com.meistermeier.neo4j.toolbelt.renderer.BatchWriter;
+import com.meistermeier.neo4j.toolbelt.renderer.Renderer;
+import org.neo4j.driver.AuthTokens;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.GraphDatabase;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Session;
+import org.neo4j.harness.Neo4j;
+import org.neo4j.harness.Neo4jBuilders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Query and mapping throughput plus latency percentiles against a Neo4j instance that runs in-process.
+ * Other than {@link MapperBenchmark}, this includes Bolt and the decoding of the driver.
+ * The database only listens on the loopback interface and gets loaded with a dataset generated from a fixed seed.
+ * <p>
+ * Every read fetches a page of {@link #pageSize} people, every write merges {@link #pageSize} rows.
+ * {@link Mode#SampleTime} reports the latency percentiles (p0.50, p0.99, p0.999) per page.
+ * Only available with the {@code harness} profile.
+ *
+ * @author Gerrit Meier
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class EndToEndBenchmark {
+
+	private static final long SEED = 4711L;
+
+	private static final String READ_ROWS = """
+			MATCH (p:Person) WHERE p.id >= $from AND p.id < $to
+			RETURN p.id AS id, p.name AS name, p.yearBorn AS yearBorn, p.email AS email""";
+	private static final String READ_NODES_WITH_FRIENDS = """
+			MATCH (p:Person) WHERE p.id >= $from AND p.id < $to
+			RETURN p, [(p)-[:KNOWS]->(f:Person) | f{.id, .name, .yearBorn, .email}] AS friends""";
+	private static final String READ_COLLECTED = """
+			MATCH (p:Person) WHERE p.id >= $from AND p.id < $to
+			RETURN collect(p{.id, .name, .yearBorn, .email}) AS people""";
+	private static final String MERGE_PEOPLE = "UNWIND $rows AS row MERGE (p:Person {id: row.id}) SET p += row";
+
+	@Param("100000")
+	int people;
+
+	@Param("5")
+	int friendsPerPerson;
+
+	@Param("1000")
+	int pageSize;
+
+	private final AtomicInteger pages = new AtomicInteger();
+
+	private Neo4j neo4j;
+	private Driver driver;
+	private BatchWriter batchWriter;
+	private List<Person> pageToWrite;
+
+	private Function<Record, Person> personMapper;
+	private Function<Record, PersonWithFriends> personWithFriendsMapper;
+	private Function<Record, Iterable<Person>> collectionMapper;
+
+	@Setup(Level.Trial)
+	public void startDatabase() {
+		neo4j = Neo4jBuilders.newInProcessBuilder().withDisabledServer().build();
+		driver = GraphDatabase.driver(neo4j.boltURI(), AuthTokens.none());
+		batchWriter = Renderer.INSTANCE.createBatchWriter(driver);
+
+		personMapper = Mapper.INSTANCE.createMapperFor(Person.class);
+		personWithFriendsMapper = Mapper.INSTANCE.createMapperFor(PersonWithFriends.class);
+		collectionMapper = Mapper.INSTANCE.createCollectionMapperFor(Person.class);
+
+		loadDataset();
+	}
+
+	@TearDown(Level.Trial)
+	public void stopDatabase() {
+		driver.close();
+		neo4j.close();
+	}
+
+	@Benchmark
+	public List<Person> readRows() {
+		return read(READ_ROWS, records -> records.stream().map(personMapper).toList());
+	}
+
+	@Benchmark
+	public List<PersonWithFriends> readNodesWithFriends() {
+		return read(READ_NODES_WITH_FRIENDS, records -> records.stream().map(personWithFriendsMapper).toList());
+	}
+
+	@Benchmark
+	public Iterable<Person> readCollected() {
+		return read(READ_COLLECTED, records -> collectionMapper.apply(records.get(0)));
+	}
+
+	@Benchmark
+	public BatchWriteResult writeRows() {
+		return batchWriter.write(pageToWrite, MERGE_PEOPLE);
+	}
+
+	private <T> T read(String query, Function<List<Record>, T> mapping) {
+		// walk through the pages, so that not only the same page gets read from the page cache
+		int from = Math.floorMod(pages.getAndIncrement(), people / pageSize) * pageSize;
+		try (Session session = driver.session()) {
+			return session.executeRead(tx -> mapping.apply(tx.run(query, Map.of("from", from, "to", from + pageSize)).list()));
+		}
+	}
+
+	private void loadDataset() {
+		try (Session session = driver.session()) {
+			session.run("CREATE CONSTRAINT person_id IF NOT EXISTS FOR (p:Person) REQUIRE p.id IS UNIQUE").consume();
+		}
+
+		Random random = new Random(SEED);
+		List<Person> persons = new ArrayList<>(people);
+		for (int i = 0; i < people; i++) {
+			persons.add(person(i, random));
+		}
+		batchWriter.write(persons, "UNWIND $rows AS row CREATE (p:Person) SET p = row");
+
+		List<Friendship> friendships = new ArrayList<>(people * friendsPerPerson);
+		for (int i = 0; i < people; i++) {
+			for (int j = 0; j < friendsPerPerson; j++) {
+				friendships.add(new Friendship(i, random.nextInt(people)));
+			}
+		}
+		batchWriter.write(friendships, """
+				UNWIND $rows AS row
+				MATCH (a:Person {id: row.from}), (b:Person {id: row.to})
+				CREATE (a)-[:KNOWS]->(b)""");
+
+		// writes update existing people, the dataset stays the same for all iterations
+		pageToWrite = new ArrayList<>(pageSize);
+		for (int i = 0; i < pageSize; i++) {
+			pageToWrite.add(person(i, random));
+		}
+	}
+
+	private static Person person(long id, Random random) {
+		return new Person(id, "Person " + id, 1920 + random.nextInt(100), "person" + id + "@example.com");
+	}
+
+	public record Person(long id, String name, int yearBorn, String email) {
+	}
+
+	public record PersonWithFriends(long id, String name, int yearBorn, String email, List<Person> friends) {
+	}
+
+	public record Friendship(long from, long to) {
+	}
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.benchmarks;
+
+import com.meistermeier.neo4j.toolbelt.conversion.MappingEngine;
+import com.meistermeier.neo4j.toolbelt.conversion.MappingEngineSelector;
+import com.meistermeier.neo4j.toolbelt.mapper.Mapper;
+import org.neo4j.driver.Record;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Mapping throughput of {@link Mapper#createMapperFor(Class)} and {@link Mapper#createCollectionMapperFor(Class)}
+ * for different result shapes.
+ * Every invocation maps all {@link #ROWS} records of a result, run with {@code -prof gc} to also get the allocation rate.
+ *
+ * @author Gerrit Meier
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+	static final int ROWS = 1_000;
+
+	@Param({"reflective", "methodHandles"})
+	String engine;
+
+	private List<Record> flatRecords;
+	private List<Record> wideNodeRecords;
+	private List<Record> nodeWithFriendsRecords;
+	private List<Record> mapRecords;
+
+	private Function<Record, PersonRecord> personRecordMapper;
+	private Function<Record, PersonClass> personClassMapper;
+	private Function<Record, WideNode> wideNodeMapper;
+	private Function<Record, PersonWithFriends> personWithFriendsMapper;
+	private Function<Record, PersonWithAttributes> personWithAttributesMapper;
+	private Function<Record, Iterable<PersonRecord>> collectionMapper;
+	private Function<List<Record>, List<PersonRecord>> batchMapper;
+
+	@Setup
+	public void setup() {
+		MappingEngine mappingEngine = switch (engine) {
+			case "reflective" -> MappingEngine.reflective();
+			case "methodHandles" -> MappingEngine.methodHandles();
+			default -> throw new IllegalArgumentException("Unknown engine " + engine);
+		};
+		Mapper mapper = Mapper.INSTANCE.withMappingEngineSelector(MappingEngineSelector.always(mappingEngine));
+
+		flatRecords = records(SyntheticRecords::flatRecord);
+		wideNodeRecords = records(SyntheticRecords::wideNodeRecord);
+		nodeWithFriendsRecords = records(index -> SyntheticRecords.nodeWithFriendsRecord(index, 10));
+		mapRecords = records(SyntheticRecords::mapRecord);
+
+		personRecordMapper = mapper.createMapperFor(PersonRecord.class);
+		personClassMapper = mapper.createMapperFor(PersonClass.class);
+		wideNodeMapper = mapper.createMapperFor(WideNode.class);
+		personWithFriendsMapper = mapper.createMapperFor(PersonWithFriends.class);
+		personWithAttributesMapper = mapper.createMapperFor(PersonWithAttributes.class);
+		collectionMapper = mapper.createCollectionMapperFor(PersonRecord.class);
+		batchMapper = mapper.createBatchMapperFor(PersonRecord.class);
+	}
+
+	@Benchmark
+	public void flatRecord(Blackhole blackhole) {
+		mapAll(flatRecords, personRecordMapper, blackhole);
+	}
+
+	@Benchmark
+	public void flatClass(Blackhole blackhole) {
+		mapAll(flatRecords, personClassMapper, blackhole);
+	}
+
+	@Benchmark
+	public void flatRecordBatch(Blackhole blackhole) {
+		blackhole.consume(batchMapper.apply(flatRecords));
+	}
+
+	@Benchmark
+	public void wideNode(Blackhole blackhole) {
+		mapAll(wideNodeRecords, wideNodeMapper, blackhole);
+	}
+
+	@Benchmark
+	public void nestedListTail(Blackhole blackhole) {
+		mapAll(nodeWithFriendsRecords, personWithFriendsMapper, blackhole);
+	}
+
+	@Benchmark
+	public void mapProperty(Blackhole blackhole) {
+		mapAll(mapRecords, personWithAttributesMapper, blackhole);
+	}
+
+	@Benchmark
+	public Iterable<PersonRecord> collectedList(CollectedResult collectedResult) {
+		return collectionMapper.apply(collectedResult.record);
+	}
+
+	private static <T> void mapAll(List<Record> records, Function<Record, T> mapper, Blackhole blackhole) {
+		for (Record record : records) {
+			blackhole.consume(mapper.apply(record));
+		}
+	}
+
+	private static List<Record> records(Function<Integer, Record> recordFactory) {
+		List<Record> records = new ArrayList<>(ROWS);
+		for (int i = 0; i < ROWS; i++) {
+			records.add(recordFactory.apply(i));
+		}
+		return records;
+	}
+
+	/**
+	 * A single record containing a large {@code collect()} list, only used by {@link #collectedList(CollectedResult)}.
+	 */
+	@State(Scope.Benchmark)
+	public static class CollectedResult {
+
+		@Param({"1000", "100000"})
+		int elements;
+
+		Record record;
+
+		@Setup
+		public void setup() {
+			record = SyntheticRecords.collectedRecord(elements);
+		}
+	}
+
+	public record PersonRecord(String name, int yearBorn, String email, boolean active) {
+	}
+
+	public static class PersonClass {
+
+		private final String name;
+		private final int yearBorn;
+		private final String email;
+		private final boolean active;
+
+		public PersonClass(String name, int yearBorn, String email, boolean active) {
+			this.name = name;
+			this.yearBorn = yearBorn;
+			this.email = email;
+			this.active = active;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public int getYearBorn() {
+			return yearBorn;
+		}
+
+		public String getEmail() {
+			return email;
+		}
+
+		public boolean isActive() {
+			return active;
+		}
+	}
+
+	public record Friend(String name, int yearBorn) {
+	}
+
+	public record PersonWithFriends(String name, int yearBorn, List<Friend> friends) {
+	}
+
+	public record PersonWithAttributes(String name, Map<String, String> attributes) {
+	}
+
+	public record WideNode(
+			String p00,
+			long p01,
+			double p02,
+			boolean p03,
+			String p04,
+			long p05,
+			double p06,
+			boolean p07,
+			String p08,
+			long p09,
+			double p10,
+			boolean p11,
+			String p12,
+			long p13,
+			double p14,
+			boolean p15,
+			String p16,
+			long p17,
+			double p18,
+			boolean p19,
+			String p20,
+			long p21,
+			double p22,
+			boolean p23,
+			String p24,
+			long p25,
+			double p26,
+			boolean p27,
+			String p28,
+			long p29,
+			double p30,
+			boolean p31) {
+	}
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.meistermeier.neo4j.toolbelt.renderer.Renderer;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.Values;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering costs of {@link Renderer#toParameters(Object)} and {@link Renderer#toParameters(Object, String)}.
+ * Single objects are one row per operation, run with {@code -prof gc} to get the bytes allocated per row
+ * ({@code gc.alloc.rate.norm}).
+ * The collection benchmarks additionally report the rendered rows per second.
+ * <p>
+ * The {@code jackson} benchmarks measure the former rendering via {@link ObjectMapper#convertValue(Object, Class)} as baseline.
+ *
+ * @author Gerrit Meier
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RendererBenchmark {
+
+	private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {
+	};
+
+	private final Renderer renderer = Renderer.INSTANCE;
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private SmallDto smallDto;
+	private WideDto wideDto;
+	private Order nestedDto;
+
+	@Setup
+	public void setup() {
+		smallDto = smallDto(1);
+		wideDto = wideDto(1);
+		nestedDto = order(1);
+	}
+
+	@Benchmark
+	public Value small() {
+		return renderer.toParameters(smallDto);
+	}
+
+	@Benchmark
+	public Value wide() {
+		return renderer.toParameters(wideDto);
+	}
+
+	@Benchmark
+	public Value nested() {
+		return renderer.toParameters(nestedDto);
+	}
+
+	@Benchmark
+	public Value jacksonSmall() {
+		return Values.value(objectMapper.convertValue(smallDto, MAP_TYPE));
+	}
+
+	@Benchmark
+	public Value jacksonWide() {
+		return Values.value(objectMapper.convertValue(wideDto, MAP_TYPE));
+	}
+
+	@Benchmark
+	public Value jacksonNested() {
+		return Values.value(objectMapper.convertValue(nestedDto, MAP_TYPE));
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Warmup(iterations = 5)
+	@Measurement(iterations = 10)
+	public Value collection(LargeCollection collection, RenderedRows renderedRows) {
+		renderedRows.rows += collection.size;
+		return renderer.toParameters(collection.rows, "rows");
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Warmup(iterations = 5)
+	@Measurement(iterations = 10)
+	public Value jacksonCollection(LargeCollection collection, RenderedRows renderedRows) {
+		renderedRows.rows += collection.size;
+		List<Object> rows = new ArrayList<>(collection.size);
+		for (SmallDto row : collection.rows) {
+			rows.add(objectMapper.convertValue(row, MAP_TYPE));
+		}
+		return Values.value(Map.of("rows", rows));
+	}
+
+	/**
+	 * Large collections of small rows, like they get rendered for an {@code UNWIND $rows} import.
+	 */
+	@State(Scope.Benchmark)
+	public static class LargeCollection {
+
+		@Param({"10000", "100000", "1000000"})
+		int size;
+
+		List<SmallDto> rows;
+
+		@Setup
+		public void setup() {
+			rows = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				rows.add(smallDto(i));
+			}
+		}
+	}
+
+	/**
+	 * Counts the rendered rows to report them next to the time.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class RenderedRows {
+
+		public long rows;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			rows = 0;
+		}
+	}
+
+	static SmallDto smallDto(int index) {
+		return new SmallDto(index, "Person " + index, 1950 + index % 70, index % 2 == 0);
+	}
+
+	static WideDto wideDto(int index) {
+		return new WideDto(
+				"value 0 of " + index,
+				(long) index * 1,
+				index / 3.0,
+				true,
+				"value 4 of " + index,
+				(long) index * 5,
+				index / 7.0,
+				false,
+				"value 8 of " + index,
+				(long) index * 9,
+				index / 11.0,
+				false,
+				"value 12 of " + index,
+				(long) index * 13,
+				index / 15.0,
+				true,
+				"value 16 of " + index,
+				(long) index * 17,
+				index / 19.0,
+				false,
+				"value 20 of " + index,
+				(long) index * 21,
+				index / 23.0,
+				false,
+				"value 24 of " + index,
+				(long) index * 25,
+				index / 27.0,
+				true,
+				"value 28 of " + index,
+				(long) index * 29,
+				index / 31.0,
+				false);
+	}
+
+	static Order order(int index) {
+		List<OrderLine> lines = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			lines.add(new OrderLine(new Product("SKU-" + i, "Product " + i, 9.99 + i), i + 1));
+		}
+		return new Order("Order " + index, new Customer("Customer " + index, new Address("Street " + index, "City", "12345")), lines);
+	}
+
+	public record SmallDto(long id, String name, int yearBorn, boolean active) {
+	}
+
+	public record Address(String street, String city, String zipCode) {
+	}
+
+	public record Customer(String name, Address address) {
+	}
+
+	public record Product(String sku, String name, double price) {
+	}
+
+	public record OrderLine(Product product, int quantity) {
+	}
+
+	public record Order(String number, Customer customer, List<OrderLine> lines) {
+	}
+
+	public record WideDto(
+			String p00,
+			long p01,
+			double p02,
+			boolean p03,
+			String p04,
+			long p05,
+			double p06,
+			boolean p07,
+			String p08,
+			long p09,
+			double p10,
+			boolean p11,
+			String p12,
+			long p13,
+			double p14,
+			boolean p15,
+			String p16,
+			long p17,
+			double p18,
+			boolean p19,
+			String p20,
+			long p21,
+			double p22,
+			boolean p23,
+			String p24,
+			long p25,
+			double p26,
+			boolean p27,
+			String p28,
+			long p29,
+			double p30,
+			boolean p31) {
+	}
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.benchmarks;
+
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.Values;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Creates driver records in-process, the same way the driver creates them while decoding a result.
+ * All records of one shape share their keys, like the records of one result do.
+ *
+ * @author Gerrit Meier
+ */
+final class SyntheticRecords {
+
+	static final int WIDE_NODE_PROPERTIES = 32;
+
+	private static final Function<Value[], Record> FLAT_RECORDS = DriverInternals.records("name", "yearBorn", "email", "active");
+	private static final Function<Value[], Record> NODE_RECORDS = DriverInternals.records("n");
+	private static final Function<Value[], Record> NODE_WITH_FRIENDS_RECORDS = DriverInternals.records("n", "friends");
+	private static final Function<Value[], Record> MAP_RECORDS = DriverInternals.records("name", "attributes");
+	private static final Function<Value[], Record> COLLECTED_RECORDS = DriverInternals.records("people");
+
+	private SyntheticRecords() {
+	}
+
+	/**
+	 * {@code RETURN p.name AS name, p.yearBorn AS yearBorn, p.email AS email, p.active AS active}
+	 */
+	static Record flatRecord(int index) {
+		return FLAT_RECORDS.apply(new Value[] {
+				Values.value("Person " + index), Values.value(1950 + index % 70), Values.value("person" + index + "@example.com"), Values.value(index % 2 == 0)
+		});
+	}
+
+	/**
+	 * {@code RETURN n} with {@value #WIDE_NODE_PROPERTIES} properties of mixed types.
+	 */
+	static Record wideNodeRecord(int index) {
+		Map<String, Value> properties = new HashMap<>();
+		for (int i = 0; i < WIDE_NODE_PROPERTIES; i++) {
+			String name = "p%02d".formatted(i);
+			properties.put(name, switch (i % 4) {
+				case 0 -> Values.value("value " + i + " of " + index);
+				case 1 -> Values.value((long) index * i);
+				case 2 -> Values.value(index / (i + 1.0));
+				default -> Values.value(i % 3 == 0);
+			});
+		}
+		return NODE_RECORDS.apply(new Value[] {DriverInternals.node(index, "Wide", properties)});
+	}
+
+	/**
+	 * {@code RETURN n, collect(friend{.name, .yearBorn}) AS friends}, the friends get picked up from the tail.
+	 */
+	static Record nodeWithFriendsRecord(int index, int friendCount) {
+		List<Value> friends = new ArrayList<>(friendCount);
+		for (int i = 0; i < friendCount; i++) {
+			friends.add(Values.value(Map.of("name", Values.value("Friend " + i), "yearBorn", Values.value(1950 + i % 70))));
+		}
+		Value person = DriverInternals.node(index, "Person", Map.of("name", Values.value("Person " + index), "yearBorn", Values.value(1950 + index % 70)));
+		return NODE_WITH_FRIENDS_RECORDS.apply(new Value[] {person, Values.value(friends)});
+	}
+
+	/**
+	 * {@code RETURN p.name AS name, p{.*} AS attributes}
+	 */
+	static Record mapRecord(int index) {
+		Map<String, Value> attributes = new HashMap<>();
+		for (int i = 0; i < 8; i++) {
+			attributes.put("attribute" + i, Values.value("value " + i + " of " + index));
+		}
+		return MAP_RECORDS.apply(new Value[] {Values.value("Person " + index), Values.value(attributes)});
+	}
+
+	/**
+	 * {@code RETURN collect(p{.name, .yearBorn, .email, .active}) AS people}
+	 */
+	static Record collectedRecord(int size) {
+		List<Value> people = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			people.add(Values.value(Map.of(
+					"name", Values.value("Person " + i),
+					"yearBorn", Values.value(1950 + i % 70),
+					"email", Values.value("person" + i + "@example.com"),
+					"active", Values.value(i % 2 == 0))));
+		}
+		return COLLECTED_RECORDS.apply(new Value[] {Values.value(people)});
+	}
+
+	/**
+	 * The only use of the driver's internal API: the public API cannot create records or nodes.
+	 * A driver upgrade that moves these classes only needs changes here.
+	 */
+	private static final class DriverInternals {
+
+		/**
+		 * @return factory for records that share the given keys, like the records of one result do
+		 */
+		static Function<Value[], Record> records(String... keys) {
+			org.neo4j.driver.internal.util.QueryKeys queryKeys = new org.neo4j.driver.internal.util.QueryKeys(List.of(keys));
+			return values -> new org.neo4j.driver.internal.InternalRecord(queryKeys, values);
+		}
+
+		static Value node(long id, String label, Map<String, Value> properties) {
+			return new org.neo4j.driver.internal.value.NodeValue(new org.neo4j.driver.internal.InternalNode(id, List.of(label), properties));
+		}
+	}
+}
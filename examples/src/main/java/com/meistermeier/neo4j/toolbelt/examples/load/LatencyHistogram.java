@@ -0,0 +1,96 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.examples.load;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Log-linear latency histogram in microseconds with a precision of about 0.2%.
+ * Values below 1024 microseconds get recorded exactly, larger values in 512 sub-buckets per power of two.
+ * Not thread-safe, every worker records into its own histograms that get merged at the end.
+ *
+ * @author Gerrit Meier
+ */
+final class LatencyHistogram {
+
+	private static final int SUB_BUCKETS = 512;
+	private static final int LINEAR_BUCKETS = 2 * SUB_BUCKETS;
+	private static final int MAX_SHIFT = 40;
+
+	private final long[] counts = new long[LINEAR_BUCKETS + MAX_SHIFT * SUB_BUCKETS];
+	private long totalCount;
+	private long maxValue;
+
+	void recordNanos(long nanos) {
+		long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+		counts[indexOf(micros)]++;
+		totalCount++;
+		maxValue = Math.max(maxValue, micros);
+	}
+
+	void add(LatencyHistogram other) {
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] += other.counts[i];
+		}
+		totalCount += other.totalCount;
+		maxValue = Math.max(maxValue, other.maxValue);
+	}
+
+	long totalCount() {
+		return totalCount;
+	}
+
+	long maxMicros() {
+		return maxValue;
+	}
+
+	/**
+	 * @param percentile between 0 and 100
+	 * @return the highest recorded value in microseconds of the bucket the percentile falls into
+	 */
+	long percentileMicros(double percentile) {
+		if (totalCount == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return Math.min(highestValueOf(i), maxValue);
+			}
+		}
+		return maxValue;
+	}
+
+	private static int indexOf(long micros) {
+		if (micros < LINEAR_BUCKETS) {
+			return (int) micros;
+		}
+		int shift = Math.min(63 - Long.numberOfLeadingZeros(micros) - 9, MAX_SHIFT);
+		long subBucket = Math.min(micros >> shift, 2 * SUB_BUCKETS - 1) - SUB_BUCKETS;
+		return LINEAR_BUCKETS + (shift - 1) * SUB_BUCKETS + (int) subBucket;
+	}
+
+	private static long highestValueOf(int index) {
+		if (index < LINEAR_BUCKETS) {
+			return index;
+		}
+		int shift = (index - LINEAR_BUCKETS) / SUB_BUCKETS + 1;
+		long subBucket = (index - LINEAR_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+		return ((subBucket + 1) << shift) - 1;
+	}
+}
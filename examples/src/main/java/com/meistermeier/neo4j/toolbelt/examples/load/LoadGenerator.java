@@ -0,0 +1,211 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.examples.load;
+
+import com.meistermeier.neo4j.toolbelt.examples.shared.Environment;
+import org.neo4j.driver.Config;
+import org.neo4j.driver.Driver;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives a mix of mapping and rendering queries from many concurrent workers against the database
+ * configured in {@code example.properties} and reports latency percentiles per operation.
+ * <p>
+ * Every worker runs on a fixed schedule derived from the targeted rate. The response time gets measured from
+ * the intended start of an operation instead of its actual start, so that a stalled operation also accounts for
+ * the operations that queued up behind it (coordinated omission). The service time, measured from the actual
+ * start, is reported next to it. The throughput is based on the time until the last measured operation actually ended,
+ * so a database that cannot keep up with the targeted rate shows a lower throughput and a run that ends behind schedule.
+ * <p>
+ * Configuration via system properties, e.g.
+ * {@code -Dload.threads=200 -Dload.virtualThreads=true -Dload.rate=2000 -Dload.duration=60 -Dload.mix=read:80,write:20},
+ * see {@link LoadSettings} for all options.
+ *
+ * @author Gerrit Meier
+ */
+public class LoadGenerator {
+
+	public static void main(String[] args) throws Exception {
+		LoadSettings settings = LoadSettings.fromSystemProperties();
+		System.out.println("Running load with " + settings);
+
+		Config config = Config.builder()
+				.withMaxConnectionPoolSize(settings.threads())
+				.withConnectionAcquisitionTimeout(1, TimeUnit.MINUTES)
+				.build();
+		try (Driver driver = Environment.getDriver(config)) {
+			Workload workload = new Workload(driver, settings);
+			workload.createDataset();
+
+			RunResult result = run(workload, settings);
+			report(result);
+		}
+	}
+
+	private static RunResult run(Workload workload, LoadSettings settings) throws InterruptedException, ExecutionException {
+		long intervalNanos = settings.workerIntervalNanos();
+		long startNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+		long measureFromNanos = startNanos + settings.warmup().toNanos();
+		long endNanos = measureFromNanos + settings.duration().toNanos();
+
+		ExecutorService executor = newExecutor(settings);
+		List<Future<WorkerResult>> workers = new ArrayList<>(settings.threads());
+		for (int i = 0; i < settings.threads(); i++) {
+			// spread the schedules of the workers over one interval to avoid bursts
+			long firstStartNanos = startNanos + ThreadLocalRandom.current().nextLong(intervalNanos);
+			workers.add(executor.submit(() -> work(workload, settings, firstStartNanos, intervalNanos, measureFromNanos, endNanos)));
+		}
+
+		WorkerResult total = new WorkerResult();
+		for (Future<WorkerResult> worker : workers) {
+			total.add(worker.get());
+		}
+		executor.shutdown();
+
+		if (total.lastEndNanos == Long.MIN_VALUE) {
+			// nothing got measured
+			return new RunResult(total, settings.duration().toNanos(), 0);
+		}
+		return new RunResult(total, total.lastEndNanos - measureFromNanos, Math.max(0, total.lastEndNanos - endNanos));
+	}
+
+	private static WorkerResult work(Workload workload, LoadSettings settings,
+									 long firstStartNanos, long intervalNanos, long measureFromNanos, long endNanos) {
+
+		Random random = new Random();
+		WorkerResult result = new WorkerResult();
+		for (long intendedStart = firstStartNanos; intendedStart < endNanos; intendedStart += intervalNanos) {
+			long now;
+			while ((now = System.nanoTime()) < intendedStart) {
+				LockSupport.parkNanos(intendedStart - now);
+			}
+
+			Operation operation = settings.pick(random.nextInt(settings.totalWeight()));
+			boolean failed = false;
+			int entities = 0;
+			try {
+				entities = workload.execute(operation, random);
+			} catch (RuntimeException e) {
+				failed = true;
+			}
+			long end = System.nanoTime();
+
+			if (intendedStart >= measureFromNanos) {
+				result.record(operation, end, end - intendedStart, end - now, entities, failed);
+			}
+		}
+		return result;
+	}
+
+	private static ExecutorService newExecutor(LoadSettings settings) {
+		if (settings.virtualThreads()) {
+			// looked up reflectively to keep the examples on Java 17
+			try {
+				return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+			} catch (ReflectiveOperationException e) {
+				System.out.println("Virtual threads are not available on this JVM, falling back to platform threads.");
+			}
+		}
+		return Executors.newFixedThreadPool(settings.threads());
+	}
+
+	private static void report(RunResult run) {
+		double seconds = run.elapsedNanos() / 1e9;
+		System.out.printf(Locale.ROOT, "%nMeasured %.1f s, finished %.1f s behind schedule%n", seconds, run.behindScheduleNanos() / 1e9);
+		System.out.printf(Locale.ROOT, "%n%-14s %9s %9s %7s %10s | %-38s | %-38s%n", "operation", "count", "ops/s", "errors", "entities",
+				"response time us p50 / p99 / p999 / max", "service time us p50 / p99 / p999 / max");
+
+		WorkerResult.Stats all = new WorkerResult.Stats();
+		for (Map.Entry<Operation, WorkerResult.Stats> entry : run.result().stats.entrySet()) {
+			printRow(entry.getKey().toString(), entry.getValue(), seconds);
+			all.add(entry.getValue());
+		}
+		printRow("all", all, seconds);
+	}
+
+	private static void printRow(String name, WorkerResult.Stats stats, double seconds) {
+		System.out.printf(Locale.ROOT, "%-14s %9d %9.1f %7d %10d | %-38s | %-38s%n", name,
+				stats.responseTimes.totalCount(), stats.responseTimes.totalCount() / seconds, stats.errors, stats.entities,
+				percentiles(stats.responseTimes), percentiles(stats.serviceTimes));
+	}
+
+	private static String percentiles(LatencyHistogram histogram) {
+		return String.format(Locale.ROOT, "%d / %d / %d / %d", histogram.percentileMicros(50), histogram.percentileMicros(99),
+				histogram.percentileMicros(99.9), histogram.maxMicros());
+	}
+
+	/**
+	 * Merged measurements of all workers.
+	 *
+	 * @param result              merged measurements
+	 * @param elapsedNanos        time from the start of the measurement until the last measured operation ended
+	 * @param behindScheduleNanos time the last measured operation ended after the scheduled end of the run
+	 */
+	private record RunResult(WorkerResult result, long elapsedNanos, long behindScheduleNanos) {
+	}
+
+	/**
+	 * Measurements of a single worker or, after merging, of the whole run.
+	 */
+	private static final class WorkerResult {
+
+		private final Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+		private long lastEndNanos = Long.MIN_VALUE;
+
+		void record(Operation operation, long endNanos, long responseTimeNanos, long serviceTimeNanos, int entities, boolean failed) {
+			lastEndNanos = Math.max(lastEndNanos, endNanos);
+			Stats operationStats = stats.computeIfAbsent(operation, key -> new Stats());
+			operationStats.responseTimes.recordNanos(responseTimeNanos);
+			operationStats.serviceTimes.recordNanos(serviceTimeNanos);
+			operationStats.entities += entities;
+			if (failed) {
+				operationStats.errors++;
+			}
+		}
+
+		void add(WorkerResult other) {
+			other.stats.forEach((operation, otherStats) -> stats.computeIfAbsent(operation, key -> new Stats()).add(otherStats));
+			lastEndNanos = Math.max(lastEndNanos, other.lastEndNanos);
+		}
+
+		private static final class Stats {
+			private final LatencyHistogram responseTimes = new LatencyHistogram();
+			private final LatencyHistogram serviceTimes = new LatencyHistogram();
+			private long entities;
+			private long errors;
+
+			void add(Stats other) {
+				responseTimes.add(other.responseTimes);
+				serviceTimes.add(other.serviceTimes);
+				entities += other.entities;
+				errors += other.errors;
+			}
+		}
+	}
+}
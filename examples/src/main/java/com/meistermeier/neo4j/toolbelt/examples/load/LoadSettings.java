@@ -0,0 +1,103 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.examples.load;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Settings of a load run, read from system properties prefixed with {@code load.}.
+ *
+ * @param threads          number of concurrent workers
+ * @param virtualThreads   run the workers on virtual threads instead of platform threads, if the JVM supports them
+ * @param duration         measured duration of the run
+ * @param warmup           duration before measuring starts
+ * @param rate             targeted operations per second over all workers
+ * @param mix              relative weight of each operation
+ * @param people           number of people in the dataset
+ * @param batchSize        number of people written per write and read per collecting read
+ * @author Gerrit Meier
+ */
+record LoadSettings(int threads, boolean virtualThreads, Duration duration, Duration warmup, int rate,
+					Map<Operation, Integer> mix, int people, int batchSize) {
+
+	static LoadSettings fromSystemProperties() {
+		return new LoadSettings(
+				Integer.getInteger("load.threads", 16),
+				Boolean.getBoolean("load.virtualThreads"),
+				Duration.ofSeconds(Integer.getInteger("load.duration", 30)),
+				Duration.ofSeconds(Integer.getInteger("load.warmup", 5)),
+				Integer.getInteger("load.rate", 500),
+				parseMix(System.getProperty("load.mix", "read:60,readCollected:20,write:20")),
+				Integer.getInteger("load.people", 10_000),
+				Integer.getInteger("load.batchSize", 100)
+		);
+	}
+
+	/**
+	 * @return interval in nanoseconds between two intended operation starts of a single worker
+	 */
+	long workerIntervalNanos() {
+		return Duration.ofSeconds(1).toNanos() * threads / rate;
+	}
+
+	/**
+	 * @param roll random number between 0 (inclusive) and {@link #totalWeight()} (exclusive)
+	 * @return operation the number falls into
+	 */
+	Operation pick(int roll) {
+		int upperBound = 0;
+		for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+			upperBound += entry.getValue();
+			if (roll < upperBound) {
+				return entry.getKey();
+			}
+		}
+		throw new IllegalArgumentException("Roll " + roll + " exceeds the total weight of the mix " + mix);
+	}
+
+	int totalWeight() {
+		return mix.values().stream().mapToInt(Integer::intValue).sum();
+	}
+
+	private static Map<Operation, Integer> parseMix(String mix) {
+		Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+		for (String entry : mix.split(",")) {
+			String[] nameAndWeight = entry.trim().split(":");
+			if (nameAndWeight.length != 2) {
+				throw new IllegalArgumentException("Cannot parse mix entry '%s', expected name:weight".formatted(entry));
+			}
+			int weight = Integer.parseInt(nameAndWeight[1].trim());
+			if (weight > 0) {
+				weights.put(Operation.byName(nameAndWeight[0].trim()), weight);
+			}
+		}
+		if (weights.isEmpty()) {
+			throw new IllegalArgumentException("The mix '%s' does not contain any operation".formatted(mix));
+		}
+		return weights;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(Locale.ROOT,
+				"threads=%d (%s), duration=%ds, warmup=%ds, rate=%d ops/s, mix=%s, people=%d, batchSize=%d",
+				threads, virtualThreads ? "virtual" : "platform", duration.toSeconds(), warmup.toSeconds(), rate,
+				mix, people, batchSize);
+	}
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.examples.load;
+
+import java.util.Arrays;
+
+/**
+ * Operations of the load mix.
+ *
+ * @author Gerrit Meier
+ */
+enum Operation {
+
+	/**
+	 * Reads a single person by id, renders the id parameter and maps the node.
+	 */
+	READ("read"),
+	/**
+	 * Reads a range of people as one collected list and maps it with the collection mapper.
+	 */
+	READ_COLLECTED("readCollected"),
+	/**
+	 * Renders a batch of people into a list parameter and merges them.
+	 */
+	WRITE("write");
+
+	private final String name;
+
+	Operation(String name) {
+		this.name = name;
+	}
+
+	static Operation byName(String name) {
+		return Arrays.stream(values())
+				.filter(operation -> operation.name.equals(name))
+				.findFirst()
+				.orElseThrow(() -> new IllegalArgumentException("Unknown operation '%s', expected one of %s"
+						.formatted(name, Arrays.toString(values()))));
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.examples.load;
+
+import com.meistermeier.neo4j.toolbelt.mapper.Mapper;
+import com.meistermeier.neo4j.toolbelt.renderer.Renderer;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Session;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Dataset and queries of the load run.
+ * All mapping and rendering goes through {@link Mapper#INSTANCE} and {@link Renderer#INSTANCE}.
+ *
+ * @author Gerrit Meier
+ */
+final class Workload {
+
+	record LoadPerson(Long id, String name, Integer yearBorn) {
+	}
+
+	record PersonId(Long id) {
+	}
+
+	record IdRange(Long from, Long to) {
+	}
+
+	private static final String[] NAMES = {"Gerrit", "Michael", "Ada", "Grace", "Linus", "Barbara", "Edsger", "Frances"};
+
+	private final Driver driver;
+	private final LoadSettings settings;
+	private final Function<Record, LoadPerson> personMapper = Mapper.INSTANCE.createMapperFor(LoadPerson.class);
+	private final Function<Record, Iterable<LoadPerson>> peopleMapper = Mapper.INSTANCE.createCollectionMapperFor(LoadPerson.class);
+
+	Workload(Driver driver, LoadSettings settings) {
+		this.driver = driver;
+		this.settings = settings;
+	}
+
+	void createDataset() {
+		try (Session session = driver.session()) {
+			session.run("CREATE INDEX load_person_id IF NOT EXISTS FOR (p:LoadPerson) ON (p.id)").consume();
+			session.run("MATCH (p:LoadPerson) CALL { WITH p DETACH DELETE p } IN TRANSACTIONS").consume();
+			Random random = new Random(23);
+			for (long from = 0; from < settings.people(); from += settings.batchSize()) {
+				List<LoadPerson> batch = people(from, Math.min(from + settings.batchSize(), settings.people()), random);
+				session.executeWrite(tx -> tx.run("UNWIND $rows AS row CREATE (p:LoadPerson) SET p = row",
+						Renderer.INSTANCE.toParameters(batch, "rows")).consume());
+			}
+		}
+	}
+
+	/**
+	 * Executes the operation and maps its result.
+	 *
+	 * @return number of mapped or rendered people
+	 */
+	int execute(Operation operation, Random random) {
+		try (Session session = driver.session()) {
+			return switch (operation) {
+				case READ -> {
+					PersonId id = new PersonId((long) random.nextInt(settings.people()));
+					List<LoadPerson> people = session.executeRead(tx -> tx.run("MATCH (p:LoadPerson {id: $id}) RETURN p",
+							Renderer.INSTANCE.toParameters(id)).list(personMapper));
+					yield people.size();
+				}
+				case READ_COLLECTED -> {
+					long from = random.nextInt(Math.max(1, settings.people() - settings.batchSize()));
+					IdRange range = new IdRange(from, from + settings.batchSize());
+					Iterable<LoadPerson> people = session.executeRead(tx -> peopleMapper.apply(tx.run(
+							"MATCH (p:LoadPerson) WHERE p.id >= $from AND p.id < $to RETURN collect(p)",
+							Renderer.INSTANCE.toParameters(range)).single()));
+					int count = 0;
+					for (LoadPerson ignored : people) {
+						count++;
+					}
+					yield count;
+				}
+				case WRITE -> {
+					long from = random.nextInt(Math.max(1, settings.people() - settings.batchSize()));
+					List<LoadPerson> batch = people(from, from + settings.batchSize(), random);
+					session.executeWrite(tx -> tx.run("UNWIND $rows AS row MERGE (p:LoadPerson {id: row.id}) SET p += row",
+							Renderer.INSTANCE.toParameters(batch, "rows")).consume());
+					yield batch.size();
+				}
+			};
+		}
+	}
+
+	private static List<LoadPerson> people(long from, long to, Random random) {
+		List<LoadPerson> people = new ArrayList<>((int) (to - from));
+		for (long id = from; id < to; id++) {
+			people.add(new LoadPerson(id, NAMES[random.nextInt(NAMES.length)], 1950 + random.nextInt(60)));
+		}
+		return people;
+	}
+}
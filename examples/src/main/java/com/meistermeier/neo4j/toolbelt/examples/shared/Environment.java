@@ -16,6 +16,7 @@
 package com.meistermeier.neo4j.toolbelt.examples.shared;
 
 import org.neo4j.driver.AuthTokens;
+import org.neo4j.driver.Config;
 import org.neo4j.driver.Driver;
 import org.neo4j.driver.GraphDatabase;
 
@@ -37,10 +38,14 @@ public class Environment {
 	}
 
 	public static Driver getDriver() {
+		return getDriver(Config.defaultConfig());
+	}
+
+	public static Driver getDriver(Config config) {
 		String uri = PROPERTIES.getProperty("neo4j.uri");
 		String user = PROPERTIES.getProperty("neo4j.user");
 		String password = PROPERTIES.getProperty("neo4j.password");
 
-		return GraphDatabase.driver(uri, AuthTokens.basic(user, password));
+		return GraphDatabase.driver(uri, AuthTokens.basic(user, password), config);
 	}
 }
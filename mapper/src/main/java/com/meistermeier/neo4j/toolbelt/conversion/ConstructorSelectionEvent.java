@@ -0,0 +1,62 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.conversion;
+
+import com.meistermeier.neo4j.toolbelt.internal.ConstructorModel;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for the selection of the constructor to instantiate an entity with.
+ * Gets emitted when a selection gets cached, once per entity type and set of available properties.
+ *
+ * @author Gerrit Meier
+ */
+@Name("com.meistermeier.neo4j.toolbelt.ConstructorSelection")
+@Label("Constructor Selection")
+@Description("Selection of the constructor that matches the available properties best")
+@Category({"Neo4j Java Toolbelt", "Mapper"})
+@StackTrace(false)
+final class ConstructorSelectionEvent extends Event {
+
+	@Label("Entity Type")
+	Class<?> entityType;
+
+	@Label("Available Properties")
+	int availableProperties;
+
+	@Label("Candidates")
+	@Description("Number of constructors that got considered")
+	int candidates;
+
+	@Label("Parameter Count")
+	@Description("Number of parameters of the selected constructor")
+	int parameterCount;
+
+	void commit(Class<?> entityType, int availableProperties, int candidates, ConstructorModel selected) {
+		if (shouldCommit()) {
+			this.entityType = entityType;
+			this.availableProperties = availableProperties;
+			this.candidates = candidates;
+			this.parameterCount = selected == null ? 0 : selected.parameters().size();
+			commit();
+		}
+	}
+}
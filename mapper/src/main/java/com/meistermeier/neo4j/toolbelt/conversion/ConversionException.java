@@ -15,19 +15,155 @@
  */
 package com.meistermeier.neo4j.toolbelt.conversion;
 
+import org.neo4j.driver.Value;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
 /**
  * Exception to be used by the {@link ValueConverter} implementing converters.
+ * <p>
+ * Exceptions created by the {@link ConverterRegistry} only render their message when it gets requested.
+ * A registry configured with {@link ConverterRegistry.Builder#withTolerantConversion()}
+ * reports all failed fields of an entity via {@link #getFieldFailures()} and skips the stack trace capturing.
+ * Such a registry also converts a whole batch before it fails and reports the failed rows via {@link #getRowFailures()}.
  *
  * @author Gerrit Meier
  */
 public class ConversionException extends RuntimeException {
 
+	private final transient Object source;
+	private final Class<?> targetType;
+	private final List<FieldFailure> fieldFailures;
+	private final List<RowFailure> rowFailures;
+
 	/**
 	 * Default constructor that redirects to the generic {@link RuntimeException}.
 	 *
 	 * @param message Exception message
 	 */
 	public ConversionException(String message) {
-		super(message);
+		this(message, null);
+	}
+
+	/**
+	 * Constructor that redirects to the generic {@link RuntimeException}.
+	 *
+	 * @param message Exception message
+	 * @param cause   Cause of the failed conversion
+	 */
+	public ConversionException(String message, Throwable cause) {
+		super(message, cause);
+		this.source = null;
+		this.targetType = null;
+		this.fieldFailures = List.of();
+		this.rowFailures = List.of();
+	}
+
+	ConversionException(Object source, Class<?> targetType, Throwable cause, List<FieldFailure> fieldFailures, boolean writableStackTrace) {
+		this(source, targetType, cause, fieldFailures, List.of(), writableStackTrace);
+	}
+
+	ConversionException(Object source, Class<?> targetType, Throwable cause, List<FieldFailure> fieldFailures,
+						List<RowFailure> rowFailures, boolean writableStackTrace) {
+		super(null, cause, false, writableStackTrace);
+		this.source = source;
+		this.targetType = targetType;
+		this.fieldFailures = fieldFailures;
+		this.rowFailures = rowFailures;
+	}
+
+	@Override
+	public String getMessage() {
+		String message = super.getMessage();
+		if (message != null || targetType == null) {
+			return message;
+		}
+		if (!rowFailures.isEmpty()) {
+			return "Cannot convert %d rows to %s, first failed row: %d".formatted(rowFailures.size(), targetType, rowFailures.get(0).row());
+		}
+		if (fieldFailures.isEmpty()) {
+			return "Cannot convert %s to %s".formatted(source, targetType);
+		}
+		return "Cannot convert %s to %s, failed fields: %s".formatted(source, targetType,
+				fieldFailures.stream().map(FieldFailure::toString).collect(Collectors.joining(", ")));
+	}
+
+	/**
+	 * Name of the driver type or class of the value that could not be converted.
+	 *
+	 * @return name of the source type or {@literal null}, if unknown
+	 */
+	public String getSourceType() {
+		return typeNameOf(source);
+	}
+
+	/**
+	 * Type that the value should have been converted to.
+	 *
+	 * @return target type or {@literal null}, if unknown
+	 */
+	public Class<?> getTargetType() {
+		return targetType;
+	}
+
+	/**
+	 * Fields of the target entity that could not be converted.
+	 * Nested fields are reported with their full path, e.g. {@code friends.name}.
+	 *
+	 * @return failed fields or an empty list, if the failure was not field related
+	 */
+	public List<FieldFailure> getFieldFailures() {
+		return fieldFailures;
+	}
+
+	/**
+	 * Rows of a batch that could not be converted.
+	 * Only reported by a registry configured with {@link ConverterRegistry.Builder#withTolerantConversion()},
+	 * all other rows of the batch are converted at this point.
+	 *
+	 * @return failed rows in ascending order or an empty list, if the failure was not batch related
+	 */
+	public List<RowFailure> getRowFailures() {
+		return rowFailures;
+	}
+
+	static String typeNameOf(Object source) {
+		if (source == null) {
+			return null;
+		}
+		return source instanceof Value value ? value.type().name() : source.getClass().getSimpleName();
+	}
+
+	/**
+	 * A single row of a batch that could not be converted.
+	 *
+	 * @param row     index of the row in the batch
+	 * @param failure failure of the row, e.g. a {@link ConversionException} with the failed fields
+	 */
+	public record RowFailure(int row, RuntimeException failure) {
+
+		RowFailure shiftedBy(int offset) {
+			return offset == 0 ? this : new RowFailure(row + offset, failure);
+		}
+	}
+
+	/**
+	 * Description of a single field that could not be converted.
+	 *
+	 * @param field      name or path of the field
+	 * @param sourceType name of the driver type of the value
+	 * @param targetType type of the field
+	 */
+	public record FieldFailure(String field, String sourceType, Class<?> targetType) {
+
+		FieldFailure nestedIn(String parentField) {
+			return new FieldFailure(parentField + "." + field, sourceType, targetType);
+		}
+
+		@Override
+		public String toString() {
+			return "%s (%s -> %s)".formatted(field, sourceType, targetType.getSimpleName());
+		}
 	}
 }
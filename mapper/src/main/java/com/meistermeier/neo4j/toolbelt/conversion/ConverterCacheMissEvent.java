@@ -0,0 +1,60 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.conversion;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for a converter selection that was not cached yet.
+ * Happens once per source value type and target type as long as the selection gets cached.
+ *
+ * @author Gerrit Meier
+ */
+@Name("com.meistermeier.neo4j.toolbelt.ConverterCacheMiss")
+@Label("Converter Cache Miss")
+@Description("Selection of a converter for a source value type and target type that was not cached yet")
+@Category({"Neo4j Java Toolbelt", "Mapper"})
+@StackTrace(false)
+final class ConverterCacheMissEvent extends Event {
+
+	@Label("Source Type")
+	String sourceType;
+
+	@Label("Target Type")
+	Class<?> targetType;
+
+	@Label("Element Type")
+	Class<?> elementType;
+
+	@Label("Converter")
+	@Description("Type of the selected converter, empty if there is none")
+	Class<?> converter;
+
+	void commit(Object sourceType, TypeMetaData<?> typeMetaData, Class<?> converter) {
+		if (shouldCommit()) {
+			this.sourceType = sourceType instanceof Class<?> sourceClass ? sourceClass.getName() : String.valueOf(sourceType);
+			this.targetType = typeMetaData.type();
+			this.elementType = typeMetaData.genericType();
+			this.converter = converter;
+			commit();
+		}
+	}
+}
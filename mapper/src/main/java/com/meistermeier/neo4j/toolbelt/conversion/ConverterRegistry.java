@@ -15,38 +15,121 @@
  */
 package com.meistermeier.neo4j.toolbelt.conversion;
 
+import org.neo4j.driver.Value;
+import org.neo4j.driver.exceptions.value.ValueException;
 import org.neo4j.driver.types.MapAccessor;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Registry for all converters.
+ * A registry is immutable. Use {@link #builder()} to compose a registry with multiple custom converters.
+ * <p>
+ * The lookup order is fixed when the registry gets created:
+ * custom converters (highest priority first, insertion order for equal priorities),
+ * followed by the built-in driver value converters and the entity converter.
+ * The entity converter creates the instances with the {@link MappingEngine} chosen per type, see {@link Builder#withMappingEngineSelector(MappingEngineSelector)}.
+ * Without custom converters, the selected converter gets cached per source value type and target type.
+ * With custom converters, the selection only gets cached if enabled via {@link Builder#withSelectionCache()},
+ * because a custom converter might decide based on the content of a value.
  *
  * @author Gerrit Meier
  */
 public final class ConverterRegistry {
 
-	private final Set<DriverValueConverters> internalValueConverters = new HashSet<>();
-	private final Set<TypeConverter<MapAccessor>> internalTypeConverters = new HashSet<>();
-	private final Set<TypeConverter<? extends MapAccessor>> customConverters = new HashSet<>();
+	/**
+	 * Priority that gets used if a custom converter is added without explicit priority.
+	 */
+	public static final int DEFAULT_PRIORITY = 0;
+
+	private static final MappingEngineSelector DEFAULT_MAPPING_ENGINE_SELECTOR = MappingEngineSelector.always(MappingEngine.reflective());
+
+	private static final TypeConverter<?> NO_CONVERTER = new TypeConverter<>() {
+		@Override
+		public boolean canConvert(MapAccessor value, TypeMetaData<?> typeMetaData) {
+			return false;
+		}
+
+		@Override
+		public Object convert(MapAccessor value, TypeMetaData<?> typeMetaData) {
+			return null;
+		}
+	};
+
+	private final List<PrioritizedConverter> customConverters;
+	private final TypeConverter<?>[] converters;
+	private final boolean cacheSelection;
+	private final Map<ConverterSelectionKey, TypeConverter<?>> selectionCache;
+	private final boolean tolerant;
+	private final MappingEngineSelector mappingEngineSelector;
 
 	/**
 	 * Convenience constructor with default converters.
 	 */
 	public ConverterRegistry() {
-		this.internalValueConverters.add(new DriverValueConverters((value, typeMetaData) -> convert(value, typeMetaData.type(), typeMetaData.genericType())));
-		this.internalTypeConverters.add(new EntityConverter(this));
+		this(List.of(), false, false, DEFAULT_MAPPING_ENGINE_SELECTOR);
+	}
+
+	private ConverterRegistry(List<PrioritizedConverter> customConverters, boolean cacheSelection, boolean tolerant, MappingEngineSelector mappingEngineSelector) {
+		this.customConverters = customConverters;
+		this.mappingEngineSelector = mappingEngineSelector;
+		this.cacheSelection = cacheSelection;
+		// the built-in converters only decide based on the value type and target type
+		this.selectionCache = cacheSelection || customConverters.isEmpty() ? new ConcurrentHashMap<>() : null;
+		this.tolerant = tolerant;
+
+		List<TypeConverter<?>> orderedConverters = new ArrayList<>();
+		customConverters.forEach(prioritizedConverter -> orderedConverters.add(prioritizedConverter.converter()));
+		orderedConverters.add(new DriverValueConverters(
+				(value, typeMetaData) -> convert(value, typeMetaData.type(), typeMetaData.genericType()),
+				(values, typeMetaData, out) -> convertAll(values, typeMetaData.type(), typeMetaData.genericType(), out)));
+		orderedConverters.add(new EntityConverter(this, mappingEngineSelector));
+		this.converters = orderedConverters.toArray(new TypeConverter<?>[0]);
 	}
 
-	private ConverterRegistry(TypeConverter<? extends MapAccessor> customConverter) {
-		customConverters.add(customConverter);
-		this.internalValueConverters.add(new DriverValueConverters((value, typeMetaData) -> convert(value, typeMetaData.type(), typeMetaData.genericType())));
-		this.internalTypeConverters.add(new EntityConverter(this));
+	/**
+	 * Creates a new builder to compose a registry with custom converters.
+	 *
+	 * @return new, empty builder
+	 */
+	public static Builder builder() {
+		return new Builder(List.of(), false, false, DEFAULT_MAPPING_ENGINE_SELECTOR);
+	}
+
+	/**
+	 * Creates a new builder that already contains the custom converters of this registry.
+	 *
+	 * @return builder pre-populated with the current custom converters
+	 */
+	public Builder toBuilder() {
+		return new Builder(customConverters, cacheSelection, tolerant, mappingEngineSelector);
 	}
 
+	/**
+	 * Creates a new registry containing all custom converters of this registry plus the given one
+	 * with {@link #DEFAULT_PRIORITY}.
+	 *
+	 * @param customConverter converter to add
+	 * @return new registry
+	 */
 	public ConverterRegistry addCustomConverter(TypeConverter<? extends MapAccessor> customConverter) {
-		return new ConverterRegistry(customConverter);
+		return toBuilder().addCustomConverter(customConverter).build();
+	}
+
+	/**
+	 * Creates a new registry containing all custom converters of this registry plus the given one.
+	 *
+	 * @param customConverter converter to add
+	 * @param priority        converters with a higher priority get asked first
+	 * @return new registry
+	 */
+	public ConverterRegistry addCustomConverter(TypeConverter<? extends MapAccessor> customConverter, int priority) {
+		return toBuilder().addCustomConverter(customConverter, priority).build();
 	}
 
 	/**
@@ -65,25 +148,257 @@ public final class ConverterRegistry {
 			return null;
 		}
 
-		for (TypeConverter<? extends MapAccessor> customTypeConverter : customConverters) {
-			if (customTypeConverter.canConvert(mapAccessor, typeMetaData)) {
-				return (T) customTypeConverter.convert(mapAccessor, typeMetaData);
+		TypeConverter<?> converter = selectConverter(mapAccessor, typeMetaData);
+		if (converter == NO_CONVERTER) {
+			throw conversionFailed(mapAccessor, type, null, List.of());
+		}
+		return (T) converter.convert(mapAccessor, typeMetaData);
+	}
+
+	/**
+	 * Convert all given values into the target type.
+	 * Consecutive values of the same type get handed over to the selected converter as one column.
+	 * With {@link Builder#withTolerantConversion()}, all values get converted before the failed ones
+	 * get reported at once via {@link ConversionException#getRowFailures()}.
+	 *
+	 * @param <T>                  resulting target type
+	 * @param mapAccessors         input values
+	 * @param type                 target type
+	 * @param genericTypeParameter generic type of the base type, if needed/provided
+	 * @param out                  array to write the converted values to, using the same index as in {@code mapAccessors}
+	 */
+	public <T> void convertAll(List<? extends MapAccessor> mapAccessors, Class<T> type, Class<?> genericTypeParameter, Object[] out) {
+		List<ConversionException.RowFailure> rowFailures = new ArrayList<>(0);
+		if (selectionCache == null) {
+			// without a cached selection, the converter has to be determined for every single value
+			convertOneByOne(mapAccessors, type, genericTypeParameter, out, rowFailures);
+		} else {
+			convertRuns(mapAccessors, type, genericTypeParameter, out, rowFailures);
+		}
+		if (!rowFailures.isEmpty()) {
+			throw rowsFailed(type, List.copyOf(rowFailures));
+		}
+	}
+
+	private <T> void convertRuns(List<? extends MapAccessor> mapAccessors, Class<T> type, Class<?> genericTypeParameter, Object[] out,
+								 List<ConversionException.RowFailure> rowFailures) {
+		TypeMetaData<?> typeMetaData = TypeMetaData.from(type, genericTypeParameter);
+		int size = mapAccessors.size();
+		int runStart = 0;
+		while (runStart < size) {
+			MapAccessor first = mapAccessors.get(runStart);
+			if (first == null) {
+				out[runStart++] = null;
+				continue;
+			}
+
+			Object sourceType = sourceType(first);
+			int runEnd = runStart + 1;
+			while (runEnd < size) {
+				MapAccessor next = mapAccessors.get(runEnd);
+				if (next == null || !sourceType.equals(sourceType(next))) {
+					break;
+				}
+				runEnd++;
+			}
+
+			TypeConverter<?> converter = selectConverter(first, typeMetaData);
+			List<? extends MapAccessor> run = runStart == 0 && runEnd == size ? mapAccessors : mapAccessors.subList(runStart, runEnd);
+			Object[] runOut = run == mapAccessors ? out : new Object[runEnd - runStart];
+			try {
+				if (converter == NO_CONVERTER) {
+					throw conversionFailed(first, type, null, List.of());
+				}
+				converter.convertAll(run, typeMetaData, runOut);
+			} catch (ConversionException | ValueException e) {
+				if (!tolerant) {
+					throw e;
+				}
+				recordRunFailure(e, run, type, genericTypeParameter, runOut, runStart, rowFailures);
+			}
+			if (runOut != out) {
+				System.arraycopy(runOut, 0, out, runStart, runOut.length);
 			}
+			runStart = runEnd;
 		}
+	}
+
+	/**
+	 * Converters that report their failed rows already converted all others,
+	 * the run of any other converter gets converted again value by value to find the failed ones.
+	 */
+	private <T> void recordRunFailure(RuntimeException failure, List<? extends MapAccessor> run, Class<T> type, Class<?> genericTypeParameter,
+									  Object[] runOut, int runStart, List<ConversionException.RowFailure> rowFailures) {
+		if (failure instanceof ConversionException conversionException && !conversionException.getRowFailures().isEmpty()) {
+			for (ConversionException.RowFailure rowFailure : conversionException.getRowFailures()) {
+				rowFailures.add(rowFailure.shiftedBy(runStart));
+			}
+			return;
+		}
+		List<ConversionException.RowFailure> runFailures = new ArrayList<>();
+		convertOneByOne(run, type, genericTypeParameter, runOut, runFailures);
+		runFailures.forEach(rowFailure -> rowFailures.add(rowFailure.shiftedBy(runStart)));
+	}
 
-		for (DriverValueConverters valueConverter : internalValueConverters) {
-			if (valueConverter.canConvert(mapAccessor, typeMetaData)) {
-				return (T) valueConverter.convert(mapAccessor, typeMetaData);
+	private <T> void convertOneByOne(List<? extends MapAccessor> mapAccessors, Class<T> type, Class<?> genericTypeParameter, Object[] out,
+									 List<ConversionException.RowFailure> rowFailures) {
+		for (int i = 0; i < mapAccessors.size(); i++) {
+			if (!tolerant) {
+				out[i] = convert(mapAccessors.get(i), type, genericTypeParameter);
+				continue;
+			}
+			try {
+				out[i] = convert(mapAccessors.get(i), type, genericTypeParameter);
+			} catch (ConversionException | ValueException e) {
+				rowFailures.add(new ConversionException.RowFailure(i, e));
 			}
 		}
+	}
+
+	boolean isTolerant() {
+		return tolerant;
+	}
+
+	/**
+	 * Creates the exception for a failed conversion.
+	 * The message gets only rendered on demand and the stack trace only gets captured,
+	 * if the registry was not configured for tolerant conversion.
+	 */
+	ConversionException conversionFailed(Object source, Class<?> targetType, Throwable cause, List<ConversionException.FieldFailure> fieldFailures) {
+		return new ConversionException(source, targetType, cause, fieldFailures, !tolerant);
+	}
+
+	/**
+	 * Creates the exception for a batch with failed rows, the rows have to be in ascending order.
+	 */
+	ConversionException rowsFailed(Class<?> targetType, List<ConversionException.RowFailure> rowFailures) {
+		return new ConversionException(null, targetType, rowFailures.get(0).failure(), List.of(), rowFailures, !tolerant);
+	}
+
+	private TypeConverter<?> selectConverter(MapAccessor mapAccessor, TypeMetaData<?> typeMetaData) {
+		if (selectionCache == null) {
+			return findConverter(mapAccessor, typeMetaData);
+		}
+		ConverterSelectionKey key = new ConverterSelectionKey(sourceType(mapAccessor), typeMetaData);
+		TypeConverter<?> converter = selectionCache.get(key);
+		if (converter == null) {
+			ConverterCacheMissEvent event = new ConverterCacheMissEvent();
+			event.begin();
+			converter = findConverter(mapAccessor, typeMetaData);
+			selectionCache.putIfAbsent(key, converter);
+			event.commit(key.sourceType(), typeMetaData, converter == NO_CONVERTER ? null : converter.getClass());
+		}
+		return converter;
+	}
 
-		for (TypeConverter<MapAccessor> typeConverter : internalTypeConverters) {
-			if (typeConverter.canConvert(mapAccessor, typeMetaData)) {
-				return (T) typeConverter.convert(mapAccessor, typeMetaData);
+	private TypeConverter<?> findConverter(MapAccessor mapAccessor, TypeMetaData<?> typeMetaData) {
+		for (TypeConverter<?> converter : converters) {
+			if (converter.canConvert(mapAccessor, typeMetaData)) {
+				return converter;
 			}
 		}
+		return NO_CONVERTER;
+	}
+
+	private static Object sourceType(MapAccessor mapAccessor) {
+		return mapAccessor instanceof Value value ? value.type() : mapAccessor.getClass();
+	}
 
-		throw new ConversionException("Cannot convert %s to %s".formatted(mapAccessor, type));
+	private record ConverterSelectionKey(Object sourceType, TypeMetaData<?> typeMetaData) {
 	}
 
+	private record PrioritizedConverter(TypeConverter<? extends MapAccessor> converter, int priority) {
+	}
+
+	/**
+	 * Builder to compose a {@link ConverterRegistry} with multiple custom converters.
+	 */
+	public static final class Builder {
+
+		private final List<PrioritizedConverter> customConverters;
+		private boolean cacheSelection;
+		private boolean tolerant;
+		private MappingEngineSelector mappingEngineSelector;
+
+		private Builder(List<PrioritizedConverter> customConverters, boolean cacheSelection, boolean tolerant, MappingEngineSelector mappingEngineSelector) {
+			this.customConverters = new ArrayList<>(customConverters);
+			this.cacheSelection = cacheSelection;
+			this.tolerant = tolerant;
+			this.mappingEngineSelector = mappingEngineSelector;
+		}
+
+		/**
+		 * Adds a custom converter with {@link #DEFAULT_PRIORITY}.
+		 *
+		 * @param customConverter converter to add
+		 * @return this builder
+		 */
+		public Builder addCustomConverter(TypeConverter<? extends MapAccessor> customConverter) {
+			return addCustomConverter(customConverter, DEFAULT_PRIORITY);
+		}
+
+		/**
+		 * Adds a custom converter.
+		 * Converters with a higher priority get asked first,
+		 * converters with the same priority in the order they were added.
+		 *
+		 * @param customConverter converter to add
+		 * @param priority        priority of the converter
+		 * @return this builder
+		 */
+		public Builder addCustomConverter(TypeConverter<? extends MapAccessor> customConverter, int priority) {
+			this.customConverters.add(new PrioritizedConverter(customConverter, priority));
+			return this;
+		}
+
+		/**
+		 * Enables caching of the converter selection per source value type and target type also with custom converters.
+		 * Only allowed if all custom converters decide in {@code canConvert} based on the value's type and the target type
+		 * and not on the actual content of the value.
+		 * Without custom converters, the selection always gets cached.
+		 *
+		 * @return this builder
+		 */
+		public Builder withSelectionCache() {
+			this.cacheSelection = true;
+			return this;
+		}
+
+		/**
+		 * Lets the registry convert all fields of an entity before failing and report all failed fields
+		 * in one {@link ConversionException}, created without capturing the stack trace.
+		 * Meant for callers that expect and skip a lot of failing conversions.
+		 * Without it, the first failing field fails the conversion with its original exception.
+		 *
+		 * @return this builder
+		 */
+		public Builder withTolerantConversion() {
+			this.tolerant = true;
+			return this;
+		}
+
+		/**
+		 * Defines which {@link MappingEngine} creates the instances of record/class based entities.
+		 * Defaults to {@link MappingEngine#reflective()} for all types.
+		 *
+		 * @param mappingEngineSelector selector that chooses the engine per type
+		 * @return this builder
+		 */
+		public Builder withMappingEngineSelector(MappingEngineSelector mappingEngineSelector) {
+			this.mappingEngineSelector = Objects.requireNonNull(mappingEngineSelector);
+			return this;
+		}
+
+		/**
+		 * Creates the immutable registry.
+		 *
+		 * @return new registry
+		 */
+		public ConverterRegistry build() {
+			List<PrioritizedConverter> orderedConverters = new ArrayList<>(customConverters);
+			// stable sort keeps the insertion order for converters with the same priority
+			orderedConverters.sort(Comparator.comparingInt(PrioritizedConverter::priority).reversed());
+			return new ConverterRegistry(List.copyOf(orderedConverters), cacheSelection, tolerant, mappingEngineSelector);
+		}
+	}
 }
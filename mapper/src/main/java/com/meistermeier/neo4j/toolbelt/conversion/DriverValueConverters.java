@@ -27,6 +27,8 @@ import java.time.OffsetDateTime;
 import java.time.OffsetTime;
 import java.time.ZonedDateTime;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.BiFunction;
@@ -37,9 +39,10 @@ import java.util.function.Function;
  *
  * @author Gerrit Meier
  */
-final class DriverValueConverters {
+final class DriverValueConverters implements TypeConverter<MapAccessor> {
 
 	private final BiFunction<MapAccessor, TypeMetaData<?>, Object> convertDelegate;
+	private final BulkConvertDelegate bulkConvertDelegate;
 
 	private static final TypeSystem typeSystem = TypeSystem.getDefault();
 
@@ -49,7 +52,7 @@ final class DriverValueConverters {
 			conversion(Value::asFloat, Float.class, float.class),
 			conversion(Value::asDouble, Double.class, double.class),
 			conversion(Value::asString, String.class),
-			conversion(Value::asBoolean, Boolean.class),
+			conversion(Value::asBoolean, Boolean.class, boolean.class),
 			conversion(Value::asLocalDate, LocalDate.class),
 			conversion(Value::asLocalDateTime, LocalDateTime.class),
 			conversion(Value::asLocalTime, LocalTime.class),
@@ -58,10 +61,21 @@ final class DriverValueConverters {
 			conversion(Value::asZonedDateTime, ZonedDateTime.class)
 	);
 
+	private static final Map<Class<?>, DriverValueConverter> BASIC_CONVERSIONS_BY_TYPE = indexByType(BASIC_CONVERSIONS);
+
 	private final List<DriverValueConverter> collectionConversions;
 
 	DriverValueConverters(BiFunction<MapAccessor, TypeMetaData<?>, Object> convertDelegate) {
+		this(convertDelegate, (values, typeMetaData, out) -> {
+			for (int i = 0; i < values.size(); i++) {
+				out[i] = convertDelegate.apply(values.get(i), typeMetaData);
+			}
+		});
+	}
+
+	DriverValueConverters(BiFunction<MapAccessor, TypeMetaData<?>, Object> convertDelegate, BulkConvertDelegate bulkConvertDelegate) {
 		this.convertDelegate = convertDelegate;
+		this.bulkConvertDelegate = bulkConvertDelegate;
 
 		// because we need to have the callback for the delegate, we cannot instantiate this static.
 		this.collectionConversions = List.of(
@@ -70,7 +84,7 @@ final class DriverValueConverters {
 						(v, t) -> typeSystem.MAP().isTypeOf(v) && t.type().isAssignableFrom(Map.class),
 						Map.class),
 				conversionWithTypeMetaData(
-						(v, t) -> v.asList(nestedValue -> convertDelegate.apply(nestedValue, TypeMetaData.from(t.genericType(), null))),
+						this::convertList,
 						(v, t) -> typeSystem.LIST().isTypeOf(v),
 						List.class)
 		);
@@ -91,8 +105,9 @@ final class DriverValueConverters {
 
 	}
 
-	public boolean canConvert(Object object, TypeMetaData<?> typeMetaData) {
-		if (!(object instanceof Value value)) {
+	@Override
+	public boolean canConvert(MapAccessor mapAccessor, TypeMetaData<?> typeMetaData) {
+		if (!(mapAccessor instanceof Value value)) {
 			return false;
 		}
 
@@ -100,10 +115,8 @@ final class DriverValueConverters {
 			return true;
 		}
 
-		for (DriverValueConverter basicConversion : BASIC_CONVERSIONS) {
-			if (basicConversion.canConvert(value, typeMetaData)) {
-				return true;
-			}
+		if (BASIC_CONVERSIONS_BY_TYPE.containsKey(typeMetaData.type())) {
+			return true;
 		}
 
 		for (DriverValueConverter collectionConversion : collectionConversions) {
@@ -115,10 +128,10 @@ final class DriverValueConverters {
 		return false;
 	}
 
-	@SuppressWarnings("unchecked")
-	public <T> T convert(MapAccessor mapAccessor, TypeMetaData<T> typeMetaData) {
+	@Override
+	public Object convert(MapAccessor mapAccessor, TypeMetaData<?> typeMetaData) {
 		if (!(mapAccessor instanceof Value value)) {
-			return (T) convertDelegate.apply(mapAccessor, typeMetaData);
+			return convertDelegate.apply(mapAccessor, typeMetaData);
 		}
 
 		// Thinking about pushing this down to every converter so that every type specific converter
@@ -130,17 +143,54 @@ final class DriverValueConverters {
 		for (DriverValueConverter collectionConversion : collectionConversions) {
 			if (collectionConversion.canConvert(value, typeMetaData)) {
 				// the cake is a lie
-				return (T) collectionConversion.convert(value, typeMetaData);
+				return collectionConversion.convert(value, typeMetaData);
 			}
 		}
 
-		for (DriverValueConverter conversion : BASIC_CONVERSIONS) {
-			if (conversion.canConvert(value, typeMetaData)) {
-				return (T) conversion.convert(value, typeMetaData);
+		DriverValueConverter conversion = BASIC_CONVERSIONS_BY_TYPE.get(typeMetaData.type());
+		if (conversion != null) {
+			return conversion.convert(value, typeMetaData);
+		}
+
+		return convertDelegate.apply(value, typeMetaData);
+	}
+
+	@Override
+	public void convertAll(List<? extends MapAccessor> mapAccessors, TypeMetaData<?> typeMetaData, Object[] out) {
+		// resolve the basic conversion once for the whole column
+		DriverValueConverter basicConversion = BASIC_CONVERSIONS_BY_TYPE.get(typeMetaData.type());
+		boolean mapTarget = typeMetaData.type().isAssignableFrom(Map.class);
+
+		for (int i = 0; i < mapAccessors.size(); i++) {
+			if (!(mapAccessors.get(i) instanceof Value value)) {
+				out[i] = convertDelegate.apply(mapAccessors.get(i), typeMetaData);
+			} else if (value.isNull()) {
+				out[i] = null;
+			} else if (typeSystem.LIST().isTypeOf(value)) {
+				out[i] = convertList(value, typeMetaData);
+			} else if (basicConversion != null && !(mapTarget && typeSystem.MAP().isTypeOf(value))) {
+				out[i] = basicConversion.convert(value, typeMetaData);
+			} else {
+				out[i] = convert(value, typeMetaData);
 			}
 		}
+	}
 
-		return (T) convertDelegate.apply(value, typeMetaData);
+	private List<Object> convertList(Value value, TypeMetaData<?> typeMetaData) {
+		List<Value> elements = value.asList(Function.identity());
+		Object[] convertedElements = new Object[elements.size()];
+		bulkConvertDelegate.convertAll(elements, TypeMetaData.from(typeMetaData.genericType(), null), convertedElements);
+		return Collections.unmodifiableList(Arrays.asList(convertedElements));
+	}
+
+	private static Map<Class<?>, DriverValueConverter> indexByType(List<DriverValueConverter> conversions) {
+		Map<Class<?>, DriverValueConverter> conversionsByType = new HashMap<>();
+		for (DriverValueConverter conversion : conversions) {
+			for (Class<?> type : conversion.types()) {
+				conversionsByType.putIfAbsent(type, conversion);
+			}
+		}
+		return Map.copyOf(conversionsByType);
 	}
 
 	private static DriverValueConverter conversion(Function<Value, Object> readingFunction, Class<?>... types) {
@@ -151,6 +201,14 @@ final class DriverValueConverters {
 		return DriverValueConverterBuilder.forTypes(types).readsWith(readingFunction).writesWith(Values::value).checksWith(checker);
 	}
 
+	/**
+	 * Callback into the registry to convert a whole list of nested values.
+	 */
+	@FunctionalInterface
+	interface BulkConvertDelegate {
+		void convertAll(List<? extends MapAccessor> values, TypeMetaData<?> typeMetaData, Object[] out);
+	}
+
 	// I'll come to naming hell.
 	static final class DriverValueConverterBuilder {
 		record DriverValueConverterBuilderForTypes(Class<?>... types) {
@@ -15,16 +15,19 @@
  */
 package com.meistermeier.neo4j.toolbelt.conversion;
 
+import com.meistermeier.neo4j.toolbelt.internal.MappingSupport;
 import org.neo4j.driver.Record;
 import org.neo4j.driver.Value;
 import org.neo4j.driver.types.MapAccessor;
 import org.neo4j.driver.types.TypeSystem;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 /**
  * Entity converter that delegates to the {@link ObjectInstantiator}
@@ -35,11 +38,13 @@ import java.util.stream.Collectors;
 final class EntityConverter implements TypeConverter<MapAccessor> {
 
 	private final TypeSystem typeSystem = TypeSystem.getDefault();
-	private final ObjectInstantiator objectInstantiator = new ObjectInstantiator();
 	private final ConverterRegistry converterRegistry;
+	private final MappingEngineSelector mappingEngineSelector;
+	private final Map<Class<?>, MappingEngine> mappingEngines = new ConcurrentHashMap<>();
 
-	public EntityConverter(ConverterRegistry converterRegistry) {
+	public EntityConverter(ConverterRegistry converterRegistry, MappingEngineSelector mappingEngineSelector) {
 		this.converterRegistry = converterRegistry;
+		this.mappingEngineSelector = mappingEngineSelector;
 	}
 
 	@Override
@@ -50,40 +55,54 @@ final class EntityConverter implements TypeConverter<MapAccessor> {
 		return mapAccessor instanceof Record;
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
-	public  Object convert(MapAccessor mapAccessor, TypeMetaData<?> typeMetaData) {
+	public Object convert(MapAccessor mapAccessor, TypeMetaData<?> typeMetaData) {
 		if (mapAccessor instanceof Value value && typeSystem.LIST().isTypeOf(value)) {
-			List<Object> collectionEntities = new ArrayList<>();
-			for (Value ding : value.asList(Function.identity())) {
-				HeadAndTail headAndTail = HeadAndTail.from(ding, typeSystem);
-				Object entity = objectInstantiator.createInstance(typeMetaData.genericType(), headAndTail.head(), headAndTail.tail(), converterRegistry);
-				collectionEntities.add(entity);
-			}
+			List<Value> listValues = value.asList(Function.identity());
+			Object[] collectionEntities = new Object[listValues.size()];
+			createInstances(typeMetaData.genericType(), listValues, collectionEntities);
 			// yes, I know that List<T> is not <T> but ¯\_(ツ)_/¯
-			return collectionEntities;
+			return new ArrayList<>(Arrays.asList(collectionEntities));
 		}
-		HeadAndTail headAndTail = HeadAndTail.from(mapAccessor, typeSystem);
-		return objectInstantiator.createInstance(typeMetaData.type(), headAndTail.head(), headAndTail.tail(), converterRegistry);
+		HeadAndTail headAndTail = HeadAndTail.from(mapAccessor);
+		return mappingEngineFor(typeMetaData.type()).createInstance(typeMetaData.type(), headAndTail.head(), headAndTail.tail(), converterRegistry);
 	}
 
-	private record HeadAndTail(MapAccessor head, Map<String, MapAccessor> tail) {
-		static HeadAndTail from(MapAccessor mapAccessor, TypeSystem typeSystem) {
-			if (mapAccessor instanceof Value value && typeSystem.NODE().isTypeOf(value)) {
-				return new HeadAndTail(mapAccessor, Map.of());
+	@Override
+	public void convertAll(List<? extends MapAccessor> mapAccessors, TypeMetaData<?> typeMetaData, Object[] out) {
+		for (MapAccessor mapAccessor : mapAccessors) {
+			if (mapAccessor instanceof Value value && typeSystem.LIST().isTypeOf(value)) {
+				TypeConverter.super.convertAll(mapAccessors, typeMetaData, out);
+				return;
 			}
-			for (Value value : mapAccessor.values()) {
-				if (typeSystem.NODE().isTypeOf(value)) {
-					// maybe there is a "faster" way of getting this values converted into MapAccessor
-					Map<String, Value> ding = mapAccessor.asMap(Function.identity());
-					var tailValue = ding.entrySet().stream()
-							.filter(entryToCheck -> entryToCheck.getValue() != value)
-							.collect(Collectors.toMap(Map.Entry::getKey, entry -> (MapAccessor) entry.getValue()));
+		}
+		createInstances(typeMetaData.type(), mapAccessors, out);
+	}
 
-					return new HeadAndTail(value, tailValue);
-				}
-			}
-			return new HeadAndTail(mapAccessor, Map.of());
+	private void createInstances(Class<?> type, List<? extends MapAccessor> mapAccessors, Object[] out) {
+		List<MapAccessor> heads = new ArrayList<>(mapAccessors.size());
+		List<Map<String, MapAccessor>> tails = new ArrayList<>(mapAccessors.size());
+		for (MapAccessor mapAccessor : mapAccessors) {
+			HeadAndTail headAndTail = HeadAndTail.from(mapAccessor);
+			heads.add(headAndTail.head());
+			tails.add(headAndTail.tail());
+		}
+		mappingEngineFor(type).createInstances(type, heads, tails, converterRegistry, out);
+	}
+
+	private MappingEngine mappingEngineFor(Class<?> type) {
+		MappingEngine mappingEngine = mappingEngines.get(type);
+		if (mappingEngine == null) {
+			mappingEngine = Objects.requireNonNull(mappingEngineSelector.select(type), () -> "No mapping engine selected for " + type);
+			mappingEngines.putIfAbsent(type, mappingEngine);
+		}
+		return mappingEngine;
+	}
+
+	private record HeadAndTail(MapAccessor head, Map<String, MapAccessor> tail) {
+		static HeadAndTail from(MapAccessor mapAccessor) {
+			MapAccessor head = MappingSupport.headOf(mapAccessor);
+			return new HeadAndTail(head, MappingSupport.tailOf(mapAccessor, head));
 		}
 	}
 }
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.conversion;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.meistermeier.neo4j.toolbelt.internal.MappingSupport;
+import com.meistermeier.neo4j.toolbelt.internal.TypeModel;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.types.MapAccessor;
+import org.neo4j.driver.types.TypeSystem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Alternative to the reflective instantiation that hands the driver values over to Jackson's deserializers.
+ * Honors the Jackson annotations of the target type like {@code @JsonCreator}, {@code @JsonProperty} or {@code @JsonAlias}.
+ * The values get read directly from the driver's value tree, there is no intermediate JSON document.
+ * <p>
+ * By default, only types that carry Jackson annotations get converted, other types can be added explicitly via {@link #withTypes(Class[])}.
+ * Unknown properties are ignored, the same way the reflective instantiation ignores them.
+ * Same as {@link MappingEngine#jackson(ObjectMapper)}, but usable as custom converter.
+ * Register it via {@code Mapper.INSTANCE.withCustomConverter(new JacksonEntityConverter())}.
+ *
+ * @author Gerrit Meier
+ */
+public final class JacksonEntityConverter implements TypeConverter<MapAccessor> {
+
+	private final TypeSystem typeSystem = TypeSystem.getDefault();
+	private final ObjectMapper objectMapper;
+	private final Set<Class<?>> types;
+	private final JacksonMappingEngine engine;
+
+	/**
+	 * Creates a converter with a default {@link ObjectMapper}.
+	 */
+	public JacksonEntityConverter() {
+		this(new ObjectMapper());
+	}
+
+	/**
+	 * Creates a converter that uses the modules and configuration of the given {@link ObjectMapper}.
+	 *
+	 * @param objectMapper Object mapper to take the deserializers from.
+	 */
+	public JacksonEntityConverter(ObjectMapper objectMapper) {
+		this(objectMapper, Set.of());
+	}
+
+	private JacksonEntityConverter(ObjectMapper objectMapper, Set<Class<?>> types) {
+		this.objectMapper = objectMapper;
+		this.types = types;
+		this.engine = new JacksonMappingEngine(objectMapper);
+	}
+
+	/**
+	 * Create a new converter that additionally converts the given types, even if they do not carry Jackson annotations.
+	 *
+	 * @param additionalTypes Types to convert with Jackson.
+	 * @return new converter instance
+	 */
+	public JacksonEntityConverter withTypes(Class<?>... additionalTypes) {
+		Set<Class<?>> newTypes = new HashSet<>(types);
+		newTypes.addAll(Arrays.asList(additionalTypes));
+		return new JacksonEntityConverter(objectMapper, Set.copyOf(newTypes));
+	}
+
+	@Override
+	public boolean canConvert(MapAccessor mapAccessor, TypeMetaData<?> typeMetaData) {
+		if (mapAccessor instanceof Value value) {
+			if (typeSystem.LIST().isTypeOf(value)) {
+				return typeMetaData.genericType() != null && handles(typeMetaData.genericType());
+			}
+			return (typeSystem.NODE().isTypeOf(value) || typeSystem.MAP().isTypeOf(value)) && handles(typeMetaData.type());
+		}
+		return mapAccessor instanceof Record && handles(typeMetaData.type());
+	}
+
+	@Override
+	public Object convert(MapAccessor mapAccessor, TypeMetaData<?> typeMetaData) {
+		if (mapAccessor instanceof Value value && typeSystem.LIST().isTypeOf(value)) {
+			List<Object> elements = new ArrayList<>(value.size());
+			for (Value element : value.values()) {
+				elements.add(engine.read(typeMetaData.genericType(), element));
+			}
+			return elements;
+		}
+		if (mapAccessor instanceof Record record) {
+			return createInstance(typeMetaData.type(), record);
+		}
+		return engine.read(typeMetaData.type(), (Value) mapAccessor);
+	}
+
+	private boolean handles(Class<?> type) {
+		if (types.contains(type)) {
+			return true;
+		}
+		return !type.isPrimitive() && !type.isArray() && !type.getName().startsWith("java.")
+				&& TypeModel.of(type).hasJacksonAnnotations();
+	}
+
+	/**
+	 * Same as the reflective instantiation: if the record contains a node, the node's properties get combined
+	 * with the other columns of the record, so that related nodes returned next to it can be read.
+	 */
+	private Object createInstance(Class<?> type, Record record) {
+		MapAccessor head = MappingSupport.headOf(record);
+		return engine.createInstance(type, head, MappingSupport.tailOf(record, head), null);
+	}
+}
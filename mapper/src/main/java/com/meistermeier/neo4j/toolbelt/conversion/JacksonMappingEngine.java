@@ -0,0 +1,79 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.conversion;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.types.MapAccessor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link MappingEngine} that reads the values with Jackson's deserializers via a {@link ValueParser}.
+ * Unknown properties are ignored, the same way the reflective instantiation ignores them.
+ *
+ * @author Gerrit Meier
+ */
+final class JacksonMappingEngine implements MappingEngine {
+
+	private final ObjectMapper objectMapper;
+	private final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+
+	JacksonMappingEngine(ObjectMapper objectMapper) {
+		this.objectMapper = objectMapper;
+	}
+
+	@Override
+	public <T> T createInstance(Class<T> type, MapAccessor head, Map<String, MapAccessor> tail, ConverterRegistry converterRegistry) {
+		List<String> names = new ArrayList<>(head.size() + tail.size());
+		List<Value> values = new ArrayList<>(head.size() + tail.size());
+		for (String key : head.keys()) {
+			names.add(key);
+			values.add(head.get(key));
+		}
+		for (Map.Entry<String, MapAccessor> entry : tail.entrySet()) {
+			names.add(entry.getKey());
+			values.add((Value) entry.getValue());
+		}
+		return type.cast(read(type, new ValueParser(names, values)));
+	}
+
+	/**
+	 * Reads a single value as the given type.
+	 *
+	 * @param type  Type to read.
+	 * @param value Value to read from.
+	 * @return new instance
+	 */
+	Object read(Class<?> type, Value value) {
+		return read(type, new ValueParser(value));
+	}
+
+	private Object read(Class<?> type, ValueParser parser) {
+		ObjectReader reader = readers.computeIfAbsent(type, key -> objectMapper.readerFor(key).without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES));
+		try {
+			return reader.readValue(parser);
+		} catch (IOException e) {
+			throw new ConversionException("Cannot convert with Jackson: " + e.getMessage(), e);
+		}
+	}
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.conversion;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.neo4j.driver.types.MapAccessor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates instances of record/class based entities from the values of a record, node or map.
+ * The {@link EntityConverter} takes care of the record layout and asks the engine that a {@link MappingEngineSelector}
+ * chose for the target type.
+ *
+ * @author Gerrit Meier
+ */
+public interface MappingEngine {
+
+	/**
+	 * Creates one instance of the given type.
+	 *
+	 * @param type              Type to create the instance of.
+	 * @param head              Properties of the entity, e.g. a node or a map.
+	 * @param tail              Values returned next to a node, e.g. related nodes.
+	 * @param converterRegistry Registry to convert the property values with.
+	 * @param <T>               Type to process and return.
+	 * @return new instance
+	 */
+	<T> T createInstance(Class<T> type, MapAccessor head, Map<String, MapAccessor> tail, ConverterRegistry converterRegistry);
+
+	/**
+	 * Creates instances for a whole batch of rows.
+	 * The default implementation delegates to {@link #createInstance(Class, MapAccessor, Map, ConverterRegistry)} for every row.
+	 *
+	 * @param type              Type to create the instances of.
+	 * @param heads             Properties of every entity.
+	 * @param tails             Values returned next to every node, same index as in {@code heads}.
+	 * @param converterRegistry Registry to convert the property values with.
+	 * @param out               Array to write the new instances to, same index as in {@code heads}.
+	 * @param <T>               Type to process.
+	 */
+	default <T> void createInstances(Class<T> type, List<MapAccessor> heads, List<Map<String, MapAccessor>> tails, ConverterRegistry converterRegistry, Object[] out) {
+		for (int i = 0; i < heads.size(); i++) {
+			out[i] = createInstance(type, heads.get(i), tails.get(i), converterRegistry);
+		}
+	}
+
+	/**
+	 * The default engine, that invokes the best matching constructor via reflection.
+	 *
+	 * @return reflective engine
+	 */
+	static MappingEngine reflective() {
+		return ObjectInstantiator.REFLECTIVE;
+	}
+
+	/**
+	 * Same constructor matching as {@link #reflective()}, but invokes the constructor via a cached method handle.
+	 *
+	 * @return method handle based engine
+	 */
+	static MappingEngine methodHandles() {
+		return ObjectInstantiator.METHOD_HANDLES;
+	}
+
+	/**
+	 * Hands the values over to Jackson's deserializers, honoring Jackson annotations of the type.
+	 *
+	 * @param objectMapper Object mapper to take the deserializers from.
+	 * @return Jackson based engine
+	 */
+	static MappingEngine jackson(ObjectMapper objectMapper) {
+		return new JacksonMappingEngine(objectMapper);
+	}
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.conversion;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.meistermeier.neo4j.toolbelt.internal.TypeModel;
+
+/**
+ * Chooses the {@link MappingEngine} per target type.
+ * Gets asked once per type, the choice gets cached.
+ *
+ * @author Gerrit Meier
+ */
+@FunctionalInterface
+public interface MappingEngineSelector {
+
+	/**
+	 * Chooses the engine for the given type.
+	 *
+	 * @param type Type to map onto.
+	 * @return engine for the type
+	 */
+	MappingEngine select(Class<?> type);
+
+	/**
+	 * Create a new selector that uses the given engine for the given type and asks this selector for all other types.
+	 *
+	 * @param type   Type to map with the engine.
+	 * @param engine Engine to use.
+	 * @return new selector
+	 */
+	default MappingEngineSelector withEngine(Class<?> type, MappingEngine engine) {
+		return candidate -> candidate == type ? engine : select(candidate);
+	}
+
+	/**
+	 * Uses the same engine for all types.
+	 *
+	 * @param engine Engine to use.
+	 * @return new selector
+	 */
+	static MappingEngineSelector always(MappingEngine engine) {
+		return type -> engine;
+	}
+
+	/**
+	 * Chooses the engine by the shape of the type:
+	 * Jackson for types with Jackson annotations, method handles for records and reflection for all other classes.
+	 *
+	 * @param objectMapper Object mapper for the Jackson engine.
+	 * @return new selector
+	 */
+	static MappingEngineSelector byTypeShape(ObjectMapper objectMapper) {
+		MappingEngine jackson = MappingEngine.jackson(objectMapper);
+		return type -> {
+			if (TypeModel.of(type).hasJacksonAnnotations()) {
+				return jackson;
+			}
+			return type.isRecord() ? MappingEngine.methodHandles() : MappingEngine.reflective();
+		};
+	}
+}
@@ -15,20 +15,23 @@
  */
 package com.meistermeier.neo4j.toolbelt.conversion;
 
+import com.meistermeier.neo4j.toolbelt.conversion.ConversionException.FieldFailure;
+import com.meistermeier.neo4j.toolbelt.internal.ConstructorModel;
+import com.meistermeier.neo4j.toolbelt.internal.ParameterModel;
+import com.meistermeier.neo4j.toolbelt.internal.TypeModel;
 import org.neo4j.driver.Value;
 import org.neo4j.driver.Values;
+import org.neo4j.driver.exceptions.value.ValueException;
 import org.neo4j.driver.types.MapAccessor;
 
-import java.lang.reflect.Constructor;
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Parameter;
-import java.lang.reflect.ParameterizedType;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Instantiates objects from class or records and populates their fields,
@@ -37,7 +40,23 @@ import java.util.Set;
  *
  * @author Gerrit Meier
  */
-class ObjectInstantiator {
+final class ObjectInstantiator implements MappingEngine {
+
+	static final ObjectInstantiator REFLECTIVE = new ObjectInstantiator(false);
+	static final ObjectInstantiator METHOD_HANDLES = new ObjectInstantiator(true);
+
+	private static final ClassValue<ConstructorSelections> CONSTRUCTOR_SELECTIONS = new ClassValue<>() {
+		@Override
+		protected ConstructorSelections computeValue(Class<?> type) {
+			return new ConstructorSelections(type);
+		}
+	};
+
+	private final boolean useMethodHandles;
+
+	private ObjectInstantiator(boolean useMethodHandles) {
+		this.useMethodHandles = useMethodHandles;
+	}
 
 	/**
 	 * Core entity instantiation function for class/record based mapping.
@@ -47,70 +66,228 @@ class ObjectInstantiator {
 	 * @param <T>         Type to process and return.
 	 * @return New populated instance of the defined type.
 	 */
-	<T> T createInstance(Class<T> entityClass, MapAccessor record, Map<String, MapAccessor> tail, ConverterRegistry converterRegistry) {
-
-			Constructor<T> instantiatingConstructor = determineConstructor(entityClass, record.asMap());
-
-			Parameter[] parameters = instantiatingConstructor.getParameters();
-			Value[] values = new Value[parameters.length];
-			for (int i = 0; i < parameters.length; i++) {
-				Parameter parameter = parameters[i];
-				String parameterName = parameter.getName();
-				Value value = record.get(parameterName);
-				Class<?> parameterType = parameter.getType();
-				Object convert = converterRegistry.convert(value, parameterType, getType(parameters[i]));
-				if (convert != null) {
-					values[i] = value;
-				} else if (parameterType.isAssignableFrom(List.class)) {
-					// look into the tail
-					values[i] = (Value) tail.getOrDefault(parameterName, Values.NULL);
+	@Override
+	public <T> T createInstance(Class<T> entityClass, MapAccessor record, Map<String, MapAccessor> tail, ConverterRegistry converterRegistry) {
+
+			ConstructorModel instantiatingConstructor = CONSTRUCTOR_SELECTIONS.get(entityClass).select(keysOf(record));
+
+			List<ParameterModel> parameters = instantiatingConstructor.parameters();
+			Object[] rawValues = new Object[parameters.size()];
+			if (!converterRegistry.isTolerant()) {
+				for (int i = 0; i < rawValues.length; i++) {
+					ParameterModel parameter = parameters.get(i);
+					rawValues[i] = converterRegistry.convert(valueFor(parameter, record, tail), parameter.type(), parameter.elementType());
 				}
+				return entityClass.cast(instantiate(instantiatingConstructor, rawValues));
+			}
+
+			List<FieldFailure> fieldFailures = null;
+			RuntimeException firstFailure = null;
+			for (int i = 0; i < rawValues.length; i++) {
+				ParameterModel parameter = parameters.get(i);
+				Value value = valueFor(parameter, record, tail);
+				try {
+					rawValues[i] = converterRegistry.convert(value, parameter.type(), parameter.elementType());
+				} catch (ConversionException | ValueException e) {
+					// keep on converting to report all failed fields at once
+					fieldFailures = fieldFailures == null ? new ArrayList<>() : fieldFailures;
+					firstFailure = firstFailure == null ? e : firstFailure;
+					addFieldFailures(fieldFailures, parameter, value, e);
+				}
+			}
+			if (fieldFailures != null) {
+				throw converterRegistry.conversionFailed(record, entityClass, firstFailure, List.copyOf(fieldFailures));
+			}
+			return entityClass.cast(instantiate(instantiatingConstructor, rawValues));
+	}
+
+	private static void addFieldFailures(List<FieldFailure> fieldFailures, ParameterModel parameter, Value value, RuntimeException failure) {
+		if (failure instanceof ConversionException conversionException && !conversionException.getFieldFailures().isEmpty()) {
+			for (FieldFailure nestedFailure : conversionException.getFieldFailures()) {
+				fieldFailures.add(nestedFailure.nestedIn(parameter.name()));
+			}
+			return;
+		}
+		fieldFailures.add(new FieldFailure(parameter.name(), ConversionException.typeNameOf(value), parameter.type()));
+	}
+
+	/**
+	 * Bulk variant of {@link #createInstance(Class, MapAccessor, Map, ConverterRegistry)}.
+	 * Rows that share the same constructor get their parameter values converted column by column.
+	 * A tolerant registry gets all failed rows reported at once, after all other rows got instantiated.
+	 *
+	 * @param entityClass Type to get the instances from.
+	 * @param records     Head of every row.
+	 * @param tails       Tail of every row, same index as in {@code records}.
+	 * @param converterRegistry  Backreference to global converters for property conversion.
+	 * @param out         Array to write the new instances to, same index as in {@code records}.
+	 * @param <T>         Type to process.
+	 */
+	@Override
+	public <T> void createInstances(Class<T> entityClass, List<MapAccessor> records, List<Map<String, MapAccessor>> tails, ConverterRegistry converterRegistry, Object[] out) {
+		int size = records.size();
+		List<ConstructorModel> rowConstructors = new ArrayList<>(size);
+		ConstructorSelections constructorSelections = CONSTRUCTOR_SELECTIONS.get(entityClass);
+		List<String> previousKeys = null;
+		ConstructorModel previousConstructor = null;
+		for (MapAccessor record : records) {
+			List<String> keys = keysOf(record);
+			// rows of the same result usually share their keys, no need to look for the constructor again
+			if (!keys.equals(previousKeys)) {
+				previousConstructor = constructorSelections.select(keys);
+				previousKeys = keys;
 			}
+			rowConstructors.add(previousConstructor);
+		}
 
+		List<ConversionException.RowFailure> rowFailures = new ArrayList<>(0);
+		int runStart = 0;
+		while (runStart < size) {
+			ConstructorModel constructor = rowConstructors.get(runStart);
+			int runEnd = runStart + 1;
+			while (runEnd < size && rowConstructors.get(runEnd) == constructor) {
+				runEnd++;
+			}
+			createInstances(entityClass, constructor, records.subList(runStart, runEnd), tails.subList(runStart, runEnd), converterRegistry, out, runStart, rowFailures);
+			runStart = runEnd;
+		}
+		if (!rowFailures.isEmpty()) {
+			throw converterRegistry.rowsFailed(entityClass, List.copyOf(rowFailures));
+		}
+	}
+
+	private <T> void createInstances(Class<T> entityClass, ConstructorModel constructor, List<MapAccessor> records, List<Map<String, MapAccessor>> tails,
+									 ConverterRegistry converterRegistry, Object[] out, int offset, List<ConversionException.RowFailure> rowFailures) {
+		List<ParameterModel> parameters = constructor.parameters();
+		int parameterCount = parameters.size();
+		int rowCount = records.size();
+
+		Object[][] columns = new Object[parameterCount][];
+		FailedRow[] failedRows = null;
+		for (int i = 0; i < parameterCount; i++) {
+			ParameterModel parameter = parameters.get(i);
+			List<Value> columnValues = new ArrayList<>(rowCount);
+			for (int row = 0; row < rowCount; row++) {
+				columnValues.add(valueFor(parameter, records.get(row), tails.get(row)));
+			}
+			columns[i] = new Object[rowCount];
 			try {
-				Object[] rawValues = new Object[values.length];
-				for (int i = 0; i < values.length; i++) {
-					Value value = values[i];
-					rawValues[i] = converterRegistry.convert(value, parameters[i].getType(), getType(parameters[i]));
+				converterRegistry.convertAll(columnValues, parameter.type(), parameter.elementType(), columns[i]);
+			} catch (ConversionException | ValueException e) {
+				if (!(e instanceof ConversionException conversionException) || conversionException.getRowFailures().isEmpty()) {
+					// go row by row to fail with the first failing row, like mapping record by record would
+					for (int row = 0; row < rowCount; row++) {
+						out[offset + row] = createInstance(entityClass, records.get(row), tails.get(row), converterRegistry);
+					}
+					return;
+				}
+				// a tolerant registry converted the rest of the column, keep on converting to report all failed fields at once
+				failedRows = failedRows == null ? new FailedRow[rowCount] : failedRows;
+				for (ConversionException.RowFailure rowFailure : conversionException.getRowFailures()) {
+					FailedRow failedRow = failedRows[rowFailure.row()];
+					if (failedRow == null) {
+						failedRow = new FailedRow(rowFailure.failure());
+						failedRows[rowFailure.row()] = failedRow;
+					}
+					addFieldFailures(failedRow.fieldFailures, parameter, columnValues.get(rowFailure.row()), rowFailure.failure());
 				}
-				return instantiatingConstructor.newInstance(rawValues);
-			} catch (InstantiationException | IllegalAccessException |
-					 InvocationTargetException e) {
+			}
+		}
+
+		for (int row = 0; row < rowCount; row++) {
+			if (failedRows != null && failedRows[row] != null) {
+				FailedRow failedRow = failedRows[row];
+				rowFailures.add(new ConversionException.RowFailure(offset + row,
+						converterRegistry.conversionFailed(records.get(row), entityClass, failedRow.firstFailure, List.copyOf(failedRow.fieldFailures))));
+				continue;
+			}
+			Object[] rawValues = new Object[parameterCount];
+			for (int i = 0; i < parameterCount; i++) {
+				rawValues[i] = columns[i][row];
+			}
+			out[offset + row] = instantiate(constructor, rawValues);
+		}
+	}
+
+	/**
+	 * Failed fields of a row in a tolerant batch.
+	 */
+	private static final class FailedRow {
+
+		private final RuntimeException firstFailure;
+		private final List<FieldFailure> fieldFailures = new ArrayList<>();
+
+		FailedRow(RuntimeException firstFailure) {
+			this.firstFailure = firstFailure;
+		}
+	}
+
+	private static Value valueFor(ParameterModel parameter, MapAccessor record, Map<String, MapAccessor> tail) {
+		String parameterName = parameter.name();
+		Value value = record.get(parameterName);
+		if (value.isNull() && parameter.type().isAssignableFrom(List.class)) {
+			// look into the tail
+			return (Value) tail.getOrDefault(parameterName, Values.NULL);
+		}
+		return value;
+	}
+
+	private Object instantiate(ConstructorModel constructor, Object[] rawValues) {
+		MethodHandle invoker = useMethodHandles ? constructor.invoker() : null;
+		if (invoker != null) {
+			try {
+				return (Object) invoker.invokeExact(rawValues);
+			} catch (RuntimeException | Error e) {
+				throw e;
+			} catch (Throwable e) {
 				throw new RuntimeException(e);
 			}
+		}
+		try {
+			return constructor.constructor().newInstance(rawValues);
+		} catch (InstantiationException | IllegalAccessException |
+				 InvocationTargetException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static List<String> keysOf(MapAccessor record) {
+		Iterable<String> keys = record.keys();
+		if (keys instanceof List<String> keyList) {
+			return keyList;
+		}
+		List<String> keyList = new ArrayList<>();
+		keys.forEach(keyList::add);
+		return keyList;
 	}
 
 	/**
 	 * Find the constructor with the most matching parameter count.
 	 */
-	@SuppressWarnings("unchecked")
-	private <T> Constructor<T> determineConstructor(Class<T> clazz, Map<String, Object> propertyValue) {
-		Constructor<T>[] constructors = (Constructor<T>[]) clazz.getDeclaredConstructors();
-		Constructor<T> instantiatingConstructorCandidate = null;
-		Set<String> availableProperties = propertyValue.keySet();
+	private static ConstructorModel determineConstructor(Class<?> clazz, List<ConstructorModel> constructors, Collection<String> availableProperties) {
+		ConstructorSelectionEvent event = new ConstructorSelectionEvent();
+		event.begin();
+		ConstructorModel instantiatingConstructorCandidate = null;
 
 		int parameterMatchCount = -1;
 
-		for (Constructor<T> constructor : constructors) {
-			Parameter[] constructorParameters = constructor.getParameters();
+		for (ConstructorModel constructor : constructors) {
 			// if there is no chance that this parameter match count will be higher, dismiss this candidate
-			if (constructorParameters.length < parameterMatchCount) {
+			if (constructor.parameters().size() < parameterMatchCount) {
 				continue;
 			}
 
-			List<String> constructorParameterNames = Arrays.stream(constructorParameters)
-					.map(Parameter::getName).toList();
-
-			int intersectionAmount = calculateIntersectionAmount(constructorParameterNames, availableProperties);
+			int intersectionAmount = calculateIntersectionAmount(constructor.parameterNames(), availableProperties);
 			if (intersectionAmount > parameterMatchCount) {
 				instantiatingConstructorCandidate = constructor;
 				parameterMatchCount = intersectionAmount;
 			}
 		}
+		event.commit(clazz, availableProperties.size(), constructors.size(), instantiatingConstructorCandidate);
 		return instantiatingConstructorCandidate;
 	}
 
-	private int calculateIntersectionAmount(Collection<String> constructorParameterNames, Collection<String> availableProperties) {
+	private static int calculateIntersectionAmount(Collection<String> constructorParameterNames, Collection<String> availableProperties) {
 		Collection<String> availablePropertiesCopy = new HashSet<>(availableProperties);
 		int existingPropertiesAmount = availablePropertiesCopy.size();
 		availablePropertiesCopy.removeAll(constructorParameterNames);
@@ -120,13 +297,39 @@ class ObjectInstantiator {
 
 	}
 
-	private static Class<?> getType(Parameter parameter) {
-		if (parameter.getType().isAssignableFrom(Map.class)) {
-			return Map.class;
+	/**
+	 * Selected constructors of one type by the keys of the records they got selected for.
+	 * A type with a single constructor needs no keys, otherwise only a bounded number of key sets gets cached,
+	 * e.g. nodes with many optional properties might come with more.
+	 */
+	private static final class ConstructorSelections {
+
+		private static final int MAX_CACHED_KEY_SETS = 64;
+
+		private final Class<?> type;
+		private final List<ConstructorModel> constructors;
+		private final Map<List<String>, ConstructorModel> selectedByKeys = new ConcurrentHashMap<>();
+		private volatile ConstructorModel onlyConstructor;
+
+		ConstructorSelections(Class<?> type) {
+			this.type = type;
+			this.constructors = TypeModel.of(type).constructors();
+		}
+
+		ConstructorModel select(List<String> keys) {
+			boolean singleConstructor = constructors.size() == 1;
+			ConstructorModel selected = singleConstructor ? onlyConstructor : selectedByKeys.get(keys);
+			if (selected != null) {
+				return selected;
+			}
+			selected = determineConstructor(type, constructors, keys);
+			if (singleConstructor) {
+				onlyConstructor = selected;
+			} else if (selectedByKeys.size() < MAX_CACHED_KEY_SETS) {
+				selectedByKeys.putIfAbsent(List.copyOf(keys), selected);
+			}
+			return selected;
 		}
-		return parameter.getType().getTypeParameters().length == 0
-				? parameter.getType()
-				: (Class<?>) ((ParameterizedType) parameter.getParameterizedType()).getActualTypeArguments()[0];
 	}
 
 }
@@ -17,6 +17,8 @@ package com.meistermeier.neo4j.toolbelt.conversion;
 
 import org.neo4j.driver.types.MapAccessor;
 
+import java.util.List;
+
 /**
  * Definition of a type converter.
  * An implementation must provide the methods {@code canConvert} and {@code convert}.
@@ -29,6 +31,8 @@ public interface TypeConverter<T extends MapAccessor> {
 
 	/**
 	 * Reports if this converter can convert the given type.
+	 * If the {@link ConverterRegistry} was created with {@link ConverterRegistry.Builder#withSelectionCache()},
+	 * the decision gets cached per value type and target type and must not depend on the actual content of the value.
 	 *
 	 * @param value        the value to convert
 	 * @param typeMetaData the target field type
@@ -44,4 +48,21 @@ public interface TypeConverter<T extends MapAccessor> {
 	 * @return the converted value object
 	 */
 	Object convert(MapAccessor value, TypeMetaData<?> typeMetaData);
+
+	/**
+	 * Converts a whole column of driver values into the requested type.
+	 * Gets called by the {@link ConverterRegistry} with values of the same type, that this converter
+	 * has already reported to be able to convert.
+	 * The default implementation delegates to {@link #convert(MapAccessor, TypeMetaData)} for every value.
+	 * Implementations can override this to amortize setup costs over all values.
+	 *
+	 * @param values       the values to convert
+	 * @param typeMetaData the target field type
+	 * @param out          array to write the converted values to, using the same index as in {@code values}
+	 */
+	default void convertAll(List<? extends MapAccessor> values, TypeMetaData<?> typeMetaData, Object[] out) {
+		for (int i = 0; i < values.size(); i++) {
+			out[i] = convert(values.get(i), typeMetaData);
+		}
+	}
 }
@@ -0,0 +1,343 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.conversion;
+
+import com.fasterxml.jackson.core.Base64Variant;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.core.base.ParserMinimalBase;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.types.TypeSystem;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Exposes a driver value tree as stream of JSON tokens, so that Jackson's deserializers can read it without an intermediate JSON document.
+ * Nodes, relationships and maps become objects, lists arrays.
+ * Temporal values, points and byte arrays get reported as embedded objects, that Jackson takes over as they are.
+ *
+ * @author Gerrit Meier
+ */
+final class ValueParser extends ParserMinimalBase {
+
+	private static final TypeSystem typeSystem = TypeSystem.getDefault();
+
+	private final List<String> rootNames;
+	private final List<Value> rootValues;
+	private final Value rootValue;
+
+	private ObjectCodec codec;
+	private Context context = new Context(null, JsonStreamContext.TYPE_ROOT, null, null);
+	private Value currentValue;
+	private Value pendingValue;
+	private boolean started;
+	private boolean closed;
+
+	/**
+	 * Creates a parser for a single value.
+	 *
+	 * @param rootValue Value to expose.
+	 */
+	ValueParser(Value rootValue) {
+		this(null, null, rootValue);
+	}
+
+	/**
+	 * Creates a parser for an object, whose fields are given as names and values.
+	 *
+	 * @param rootNames  Names of the fields.
+	 * @param rootValues Values of the fields, same index as in {@code rootNames}.
+	 */
+	ValueParser(List<String> rootNames, List<Value> rootValues) {
+		this(rootNames, rootValues, null);
+	}
+
+	private ValueParser(List<String> rootNames, List<Value> rootValues, Value rootValue) {
+		this.rootNames = rootNames;
+		this.rootValues = rootValues;
+		this.rootValue = rootValue;
+	}
+
+	@Override
+	public JsonToken nextToken() {
+		if (closed) {
+			return _currToken = null;
+		}
+		if (pendingValue != null) {
+			Value value = pendingValue;
+			pendingValue = null;
+			return _currToken = startValue(value);
+		}
+		if (context.inRoot()) {
+			if (started) {
+				return _currToken = null;
+			}
+			started = true;
+			if (rootNames != null) {
+				context = new Context(context, JsonStreamContext.TYPE_OBJECT, rootNames, rootValues);
+				return _currToken = JsonToken.START_OBJECT;
+			}
+			return _currToken = startValue(rootValue);
+		}
+		if (!context.hasNext()) {
+			JsonToken endToken = context.inObject() ? JsonToken.END_OBJECT : JsonToken.END_ARRAY;
+			context = context.parent;
+			currentValue = null;
+			return _currToken = endToken;
+		}
+		Value value = context.next();
+		if (context.inObject()) {
+			pendingValue = value;
+			return _currToken = JsonToken.FIELD_NAME;
+		}
+		return _currToken = startValue(value);
+	}
+
+	private JsonToken startValue(Value value) {
+		currentValue = value;
+		if (value.isNull()) {
+			return JsonToken.VALUE_NULL;
+		}
+		if (typeSystem.STRING().isTypeOf(value)) {
+			return JsonToken.VALUE_STRING;
+		}
+		if (typeSystem.INTEGER().isTypeOf(value)) {
+			return JsonToken.VALUE_NUMBER_INT;
+		}
+		if (typeSystem.FLOAT().isTypeOf(value)) {
+			return JsonToken.VALUE_NUMBER_FLOAT;
+		}
+		if (typeSystem.BOOLEAN().isTypeOf(value)) {
+			return value.asBoolean() ? JsonToken.VALUE_TRUE : JsonToken.VALUE_FALSE;
+		}
+		if (typeSystem.NODE().isTypeOf(value) || typeSystem.RELATIONSHIP().isTypeOf(value) || typeSystem.MAP().isTypeOf(value)) {
+			List<String> names = new ArrayList<>(value.size());
+			List<Value> values = new ArrayList<>(value.size());
+			for (String key : value.keys()) {
+				names.add(key);
+				values.add(value.get(key));
+			}
+			context = new Context(context, JsonStreamContext.TYPE_OBJECT, names, values);
+			return JsonToken.START_OBJECT;
+		}
+		if (typeSystem.LIST().isTypeOf(value)) {
+			List<Value> values = new ArrayList<>(value.size());
+			value.values().forEach(values::add);
+			context = new Context(context, JsonStreamContext.TYPE_ARRAY, null, values);
+			return JsonToken.START_ARRAY;
+		}
+		// temporal values, durations, points and byte arrays
+		return JsonToken.VALUE_EMBEDDED_OBJECT;
+	}
+
+	@Override
+	protected void _handleEOF() {
+	}
+
+	@Override
+	public String getCurrentName() {
+		Context nameContext = context;
+		if ((_currToken == JsonToken.START_OBJECT || _currToken == JsonToken.START_ARRAY) && nameContext.parent != null) {
+			nameContext = nameContext.parent;
+		}
+		return nameContext.getCurrentName();
+	}
+
+	@Override
+	public void overrideCurrentName(String name) {
+		context.overriddenName = name;
+	}
+
+	@Override
+	public JsonStreamContext getParsingContext() {
+		return context;
+	}
+
+	@Override
+	public void close() {
+		closed = true;
+	}
+
+	@Override
+	public boolean isClosed() {
+		return closed;
+	}
+
+	@Override
+	public String getText() {
+		if (_currToken == null) {
+			return null;
+		}
+		return switch (_currToken) {
+			case FIELD_NAME -> getCurrentName();
+			case VALUE_STRING -> currentValue.asString();
+			case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> String.valueOf(currentValue.asNumber());
+			case VALUE_EMBEDDED_OBJECT -> String.valueOf(currentValue.asObject());
+			default -> _currToken.asString();
+		};
+	}
+
+	@Override
+	public char[] getTextCharacters() {
+		String text = getText();
+		return text == null ? null : text.toCharArray();
+	}
+
+	@Override
+	public boolean hasTextCharacters() {
+		return false;
+	}
+
+	@Override
+	public int getTextLength() {
+		String text = getText();
+		return text == null ? 0 : text.length();
+	}
+
+	@Override
+	public int getTextOffset() {
+		return 0;
+	}
+
+	@Override
+	public byte[] getBinaryValue(Base64Variant base64Variant) {
+		if (_currToken == JsonToken.VALUE_STRING) {
+			return base64Variant.decode(currentValue.asString());
+		}
+		return currentValue.asByteArray();
+	}
+
+	@Override
+	public Object getEmbeddedObject() {
+		return _currToken == JsonToken.VALUE_EMBEDDED_OBJECT ? currentValue.asObject() : null;
+	}
+
+	@Override
+	public Number getNumberValue() {
+		return currentValue.asNumber();
+	}
+
+	@Override
+	public NumberType getNumberType() {
+		if (_currToken == JsonToken.VALUE_NUMBER_INT) {
+			return NumberType.LONG;
+		}
+		return _currToken == JsonToken.VALUE_NUMBER_FLOAT ? NumberType.DOUBLE : null;
+	}
+
+	@Override
+	public int getIntValue() {
+		return currentValue.asInt();
+	}
+
+	@Override
+	public long getLongValue() {
+		return currentValue.asLong();
+	}
+
+	@Override
+	public BigInteger getBigIntegerValue() {
+		return BigInteger.valueOf(currentValue.asLong());
+	}
+
+	@Override
+	public float getFloatValue() {
+		return currentValue.asFloat();
+	}
+
+	@Override
+	public double getDoubleValue() {
+		return currentValue.asDouble();
+	}
+
+	@Override
+	public BigDecimal getDecimalValue() {
+		return _currToken == JsonToken.VALUE_NUMBER_INT
+				? BigDecimal.valueOf(currentValue.asLong())
+				: BigDecimal.valueOf(currentValue.asDouble());
+	}
+
+	@Override
+	public ObjectCodec getCodec() {
+		return codec;
+	}
+
+	@Override
+	public void setCodec(ObjectCodec codec) {
+		this.codec = codec;
+	}
+
+	@Override
+	public Version version() {
+		return Version.unknownVersion();
+	}
+
+	@Override
+	public JsonLocation getCurrentLocation() {
+		return JsonLocation.NA;
+	}
+
+	@Override
+	public JsonLocation getTokenLocation() {
+		return JsonLocation.NA;
+	}
+
+	/**
+	 * Position within an object or array of the value tree.
+	 */
+	private static final class Context extends JsonStreamContext {
+
+		private final Context parent;
+		private final List<String> names;
+		private final List<Value> values;
+		private String overriddenName;
+
+		Context(Context parent, int type, List<String> names, List<Value> values) {
+			super(type, -1);
+			this.parent = parent;
+			this.names = names;
+			this.values = values;
+		}
+
+		boolean hasNext() {
+			return _index + 1 < values.size();
+		}
+
+		Value next() {
+			overriddenName = null;
+			return values.get(++_index);
+		}
+
+		@Override
+		public Context getParent() {
+			return parent;
+		}
+
+		@Override
+		public String getCurrentName() {
+			if (overriddenName != null) {
+				return overriddenName;
+			}
+			return names == null || _index < 0 ? null : names.get(_index);
+		}
+	}
+}
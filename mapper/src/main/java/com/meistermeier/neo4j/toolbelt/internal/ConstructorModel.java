@@ -0,0 +1,98 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.internal;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Constructor of a {@link TypeModel} with its parameters.
+ *
+ * @author Gerrit Meier
+ */
+public final class ConstructorModel {
+
+	private static final MethodHandle INACCESSIBLE = MethodHandles.constant(Object.class, null);
+
+	private final Constructor<?> constructor;
+	private final List<ParameterModel> parameters;
+	private final List<String> parameterNames;
+	private volatile MethodHandle invoker;
+
+	ConstructorModel(Constructor<?> constructor) {
+		this.constructor = constructor;
+		List<ParameterModel> parameterModels = new ArrayList<>();
+		List<String> names = new ArrayList<>();
+		for (Parameter parameter : constructor.getParameters()) {
+			parameterModels.add(new ParameterModel(parameter.getName(), parameter.getType(), parameter.getParameterizedType()));
+			names.add(parameter.getName());
+		}
+		this.parameters = List.copyOf(parameterModels);
+		this.parameterNames = List.copyOf(names);
+	}
+
+	/**
+	 * @return the reflective constructor
+	 */
+	public Constructor<?> constructor() {
+		return constructor;
+	}
+
+	/**
+	 * @return parameters in declaration order
+	 */
+	public List<ParameterModel> parameters() {
+		return parameters;
+	}
+
+	/**
+	 * @return names of the parameters in declaration order
+	 */
+	public List<String> parameterNames() {
+		return parameterNames;
+	}
+
+	/**
+	 * Method handle that invokes the constructor with all arguments in one array, gets created on first use.
+	 *
+	 * @return handle typed {@code (Object[])Object} or {@literal null}, if the constructor cannot be accessed from here
+	 */
+	public MethodHandle invoker() {
+		MethodHandle result = invoker;
+		if (result == null) {
+			result = unreflect();
+			invoker = result;
+		}
+		return result == INACCESSIBLE ? null : result;
+	}
+
+	private MethodHandle unreflect() {
+		// constructors of non-public types cannot be called from here without
+		constructor.trySetAccessible();
+		try {
+			return MethodHandles.lookup().unreflectConstructor(constructor)
+					.asSpreader(Object[].class, parameters.size())
+					.asType(MethodType.methodType(Object.class, Object[].class));
+		} catch (IllegalAccessException e) {
+			return INACCESSIBLE;
+		}
+	}
+}
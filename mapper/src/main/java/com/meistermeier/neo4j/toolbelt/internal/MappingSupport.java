@@ -0,0 +1,110 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.internal;
+
+import org.neo4j.driver.Value;
+import org.neo4j.driver.types.MapAccessor;
+import org.neo4j.driver.types.TypeSystem;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Rules shared by the mapper, the renderer and the generated Cypher:
+ * which types are entities, which part of a record is the entity and how identifiers get escaped.
+ * <p>
+ * Internal API, might change without notice.
+ *
+ * @author Gerrit Meier
+ */
+public final class MappingSupport {
+
+	private static final TypeSystem typeSystem = TypeSystem.getDefault();
+	private static final Pattern VALID_IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+	private MappingSupport() {
+	}
+
+	/**
+	 * Checks if the type gets mapped property by property from a node or map,
+	 * in contrast to simple values, containers and interfaces.
+	 *
+	 * @param type Type to check.
+	 * @return true, if the type is a record or class that can be instantiated via its constructor
+	 */
+	public static boolean isEntity(Class<?> type) {
+		return !type.isPrimitive()
+				&& !type.isArray()
+				&& !type.isEnum()
+				&& !type.isInterface()
+				&& !Map.class.isAssignableFrom(type)
+				&& !Collection.class.isAssignableFrom(type)
+				&& !type.getName().startsWith("java.")
+				&& !type.getName().startsWith("org.neo4j.driver.");
+	}
+
+	/**
+	 * The part of a record or map that describes the entity itself:
+	 * the value itself if it is a node, otherwise its first node, otherwise the whole record or map.
+	 *
+	 * @param mapAccessor Record or value to look into.
+	 * @return the head of the entity
+	 */
+	public static MapAccessor headOf(MapAccessor mapAccessor) {
+		if (mapAccessor instanceof Value value && typeSystem.NODE().isTypeOf(value)) {
+			return mapAccessor;
+		}
+		for (Value value : mapAccessor.values()) {
+			if (typeSystem.NODE().isTypeOf(value)) {
+				return value;
+			}
+		}
+		return mapAccessor;
+	}
+
+	/**
+	 * All other values of a record or map next to its head, e.g. lists of related nodes.
+	 *
+	 * @param mapAccessor Record or value to look into.
+	 * @param head        Head of the record or map as determined by {@link #headOf(MapAccessor)}.
+	 * @return values by their key, empty if the head is the record or map itself
+	 */
+	public static Map<String, MapAccessor> tailOf(MapAccessor mapAccessor, MapAccessor head) {
+		if (head == mapAccessor) {
+			return Map.of();
+		}
+		Map<String, MapAccessor> tail = new LinkedHashMap<>();
+		for (String key : mapAccessor.keys()) {
+			Value value = mapAccessor.get(key);
+			if (value != head) {
+				tail.put(key, value);
+			}
+		}
+		return tail;
+	}
+
+	/**
+	 * Escapes a label, property name or variable with backticks, if it is not a valid identifier on its own.
+	 *
+	 * @param name Name to escape.
+	 * @return name that can be used in Cypher as is
+	 */
+	public static String escape(String name) {
+		return VALID_IDENTIFIER.matcher(name).matches() ? name : "`" + name.replace("`", "``") + "`";
+	}
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.internal;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Map;
+
+/**
+ * Constructor parameter of a {@link ConstructorModel}.
+ *
+ * @param name        name of the parameter, requires {@code -parameters} for classes
+ * @param type        declared type
+ * @param genericType declared type including its type arguments
+ * @author Gerrit Meier
+ */
+public record ParameterModel(String name, Class<?> type, Type genericType) {
+
+	/**
+	 * The type that values of this parameter get converted to:
+	 * {@code Map} for maps, the type argument for other generic types, the declared type otherwise.
+	 *
+	 * @return element type of the parameter
+	 */
+	public Class<?> elementType() {
+		if (type.isAssignableFrom(Map.class)) {
+			return Map.class;
+		}
+		if (type.getTypeParameters().length == 0) {
+			return type;
+		}
+		if (genericType instanceof ParameterizedType parameterizedType
+				&& parameterizedType.getActualTypeArguments()[0] instanceof Class<?> typeArgument) {
+			return typeArgument;
+		}
+		return Object.class;
+	}
+}
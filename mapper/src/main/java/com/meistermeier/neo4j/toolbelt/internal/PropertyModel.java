@@ -0,0 +1,110 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.internal;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+
+/**
+ * Readable property of a {@link TypeModel}.
+ *
+ * @author Gerrit Meier
+ */
+public final class PropertyModel {
+
+	private static final MethodType ACCESSOR_TYPE = MethodType.methodType(Object.class, Object.class);
+	private static final MethodHandle INACCESSIBLE = MethodHandles.constant(Object.class, null);
+
+	private final String name;
+	private final Class<?> type;
+	private final Type genericType;
+	private final Member member;
+	private volatile MethodHandle accessor;
+
+	PropertyModel(String name, Method getter) {
+		this(name, getter.getReturnType(), getter.getGenericReturnType(), getter);
+	}
+
+	PropertyModel(Field field) {
+		this(field.getName(), field.getType(), field.getGenericType(), field);
+	}
+
+	private PropertyModel(String name, Class<?> type, Type genericType, Member member) {
+		this.name = name;
+		this.type = type;
+		this.genericType = genericType;
+		this.member = member;
+	}
+
+	/**
+	 * @return name of the property
+	 */
+	public String name() {
+		return name;
+	}
+
+	/**
+	 * @return declared type
+	 */
+	public Class<?> type() {
+		return type;
+	}
+
+	/**
+	 * @return declared type including its type arguments
+	 */
+	public Type genericType() {
+		return genericType;
+	}
+
+	/**
+	 * Method handle that reads the property, gets created on first use.
+	 *
+	 * @return handle typed {@code (Object)Object} or {@literal null}, if the property cannot be accessed from here
+	 */
+	public MethodHandle accessor() {
+		MethodHandle result = accessor;
+		if (result == null) {
+			result = unreflect();
+			accessor = result;
+		}
+		return result == INACCESSIBLE ? null : result;
+	}
+
+	private MethodHandle unreflect() {
+		// accessors of non-public types are public, but cannot be called from here without
+		((AccessibleObject) member).trySetAccessible();
+		try {
+			MethodHandle handle = member instanceof Method method
+					? MethodHandles.lookup().unreflect(method)
+					: MethodHandles.lookup().unreflectGetter((Field) member);
+			return handle.asType(ACCESSOR_TYPE);
+		} catch (IllegalAccessException e) {
+			return INACCESSIBLE;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "PropertyModel[name=" + name + ", type=" + type.getName() + "]";
+	}
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.internal;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cached model of a record/class shared by the mapper and the renderer:
+ * its constructors with their parameters for instantiation and its readable properties with their accessors.
+ * Every type gets introspected only once, following the same naming rules for both directions,
+ * so a record gets rendered with the same names it gets mapped from.
+ * Converters are not part of the model, their selection depends on the custom converters of each registry.
+ * <p>
+ * Internal API, might change without notice.
+ *
+ * @author Gerrit Meier
+ */
+public final class TypeModel {
+
+	private static final LongAdder INTROSPECTED_TYPES = new LongAdder();
+	private static final ClassValue<TypeModel> TYPE_MODELS = new ClassValue<>() {
+		@Override
+		protected TypeModel computeValue(Class<?> type) {
+			INTROSPECTED_TYPES.increment();
+			return new TypeModel(type);
+		}
+	};
+
+	private final Class<?> type;
+	private volatile List<ConstructorModel> constructors;
+	private volatile List<PropertyModel> properties;
+	private volatile Boolean jacksonAnnotated;
+
+	private TypeModel(Class<?> type) {
+		this.type = type;
+	}
+
+	/**
+	 * Provides the cached model of the given type.
+	 *
+	 * @param type Type to get the model for.
+	 * @return model of the type
+	 */
+	public static TypeModel of(Class<?> type) {
+		return TYPE_MODELS.get(type);
+	}
+
+	/**
+	 * Number of types that got introspected so far.
+	 *
+	 * @return number of created type models
+	 */
+	public static long introspectedTypes() {
+		return INTROSPECTED_TYPES.sum();
+	}
+
+	/**
+	 * @return the modelled type
+	 */
+	public Class<?> type() {
+		return type;
+	}
+
+	/**
+	 * All declared constructors of the type.
+	 *
+	 * @return constructor models in declaration order
+	 */
+	public List<ConstructorModel> constructors() {
+		List<ConstructorModel> result = constructors;
+		if (result == null) {
+			List<ConstructorModel> models = new ArrayList<>();
+			for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+				models.add(new ConstructorModel(constructor));
+			}
+			result = List.copyOf(models);
+			constructors = result;
+		}
+		return result;
+	}
+
+	/**
+	 * The constructor with the most parameters, usually the canonical one.
+	 *
+	 * @return constructor model or {@literal null} if the type has no constructors, e.g. interfaces
+	 */
+	public ConstructorModel mostParametersConstructor() {
+		ConstructorModel mostParametersConstructor = null;
+		for (ConstructorModel constructor : constructors()) {
+			if (mostParametersConstructor == null || constructor.parameters().size() > mostParametersConstructor.parameters().size()) {
+				mostParametersConstructor = constructor;
+			}
+		}
+		return mostParametersConstructor;
+	}
+
+	/**
+	 * Readable properties of the type: record components, getters and public fields, in this order.
+	 * Getter names follow the same rules as Jackson's: {@code getURL} becomes {@code url}.
+	 *
+	 * @return property models
+	 */
+	public List<PropertyModel> properties() {
+		List<PropertyModel> result = properties;
+		if (result == null) {
+			result = introspectProperties();
+			properties = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Checks if the type itself, its fields or methods carry Jackson annotations.
+	 *
+	 * @return true, if there is any Jackson annotation
+	 */
+	public boolean hasJacksonAnnotations() {
+		Boolean result = jacksonAnnotated;
+		if (result == null) {
+			result = introspectJacksonAnnotations();
+			jacksonAnnotated = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Derives the property name of a getter.
+	 *
+	 * @param method Method to check.
+	 * @return name of the property or {@literal null}, if the method is not a getter
+	 */
+	public static String getterPropertyName(Method method) {
+		if (Modifier.isStatic(method.getModifiers()) || method.getParameterCount() != 0 || method.getReturnType() == void.class
+				|| method.getDeclaringClass() == Object.class) {
+			return null;
+		}
+		String name = method.getName();
+		if (name.startsWith("get") && name.length() > 3) {
+			return manglePropertyName(name.substring(3));
+		}
+		if (name.startsWith("is") && name.length() > 2 && method.getReturnType() == boolean.class) {
+			return manglePropertyName(name.substring(2));
+		}
+		return null;
+	}
+
+	private List<PropertyModel> introspectProperties() {
+		Map<String, PropertyModel> models = new LinkedHashMap<>();
+		if (type.isRecord()) {
+			for (RecordComponent recordComponent : type.getRecordComponents()) {
+				Method accessor = recordComponent.getAccessor();
+				models.put(recordComponent.getName(), new PropertyModel(recordComponent.getName(), accessor));
+			}
+		}
+		for (Method method : type.getMethods()) {
+			String propertyName = getterPropertyName(method);
+			if (propertyName != null && !models.containsKey(propertyName)) {
+				models.put(propertyName, new PropertyModel(propertyName, method));
+			}
+		}
+		for (Field field : type.getFields()) {
+			int modifiers = field.getModifiers();
+			if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers) && !models.containsKey(field.getName())) {
+				models.put(field.getName(), new PropertyModel(field));
+			}
+		}
+		return List.copyOf(models.values());
+	}
+
+	/**
+	 * Same naming as Jackson's default: all leading upper case characters get lower-cased, {@code getURL} becomes {@code url}.
+	 */
+	private static String manglePropertyName(String baseName) {
+		StringBuilder propertyName = null;
+		for (int i = 0; i < baseName.length(); i++) {
+			char upper = baseName.charAt(i);
+			char lower = Character.toLowerCase(upper);
+			if (upper == lower) {
+				break;
+			}
+			if (propertyName == null) {
+				propertyName = new StringBuilder(baseName);
+			}
+			propertyName.setCharAt(i, lower);
+		}
+		return propertyName == null ? baseName : propertyName.toString();
+	}
+
+	private boolean introspectJacksonAnnotations() {
+		if (isJacksonAnnotated(type.getAnnotations())) {
+			return true;
+		}
+		for (Field field : type.getDeclaredFields()) {
+			if (isJacksonAnnotated(field.getAnnotations())) {
+				return true;
+			}
+		}
+		for (Method method : type.getDeclaredMethods()) {
+			if (isJacksonAnnotated(method.getAnnotations())) {
+				return true;
+			}
+		}
+		for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+			if (isJacksonAnnotated(constructor.getAnnotations())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isJacksonAnnotated(Annotation[] annotations) {
+		for (Annotation annotation : annotations) {
+			if (annotation.annotationType().getName().startsWith("com.fasterxml.jackson.")) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
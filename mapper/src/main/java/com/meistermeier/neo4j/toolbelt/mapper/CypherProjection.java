@@ -0,0 +1,188 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.mapper;
+
+import com.meistermeier.neo4j.toolbelt.internal.ConstructorModel;
+import com.meistermeier.neo4j.toolbelt.internal.MappingSupport;
+import com.meistermeier.neo4j.toolbelt.internal.ParameterModel;
+import com.meistermeier.neo4j.toolbelt.internal.TypeModel;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Derives Cypher projections from the constructor parameters of a record/class.
+ * The generated projection only contains the properties that the {@link Mapper} will use,
+ * related nodes defined as {@code List<RelatedNode>} parameters get fetched via pattern comprehensions.
+ * <p>
+ * {@code CypherProjection.of(Person.class).toMapProjection("n")} creates
+ * {@code n{.name, .yearBorn, friends: [(n)--(friends:Friend) | friends{.name}]}},
+ * that can be used e.g. in {@code RETURN collect(n{...})} together with {@link Mapper#createCollectionMapperFor(Class)}.
+ * For single results, {@link #toReturnItems(String)} creates the matching return items
+ * {@code n.name AS name, n.yearBorn AS yearBorn, [(n)--(friends:Friend) | friends{.name}] AS friends}.
+ * <p>
+ * The label of a related node is the simple name of its class.
+ * By default, related nodes are matched with an undirected relationship of any type,
+ * this can be refined per field via {@link #withRelationship(String, String)}.
+ *
+ * @author Gerrit Meier
+ */
+public final class CypherProjection {
+
+	private static final String DEFAULT_RELATIONSHIP_PATTERN = "--";
+
+	private final Class<?> type;
+	private final Map<String, String> relationshipPatterns;
+
+	private CypherProjection(Class<?> type, Map<String, String> relationshipPatterns) {
+		this.type = type;
+		this.relationshipPatterns = relationshipPatterns;
+	}
+
+	/**
+	 * Creates a projection for the given type.
+	 *
+	 * @param type Type to derive the projection from.
+	 * @return projection for the type
+	 */
+	public static CypherProjection of(Class<?> type) {
+		return new CypherProjection(type, Map.of());
+	}
+
+	/**
+	 * Defines the relationship pattern for a related node field.
+	 *
+	 * @param field               Name of the field, nested fields are separated by a dot, e.g. {@code friends.pets}.
+	 * @param relationshipPattern Relationship part of the pattern, e.g. {@code -[:KNOWS]->}.
+	 * @return new projection with the defined relationship
+	 */
+	public CypherProjection withRelationship(String field, String relationshipPattern) {
+		Map<String, String> patterns = new HashMap<>(relationshipPatterns);
+		patterns.put(field, relationshipPattern);
+		return new CypherProjection(type, Map.copyOf(patterns));
+	}
+
+	/**
+	 * Creates a map projection, e.g. {@code n{.name, .yearBorn}}.
+	 *
+	 * @param variable Variable of the node in the query.
+	 * @return map projection of the node
+	 */
+	public String toMapProjection(String variable) {
+		Set<String> usedVariables = new HashSet<>(Set.of(variable));
+		Deque<Class<?>> typesOnPath = new ArrayDeque<>();
+		return mapProjection(type, variable, "", typesOnPath, usedVariables);
+	}
+
+	/**
+	 * Creates return items, e.g. {@code n.name AS name, n.yearBorn AS yearBorn}.
+	 *
+	 * @param variable Variable of the node in the query.
+	 * @return return items for the node's properties
+	 */
+	public String toReturnItems(String variable) {
+		Set<String> usedVariables = new HashSet<>(Set.of(variable));
+		Deque<Class<?>> typesOnPath = new ArrayDeque<>();
+		typesOnPath.push(type);
+
+		List<String> items = new ArrayList<>();
+		for (ParameterModel parameter : parametersOf(type)) {
+			String name = MappingSupport.escape(parameter.name());
+			String expression = isRelatedNode(parameter)
+					? relatedNodesExpression(parameter, variable, "", typesOnPath, usedVariables)
+					: variable + "." + name;
+			items.add(expression + " AS " + name);
+		}
+		return String.join(", ", items);
+	}
+
+	private String mapProjection(Class<?> projectedType, String variable, String path, Deque<Class<?>> typesOnPath, Set<String> usedVariables) {
+		// stop at cyclic definitions and only fetch the simple properties
+		boolean cyclic = typesOnPath.contains(projectedType);
+		typesOnPath.push(projectedType);
+
+		List<String> items = new ArrayList<>();
+		for (ParameterModel parameter : parametersOf(projectedType)) {
+			if (!isRelatedNode(parameter)) {
+				items.add("." + MappingSupport.escape(parameter.name()));
+			} else if (!cyclic) {
+				items.add(MappingSupport.escape(parameter.name()) + ": " + relatedNodesExpression(parameter, variable, path, typesOnPath, usedVariables));
+			}
+		}
+
+		typesOnPath.pop();
+		return variable + "{" + String.join(", ", items) + "}";
+	}
+
+	private String relatedNodesExpression(ParameterModel parameter, String variable, String path, Deque<Class<?>> typesOnPath, Set<String> usedVariables) {
+		String fieldPath = path.isEmpty() ? parameter.name() : path + "." + parameter.name();
+		Class<?> relatedType = relatedType(parameter);
+		String relatedVariable = uniqueVariable(parameter.name(), usedVariables);
+
+		String comprehension = "[(%s)%s(%s:%s) | %s]".formatted(
+				variable,
+				relationshipPatterns.getOrDefault(fieldPath, DEFAULT_RELATIONSHIP_PATTERN),
+				relatedVariable,
+				MappingSupport.escape(relatedType.getSimpleName()),
+				mapProjection(relatedType, relatedVariable, fieldPath, typesOnPath, usedVariables));
+
+		usedVariables.remove(relatedVariable);
+		return isCollection(parameter) ? comprehension : "head(" + comprehension + ")";
+	}
+
+	private static String uniqueVariable(String name, Set<String> usedVariables) {
+		String candidate = MappingSupport.escape(name);
+		int suffix = 1;
+		while (!usedVariables.add(candidate)) {
+			candidate = MappingSupport.escape(name + suffix++);
+		}
+		return candidate;
+	}
+
+	private static List<ParameterModel> parametersOf(Class<?> type) {
+		ConstructorModel mostParametersConstructor = TypeModel.of(type).mostParametersConstructor();
+		return mostParametersConstructor == null ? List.of() : mostParametersConstructor.parameters();
+	}
+
+	private static boolean isRelatedNode(ParameterModel parameter) {
+		Class<?> relatedType = relatedType(parameter);
+		return relatedType != null && MappingSupport.isEntity(relatedType);
+	}
+
+	private static boolean isCollection(ParameterModel parameter) {
+		return Collection.class.isAssignableFrom(parameter.type()) || parameter.type().isAssignableFrom(List.class);
+	}
+
+	private static Class<?> relatedType(ParameterModel parameter) {
+		if (!isCollection(parameter)) {
+			return parameter.type();
+		}
+		if (parameter.genericType() instanceof ParameterizedType parameterizedType) {
+			Type typeArgument = parameterizedType.getActualTypeArguments()[0];
+			return typeArgument instanceof Class<?> typeArgumentClass ? typeArgumentClass : null;
+		}
+		return null;
+	}
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.mapper;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.meistermeier.neo4j.toolbelt.internal.ConstructorModel;
+import com.meistermeier.neo4j.toolbelt.internal.MappingSupport;
+import com.meistermeier.neo4j.toolbelt.internal.ParameterModel;
+import com.meistermeier.neo4j.toolbelt.internal.TypeModel;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.types.Entity;
+import org.neo4j.driver.types.MapAccessor;
+import org.neo4j.driver.types.Node;
+import org.neo4j.driver.types.Path;
+import org.neo4j.driver.types.Point;
+import org.neo4j.driver.types.Relationship;
+import org.neo4j.driver.types.TypeSystem;
+
+import java.io.IOException;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Streams records directly into a {@link JsonGenerator}, without mapping them onto objects first.
+ * Nodes, relationships and maps become JSON objects, lists become arrays, temporal values ISO formatted strings
+ * and byte arrays Base64 encoded strings, the same way Jackson would write them.
+ * <p>
+ * {@link #forType(Class)} restricts the written fields to the ones the {@link Mapper} would use for the type,
+ * in the order of its constructor parameters.
+ * Fields of nested related types get restricted as well, missing fields are written as {@code null}.
+ *
+ * @author Gerrit Meier
+ */
+public final class JsonRecordWriter {
+
+	/**
+	 * A prepared {@link JsonRecordWriter} instance that writes all fields.
+	 */
+	public static final JsonRecordWriter INSTANCE = new JsonRecordWriter(null);
+
+	private static final TypeSystem typeSystem = TypeSystem.getDefault();
+
+	private final Selection selection;
+
+	private JsonRecordWriter(Selection selection) {
+		this.selection = selection;
+	}
+
+	/**
+	 * Create a writer that only writes the fields of the given type.
+	 *
+	 * @param type Type to select the fields by.
+	 * @return new writer for the type
+	 */
+	public JsonRecordWriter forType(Class<?> type) {
+		return new JsonRecordWriter(Selection.of(type));
+	}
+
+	/**
+	 * Writes a record as JSON object.
+	 *
+	 * @param record    Record to write.
+	 * @param generator Generator to write to, does not get flushed or closed.
+	 * @throws IOException if the generator cannot write
+	 */
+	public void write(Record record, JsonGenerator generator) throws IOException {
+		if (selection == null) {
+			generator.writeStartObject();
+			for (int i = 0; i < record.size(); i++) {
+				generator.writeFieldName(record.keys().get(i));
+				writeValue(record.get(i), null, generator);
+			}
+			generator.writeEndObject();
+			return;
+		}
+		writeSelected(MappingSupport.headOf(record), record, selection, generator);
+	}
+
+	/**
+	 * Writes all records as JSON array.
+	 *
+	 * @param records   Records to write.
+	 * @param generator Generator to write to, does not get flushed or closed.
+	 * @throws IOException if the generator cannot write
+	 */
+	public void writeAll(Iterable<Record> records, JsonGenerator generator) throws IOException {
+		generator.writeStartArray();
+		for (Record record : records) {
+			write(record, generator);
+		}
+		generator.writeEndArray();
+	}
+
+	private static void writeSelected(MapAccessor head, MapAccessor fallback, Selection selection, JsonGenerator generator) throws IOException {
+		generator.writeStartObject();
+		for (int i = 0; i < selection.fieldNames().size(); i++) {
+			String fieldName = selection.fieldNames().get(i);
+			Value value = head.get(fieldName);
+			if (value.isNull() && fallback != head) {
+				// related nodes are returned next to the node
+				value = fallback.get(fieldName);
+			}
+			generator.writeFieldName(fieldName);
+			writeValue(value, selection.child(i), generator);
+		}
+		generator.writeEndObject();
+	}
+
+	private static void writeValue(Value value, Selection selection, JsonGenerator generator) throws IOException {
+		if (value.isNull()) {
+			generator.writeNull();
+		} else if (typeSystem.STRING().isTypeOf(value)) {
+			generator.writeString(value.asString());
+		} else if (typeSystem.INTEGER().isTypeOf(value)) {
+			generator.writeNumber(value.asLong());
+		} else if (typeSystem.FLOAT().isTypeOf(value)) {
+			generator.writeNumber(value.asDouble());
+		} else if (typeSystem.BOOLEAN().isTypeOf(value)) {
+			generator.writeBoolean(value.asBoolean());
+		} else if (typeSystem.NODE().isTypeOf(value) || typeSystem.RELATIONSHIP().isTypeOf(value) || typeSystem.MAP().isTypeOf(value)) {
+			writeMap(value, selection, generator);
+		} else if (typeSystem.LIST().isTypeOf(value)) {
+			generator.writeStartArray();
+			for (Value element : value.values()) {
+				writeValue(element, selection, generator);
+			}
+			generator.writeEndArray();
+		} else if (typeSystem.DATE().isTypeOf(value)) {
+			generator.writeString(DateTimeFormatter.ISO_LOCAL_DATE.format(value.asLocalDate()));
+		} else if (typeSystem.LOCAL_DATE_TIME().isTypeOf(value)) {
+			generator.writeString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value.asLocalDateTime()));
+		} else if (typeSystem.DATE_TIME().isTypeOf(value)) {
+			generator.writeString(DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(value.asZonedDateTime()));
+		} else if (typeSystem.LOCAL_TIME().isTypeOf(value)) {
+			generator.writeString(DateTimeFormatter.ISO_LOCAL_TIME.format(value.asLocalTime()));
+		} else if (typeSystem.TIME().isTypeOf(value)) {
+			generator.writeString(DateTimeFormatter.ISO_OFFSET_TIME.format(value.asOffsetTime()));
+		} else if (typeSystem.DURATION().isTypeOf(value)) {
+			generator.writeString(value.asIsoDuration().toString());
+		} else if (typeSystem.BYTES().isTypeOf(value)) {
+			generator.writeBinary(value.asByteArray());
+		} else if (typeSystem.POINT().isTypeOf(value)) {
+			writePoint(value.asPoint(), generator);
+		} else if (typeSystem.PATH().isTypeOf(value)) {
+			writePath(value.asPath(), generator);
+		} else {
+			throw new IllegalArgumentException("Cannot write value of type %s as JSON".formatted(value.type().name()));
+		}
+	}
+
+	private static void writeMap(Value value, Selection selection, JsonGenerator generator) throws IOException {
+		if (selection != null) {
+			writeSelected(value, value, selection, generator);
+			return;
+		}
+		generator.writeStartObject();
+		for (String key : value.keys()) {
+			generator.writeFieldName(key);
+			writeValue(value.get(key), null, generator);
+		}
+		generator.writeEndObject();
+	}
+
+	private static void writeEntity(Entity entity, JsonGenerator generator) throws IOException {
+		generator.writeStartObject();
+		for (String key : entity.keys()) {
+			generator.writeFieldName(key);
+			writeValue(entity.get(key), null, generator);
+		}
+		generator.writeEndObject();
+	}
+
+	private static void writePoint(Point point, JsonGenerator generator) throws IOException {
+		generator.writeStartObject();
+		generator.writeNumberField("srid", point.srid());
+		generator.writeNumberField("x", point.x());
+		generator.writeNumberField("y", point.y());
+		if (!Double.isNaN(point.z())) {
+			generator.writeNumberField("z", point.z());
+		}
+		generator.writeEndObject();
+	}
+
+	private static void writePath(Path path, JsonGenerator generator) throws IOException {
+		generator.writeStartObject();
+		generator.writeArrayFieldStart("nodes");
+		for (Node node : path.nodes()) {
+			writeEntity(node, generator);
+		}
+		generator.writeEndArray();
+		generator.writeArrayFieldStart("relationships");
+		for (Relationship relationship : path.relationships()) {
+			writeEntity(relationship, generator);
+		}
+		generator.writeEndArray();
+		generator.writeEndObject();
+	}
+
+	/**
+	 * Fields of a type, derived from its constructor parameters.
+	 * Selections of nested types get resolved on first use, types may refer to themselves.
+	 */
+	private record Selection(List<String> fieldNames, Class<?>[] childTypes) {
+
+		private static final ClassValue<Selection> SELECTIONS = new ClassValue<>() {
+			@Override
+			protected Selection computeValue(Class<?> type) {
+				ConstructorModel constructor = TypeModel.of(type).mostParametersConstructor();
+				List<ParameterModel> parameters = constructor == null ? List.of() : constructor.parameters();
+				Class<?>[] childTypes = new Class<?>[parameters.size()];
+				for (int i = 0; i < childTypes.length; i++) {
+					Class<?> elementType = parameters.get(i).elementType();
+					childTypes[i] = MappingSupport.isEntity(elementType) ? elementType : null;
+				}
+				return new Selection(constructor == null ? List.of() : constructor.parameterNames(), childTypes);
+			}
+		};
+
+		static Selection of(Class<?> type) {
+			return SELECTIONS.get(type);
+		}
+
+		Selection child(int index) {
+			Class<?> childType = childTypes[index];
+			return childType == null ? null : of(childType);
+		}
+	}
+}
@@ -15,12 +15,17 @@
  */
 package com.meistermeier.neo4j.toolbelt.mapper;
 
+import com.meistermeier.neo4j.toolbelt.conversion.ConversionException;
 import com.meistermeier.neo4j.toolbelt.conversion.ConverterRegistry;
+import com.meistermeier.neo4j.toolbelt.conversion.MappingEngineSelector;
 import com.meistermeier.neo4j.toolbelt.conversion.TypeConverter;
 import org.neo4j.driver.Record;
 import org.neo4j.driver.types.MapAccessor;
 import org.neo4j.driver.types.TypeSystem;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.function.Function;
 
@@ -37,21 +42,66 @@ public final class Mapper {
 	 */
 	public final static Mapper INSTANCE = new Mapper();
 
+	/**
+	 * Number of errors a tolerant mapper records in detail per batch.
+	 */
+	public static final int DEFAULT_MAX_RECORDED_ERRORS = 1_000;
+
 	private final TypeSystem typeSystem = TypeSystem.getDefault();
 	private final ConverterRegistry converterRegistry;
 
 	private Mapper() {
-		this.converterRegistry = new ConverterRegistry();
+		this(new ConverterRegistry());
 	}
 
 	private Mapper(ConverterRegistry converterRegistry) {
 		this.converterRegistry = converterRegistry;
 	}
 
+	/**
+	 * Create a new mapper that additionally uses the given custom converter.
+	 * Already registered custom converters will be kept.
+	 *
+	 * @param customConverter Converter to add.
+	 * @return New mapper instance.
+	 */
 	public Mapper withCustomConverter(TypeConverter<? extends MapAccessor> customConverter) {
 		return new Mapper(converterRegistry.addCustomConverter(customConverter));
 	}
 
+	/**
+	 * Create a new mapper that additionally uses the given custom converter with an explicit priority.
+	 * Converters with a higher priority will be asked first.
+	 *
+	 * @param customConverter Converter to add.
+	 * @param priority        Priority of the converter.
+	 * @return New mapper instance.
+	 */
+	public Mapper withCustomConverter(TypeConverter<? extends MapAccessor> customConverter, int priority) {
+		return new Mapper(converterRegistry.addCustomConverter(customConverter, priority));
+	}
+
+	/**
+	 * Create a new mapper that uses the given, pre-composed registry.
+	 *
+	 * @param converterRegistry Registry created via {@link ConverterRegistry#builder()}.
+	 * @return New mapper instance.
+	 */
+	public Mapper withConverterRegistry(ConverterRegistry converterRegistry) {
+		return new Mapper(converterRegistry);
+	}
+
+	/**
+	 * Create a new mapper that chooses the engine creating record/class based instances per type.
+	 * Already registered custom converters will be kept.
+	 *
+	 * @param mappingEngineSelector Selector that chooses the engine per type, e.g. {@link MappingEngineSelector#byTypeShape(com.fasterxml.jackson.databind.ObjectMapper)}.
+	 * @return New mapper instance.
+	 */
+	public Mapper withMappingEngineSelector(MappingEngineSelector mappingEngineSelector) {
+		return new Mapper(converterRegistry.toBuilder().withMappingEngineSelector(mappingEngineSelector).build());
+	}
+
 	/**
 	 * Create a mapper for the requested type.
 	 * Can be reused.
@@ -64,6 +114,23 @@ public final class Mapper {
 		return record -> mapOne(record, type);
 	}
 
+	/**
+	 * Create a mapper that maps onto an interface.
+	 * The returned instances do not read anything upfront,
+	 * but read and convert a property from the record only when its getter gets called.
+	 * Getters are matched by their property name, {@code getName()} or {@code name()} read the {@code name} property.
+	 * Can be reused.
+	 *
+	 * @param type               Interface to create the mapping function for.
+	 * @param memoizedProperties Properties that should only get converted once per instance.
+	 * @param <T>                Type definition
+	 * @return Function that is capable of mapping the result into the desired interface.
+	 */
+	public <T> Function<Record, T> createProjectionMapperFor(Class<T> type, String... memoizedProperties) {
+		ProjectionType<T>.Implementation implementation = ProjectionType.of(type).implementation(memoizedProperties);
+		return record -> implementation.newInstance(record, converterRegistry);
+	}
+
 	/**
 	 * Create a mapper for a collection of the requested type.
 	 * Can be reused.
@@ -76,17 +143,114 @@ public final class Mapper {
 		return record -> mapAll(record, type);
 	}
 
+	/**
+	 * Create a mapper that maps a whole batch of records at once.
+	 * The values of the records get converted column by column,
+	 * which is considerably cheaper than mapping record by record for bigger results.
+	 * Can be reused.
+	 *
+	 * @param type Type to create the mapping function for.
+	 * @param <T>  Type definition
+	 * @return Function that is capable of mapping a list of records into a list of the desired type.
+	 */
+	public <T> Function<List<Record>, List<T>> createBatchMapperFor(Class<T> type) {
+		return records -> mapBatch(records, type);
+	}
+
+	/**
+	 * Create a mapper for a batch of records that skips records that cannot be mapped.
+	 * Instead of failing, the errors get reported per record and field in the {@link MappingResult}.
+	 * Can be reused.
+	 *
+	 * @param type Type to create the mapping function for.
+	 * @param <T>  Type definition
+	 * @return Function that is capable of mapping a list of records into a {@link MappingResult}.
+	 */
+	public <T> Function<List<Record>, MappingResult<T>> createTolerantBatchMapperFor(Class<T> type) {
+		return createTolerantBatchMapperFor(type, DEFAULT_MAX_RECORDED_ERRORS);
+	}
+
+	/**
+	 * Create a mapper for a batch of records that skips records that cannot be mapped.
+	 * Instead of failing, the errors get reported per record and field in the {@link MappingResult}.
+	 * Can be reused.
+	 *
+	 * @param type              Type to create the mapping function for.
+	 * @param maxRecordedErrors Maximum number of errors that get recorded in detail per batch.
+	 * @param <T>               Type definition
+	 * @return Function that is capable of mapping a list of records into a {@link MappingResult}.
+	 */
+	public <T> Function<List<Record>, MappingResult<T>> createTolerantBatchMapperFor(Class<T> type, int maxRecordedErrors) {
+		ConverterRegistry tolerantConverterRegistry = converterRegistry.toBuilder().withTolerantConversion().build();
+		return records -> mapTolerant(tolerantConverterRegistry, records, type, maxRecordedErrors);
+	}
+
 	private <T> T mapOne(MapAccessor mapAccessor, Class<T> type) {
-		return converterRegistry.convert(mapAccessor, type, null);
+		MappingEvent event = new MappingEvent();
+		event.begin();
+		T mapped = converterRegistry.convert(mapAccessor, type, null);
+		event.commit(type, "single", 1);
+		return mapped;
 	}
 
 	private <T> Iterable<T> mapAll(Record record, Class<T> type) {
 		if (record.get(0).isNull()) {
 			return List.of();
 		}
-		if (typeSystem.LIST().isTypeOf(record.get(0))) {
-			return record.get(0).asList(nestedValue -> mapOne(nestedValue, type));
+		MappingEvent event = new MappingEvent();
+		event.begin();
+		List<? extends MapAccessor> mapAccessors = typeSystem.LIST().isTypeOf(record.get(0))
+				? record.get(0).asList(Function.identity())
+				: record.values();
+		List<T> mapped = mapBatch(converterRegistry, mapAccessors, type);
+		event.commit(type, "collection", mapped.size());
+		return mapped;
+	}
+
+	private <T> List<T> mapBatch(List<? extends MapAccessor> mapAccessors, Class<T> type) {
+		MappingEvent event = new MappingEvent();
+		event.begin();
+		List<T> mapped = mapBatch(converterRegistry, mapAccessors, type);
+		event.commit(type, "batch", mapped.size());
+		return mapped;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> List<T> mapBatch(ConverterRegistry registry, List<? extends MapAccessor> mapAccessors, Class<T> type) {
+		Object[] mappedValues = new Object[mapAccessors.size()];
+		registry.convertAll(mapAccessors, type, null, mappedValues);
+		return (List<T>) Collections.unmodifiableList(Arrays.asList(mappedValues));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> MappingResult<T> mapTolerant(ConverterRegistry tolerantConverterRegistry, List<Record> records, Class<T> type, int maxRecordedErrors) {
+		MappingErrorReport.Collector errorCollector = new MappingErrorReport.Collector(maxRecordedErrors);
+		MappingEvent event = new MappingEvent();
+		event.begin();
+		Object[] mappedValues = new Object[records.size()];
+		List<ConversionException.RowFailure> rowFailures;
+		try {
+			tolerantConverterRegistry.convertAll(records, type, null, mappedValues);
+			rowFailures = List.of();
+		} catch (ConversionException e) {
+			if (e.getRowFailures().isEmpty()) {
+				throw e;
+			}
+			// all other records are mapped already
+			rowFailures = e.getRowFailures();
+		}
+
+		List<T> mapped = new ArrayList<>(records.size() - rowFailures.size());
+		int nextFailure = 0;
+		for (int row = 0; row < mappedValues.length; row++) {
+			if (nextFailure < rowFailures.size() && rowFailures.get(nextFailure).row() == row) {
+				errorCollector.add(row, type, rowFailures.get(nextFailure++).failure());
+			} else {
+				mapped.add((T) mappedValues[row]);
+			}
 		}
-		return record.values(value -> mapOne(value, type));
+		MappingResult<T> result = new MappingResult<>(Collections.unmodifiableList(mapped), errorCollector.build());
+		event.commit(type, "tolerant", records.size());
+		return result;
 	}
 }
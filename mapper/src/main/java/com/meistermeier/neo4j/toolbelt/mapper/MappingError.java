@@ -0,0 +1,29 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.mapper;
+
+/**
+ * Compact description of a failed mapping.
+ * Only contains type names and no stringified values.
+ *
+ * @param row        index of the failed record in the mapped batch
+ * @param field      name or path of the failed field, {@literal null} if the whole record could not be mapped
+ * @param sourceType name of the driver type of the value, {@literal null} if unknown
+ * @param targetType type of the field or the record that should have been created
+ * @author Gerrit Meier
+ */
+public record MappingError(int row, String field, String sourceType, Class<?> targetType) {
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.mapper;
+
+import com.meistermeier.neo4j.toolbelt.conversion.ConversionException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collected errors of a tolerant mapping.
+ * Only a limited number of errors gets recorded in detail, but all failed rows get counted.
+ *
+ * @author Gerrit Meier
+ */
+public final class MappingErrorReport {
+
+	private final List<MappingError> errors;
+	private final int failedRows;
+	private final long errorCount;
+
+	private MappingErrorReport(List<MappingError> errors, int failedRows, long errorCount) {
+		this.errors = errors;
+		this.failedRows = failedRows;
+		this.errorCount = errorCount;
+	}
+
+	/**
+	 * Recorded errors, at most as many as configured for the tolerant mapper.
+	 *
+	 * @return recorded errors
+	 */
+	public List<MappingError> errors() {
+		return errors;
+	}
+
+	/**
+	 * Number of records that could not be mapped.
+	 *
+	 * @return failed record count
+	 */
+	public int failedRows() {
+		return failedRows;
+	}
+
+	/**
+	 * Number of all errors, including the ones that were not recorded in detail.
+	 *
+	 * @return error count
+	 */
+	public long errorCount() {
+		return errorCount;
+	}
+
+	/**
+	 * Reports if there were more errors than recorded in detail.
+	 *
+	 * @return true, if errors were dropped from {@link #errors()}
+	 */
+	public boolean isTruncated() {
+		return errorCount > errors.size();
+	}
+
+	/**
+	 * Reports if any record could not be mapped.
+	 *
+	 * @return true, if there was at least one error
+	 */
+	public boolean hasErrors() {
+		return failedRows > 0;
+	}
+
+	static final class Collector {
+
+		private final int maxRecordedErrors;
+		private final List<MappingError> errors = new ArrayList<>();
+		private int failedRows;
+		private long errorCount;
+
+		Collector(int maxRecordedErrors) {
+			this.maxRecordedErrors = maxRecordedErrors;
+		}
+
+		void add(int row, Class<?> targetType, RuntimeException failure) {
+			failedRows++;
+			if (failure instanceof ConversionException conversionException && !conversionException.getFieldFailures().isEmpty()) {
+				for (ConversionException.FieldFailure fieldFailure : conversionException.getFieldFailures()) {
+					record(new MappingError(row, fieldFailure.field(), fieldFailure.sourceType(), fieldFailure.targetType()));
+				}
+				return;
+			}
+			String sourceType = failure instanceof ConversionException conversionException ? conversionException.getSourceType() : null;
+			record(new MappingError(row, null, sourceType, targetType));
+		}
+
+		private void record(MappingError error) {
+			errorCount++;
+			if (errors.size() < maxRecordedErrors) {
+				errors.add(error);
+			}
+		}
+
+		MappingErrorReport build() {
+			return new MappingErrorReport(List.copyOf(errors), failedRows, errorCount);
+		}
+	}
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.mapper;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight recorder event for mapping a result with one of the functions created by the {@link Mapper}.
+ * Only records mappings that took longer than 1 ms by default.
+ *
+ * @author Gerrit Meier
+ */
+@Name("com.meistermeier.neo4j.toolbelt.Mapping")
+@Label("Mapping")
+@Description("Mapping of records into objects of the target type")
+@Category({"Neo4j Java Toolbelt", "Mapper"})
+@Threshold("1 ms")
+@StackTrace(false)
+final class MappingEvent extends Event {
+
+	@Label("Target Type")
+	Class<?> targetType;
+
+	@Label("Mapping")
+	@Description("Kind of mapping function: single, collection, batch or tolerant")
+	String mapping;
+
+	@Label("Record Count")
+	@Description("Number of records, or list elements for collection mappings, that got mapped")
+	int recordCount;
+
+	void commit(Class<?> targetType, String mapping, int recordCount) {
+		if (shouldCommit()) {
+			this.targetType = targetType;
+			this.mapping = mapping;
+			this.recordCount = recordCount;
+			commit();
+		}
+	}
+}
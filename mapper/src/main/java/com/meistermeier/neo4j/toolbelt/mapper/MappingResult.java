@@ -0,0 +1,29 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.mapper;
+
+import java.util.List;
+
+/**
+ * Result of a tolerant batch mapping.
+ *
+ * @param mapped      successfully mapped records, in the order of the batch
+ * @param errorReport errors of the records that could not be mapped
+ * @param <T>         type of the mapped records
+ * @author Gerrit Meier
+ */
+public record MappingResult<T>(List<T> mapped, MappingErrorReport errorReport) {
+}
@@ -0,0 +1,448 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.mapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Generates the implementation of a projection interface as hidden class.
+ * Every getter of the interface delegates with its index to an {@link IntFunction},
+ * which does the actual lookup and conversion of the property.
+ * A memoized getter stores the value in a field of its own and only delegates on the first call.
+ * {@code toString} gets delegated to the accessor as {@link Function}, with the projection as argument.
+ * <p>
+ * The only branch is the check of a memoized getter whether its value got resolved already,
+ * so the class file needs only a single stack map frame per memoized getter.
+ *
+ * @author Gerrit Meier
+ */
+final class ProjectionClassGenerator {
+
+	private static final int CLASS_FILE_VERSION = 61; // Java 17
+
+	private static final int ACC_PUBLIC = 0x0001;
+	private static final int ACC_PRIVATE = 0x0002;
+	private static final int ACC_FINAL = 0x0010;
+	private static final int ACC_SUPER = 0x0020;
+
+	private static final String OBJECT = "java/lang/Object";
+	private static final String OBJECT_DESCRIPTOR = "L" + OBJECT + ";";
+	private static final String INT_FUNCTION = "java/util/function/IntFunction";
+	private static final String FUNCTION = "java/util/function/Function";
+	private static final String ACCESSOR_FIELD = "accessor";
+	private static final String ACCESSOR_DESCRIPTOR = "L" + INT_FUNCTION + ";";
+
+	private ProjectionClassGenerator() {
+	}
+
+	/**
+	 * Defines the implementation of the projection interface.
+	 *
+	 * @param projectionInterface Interface to implement.
+	 * @param getters             Getters to implement, the index in the list is the index passed to the accessor.
+	 * @param memoized            Flag per getter whether its value should be stored in the instance.
+	 * @return handles to create and inspect instances of the implementation
+	 */
+	static GeneratedImplementation defineImplementation(Class<?> projectionInterface, List<Method> getters, boolean[] memoized) {
+		try {
+			MethodHandles.Lookup interfaceLookup = MethodHandles.privateLookupIn(projectionInterface, MethodHandles.lookup());
+			String className = internalName(projectionInterface) + "$$Projection";
+			byte[] classBytes = generate(className, projectionInterface, getters, memoized);
+			MethodHandles.Lookup implementationLookup = interfaceLookup.defineHiddenClass(classBytes, true);
+			Class<?> implementation = implementationLookup.lookupClass();
+
+			MethodHandle constructor = implementationLookup
+					.findConstructor(implementation, MethodType.methodType(void.class, IntFunction.class))
+					.asType(MethodType.methodType(Object.class, IntFunction.class));
+			MethodHandle[] values = new MethodHandle[getters.size()];
+			MethodHandle[] resolvedFlags = new MethodHandle[getters.size()];
+			for (int i = 0; i < getters.size(); i++) {
+				if (memoized[i]) {
+					values[i] = implementationLookup.findGetter(implementation, valueField(i), Object.class)
+							.asType(MethodType.methodType(Object.class, Object.class));
+					resolvedFlags[i] = implementationLookup.findGetter(implementation, resolvedField(i), boolean.class)
+							.asType(MethodType.methodType(boolean.class, Object.class));
+				}
+			}
+			return new GeneratedImplementation(constructor, values, resolvedFlags);
+		} catch (IllegalAccessException | NoSuchMethodException | NoSuchFieldException e) {
+			throw new IllegalArgumentException("Cannot create projection for " + projectionInterface, e);
+		}
+	}
+
+	static byte[] generate(String className, Class<?> projectionInterface, List<Method> getters, boolean[] memoized) {
+		ConstantPool constantPool = new ConstantPool();
+		int thisClass = constantPool.classInfo(className);
+		int superClass = constantPool.classInfo(OBJECT);
+		int implementedInterface = constantPool.classInfo(internalName(projectionInterface));
+		int accessorField = constantPool.fieldRef(className, ACCESSOR_FIELD, ACCESSOR_DESCRIPTOR);
+		int codeAttribute = constantPool.utf8("Code");
+
+		ByteArrayOutputStream fields = new ByteArrayOutputStream();
+		ByteArrayOutputStream methods = new ByteArrayOutputStream();
+		int fieldCount = 1;
+		try (DataOutputStream fieldsOut = new DataOutputStream(fields); DataOutputStream methodsOut = new DataOutputStream(methods)) {
+			writeField(fieldsOut, constantPool, ACC_PRIVATE | ACC_FINAL, ACCESSOR_FIELD, ACCESSOR_DESCRIPTOR);
+			writeConstructor(methodsOut, constantPool, accessorField, codeAttribute);
+			writeToString(methodsOut, constantPool, accessorField, codeAttribute);
+			for (int i = 0; i < getters.size(); i++) {
+				if (memoized[i]) {
+					writeField(fieldsOut, constantPool, ACC_PRIVATE, valueField(i), OBJECT_DESCRIPTOR);
+					writeField(fieldsOut, constantPool, ACC_PRIVATE, resolvedField(i), "Z");
+					fieldCount += 2;
+					writeMemoizedGetter(methodsOut, constantPool, className, getters.get(i), i, accessorField, codeAttribute);
+				} else {
+					writeGetter(methodsOut, constantPool, getters.get(i), i, accessorField, codeAttribute);
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		ByteArrayOutputStream classFile = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(classFile)) {
+			out.writeInt(0xCAFEBABE);
+			out.writeShort(0);
+			out.writeShort(CLASS_FILE_VERSION);
+			constantPool.writeTo(out);
+			out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+			out.writeShort(thisClass);
+			out.writeShort(superClass);
+			out.writeShort(1);
+			out.writeShort(implementedInterface);
+			out.writeShort(fieldCount);
+			out.write(fields.toByteArray());
+			out.writeShort(getters.size() + 2);
+			out.write(methods.toByteArray());
+			// class attributes
+			out.writeShort(0);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return classFile.toByteArray();
+	}
+
+	private static String valueField(int index) {
+		return "value" + index;
+	}
+
+	private static String resolvedField(int index) {
+		return "resolved" + index;
+	}
+
+	private static void writeField(DataOutputStream out, ConstantPool constantPool, int accessFlags, String name, String descriptor) throws IOException {
+		out.writeShort(accessFlags);
+		out.writeShort(constantPool.utf8(name));
+		out.writeShort(constantPool.utf8(descriptor));
+		out.writeShort(0);
+	}
+
+	private static void writeConstructor(DataOutputStream out, ConstantPool constantPool, int accessorField, int codeAttribute) throws IOException {
+		int objectConstructor = constantPool.methodRef(OBJECT, "<init>", "()V");
+		Code code = new Code();
+		code.op(0x2a);                           // aload_0
+		code.op(0xb7).u2(objectConstructor);     // invokespecial Object.<init>
+		code.op(0x2a);                           // aload_0
+		code.op(0x2b);                           // aload_1
+		code.op(0xb5).u2(accessorField);         // putfield accessor
+		code.op(0xb1);                           // return
+		writeMethod(out, constantPool, "<init>", "(" + ACCESSOR_DESCRIPTOR + ")V", code, 2, 2, codeAttribute);
+	}
+
+	private static void writeToString(DataOutputStream out, ConstantPool constantPool, int accessorField, int codeAttribute) throws IOException {
+		int render = constantPool.interfaceMethodRef(FUNCTION, "apply", "(" + OBJECT_DESCRIPTOR + ")" + OBJECT_DESCRIPTOR);
+		Code code = new Code();
+		code.op(0x2a);                           // aload_0
+		code.op(0xb4).u2(accessorField);         // getfield accessor
+		code.op(0xc0).u2(constantPool.classInfo(FUNCTION));
+		code.op(0x2a);                           // aload_0
+		code.op(0xb9).u2(render).u1(2).u1(0);    // invokeinterface Function.apply
+		code.op(0xc0).u2(constantPool.classInfo("java/lang/String"));
+		code.op(0xb0);                           // areturn
+		writeMethod(out, constantPool, "toString", "()Ljava/lang/String;", code, 2, 1, codeAttribute);
+	}
+
+	private static void writeGetter(DataOutputStream out, ConstantPool constantPool, Method getter, int index, int accessorField, int codeAttribute) throws IOException {
+		Code code = new Code();
+		writeResolve(code, constantPool, index, accessorField);
+		writeReturn(code, constantPool, getter.getReturnType());
+		writeMethod(out, constantPool, getter.getName(), MethodType.methodType(getter.getReturnType()).toMethodDescriptorString(), code, 3, 1, codeAttribute);
+	}
+
+	private static void writeMemoizedGetter(DataOutputStream out, ConstantPool constantPool, String className, Method getter, int index, int accessorField, int codeAttribute) throws IOException {
+		int valueField = constantPool.fieldRef(className, valueField(index), OBJECT_DESCRIPTOR);
+		int resolvedField = constantPool.fieldRef(className, resolvedField(index), "Z");
+
+		Code code = new Code();
+		code.op(0x2a);                           // aload_0
+		code.op(0xb4).u2(resolvedField);         // getfield resolved
+		int branch = code.position();
+		code.op(0x9a).u2(0);                     // ifne resolved, patched below
+		code.op(0x2a);                           // aload_0
+		writeResolve(code, constantPool, index, accessorField);
+		code.op(0xb5).u2(valueField);            // putfield value
+		code.op(0x2a);                           // aload_0
+		code.op(0x04);                           // iconst_1
+		code.op(0xb5).u2(resolvedField);         // putfield resolved
+		int resolved = code.position();
+		code.patchU2(branch + 1, resolved - branch);
+		code.frameAt(resolved);
+		code.op(0x2a);                           // aload_0
+		code.op(0xb4).u2(valueField);            // getfield value
+		writeReturn(code, constantPool, getter.getReturnType());
+		writeMethod(out, constantPool, getter.getName(), MethodType.methodType(getter.getReturnType()).toMethodDescriptorString(), code, 3, 1, codeAttribute);
+	}
+
+	private static void writeResolve(Code code, ConstantPool constantPool, int index, int accessorField) {
+		int apply = constantPool.interfaceMethodRef(INT_FUNCTION, "apply", "(I)" + OBJECT_DESCRIPTOR);
+		code.op(0x2a);                           // aload_0
+		code.op(0xb4).u2(accessorField);         // getfield accessor
+		code.op(0x11).u2(index);                 // sipush index
+		code.op(0xb9).u2(apply).u1(2).u1(0);     // invokeinterface IntFunction.apply
+	}
+
+	private static void writeReturn(Code code, ConstantPool constantPool, Class<?> returnType) {
+		if (returnType.isPrimitive()) {
+			Primitive primitive = Primitive.of(returnType);
+			code.op(0xc0).u2(constantPool.classInfo(primitive.wrapper));
+			code.op(0xb6).u2(constantPool.methodRef(primitive.wrapper, returnType.getName() + "Value", "()" + primitive.descriptor));
+			code.op(primitive.returnOpcode);
+		} else {
+			if (returnType != Object.class) {
+				code.op(0xc0).u2(constantPool.classInfo(internalName(returnType)));
+			}
+			code.op(0xb0);                       // areturn
+		}
+	}
+
+	private static void writeMethod(DataOutputStream out, ConstantPool constantPool, String name, String descriptor, Code code, int maxStack, int maxLocals, int codeAttribute) throws IOException {
+		byte[] bytecode = code.toByteArray();
+		int[] frames = code.frames();
+		// every frame has the same locals as the method entry and an empty stack: same_frame_extended
+		int stackMapTableLength = frames.length == 0 ? 0 : 6 + 2 + frames.length * 3;
+		out.writeShort(ACC_PUBLIC);
+		out.writeShort(constantPool.utf8(name));
+		out.writeShort(constantPool.utf8(descriptor));
+		out.writeShort(1);
+		out.writeShort(codeAttribute);
+		out.writeInt(12 + bytecode.length + stackMapTableLength);
+		out.writeShort(maxStack);
+		out.writeShort(maxLocals);
+		out.writeInt(bytecode.length);
+		out.write(bytecode);
+		out.writeShort(0); // exception table
+		if (frames.length == 0) {
+			out.writeShort(0); // attributes
+			return;
+		}
+		out.writeShort(1);
+		out.writeShort(constantPool.utf8("StackMapTable"));
+		out.writeInt(2 + frames.length * 3);
+		out.writeShort(frames.length);
+		int previousFrame = -1;
+		for (int frame : frames) {
+			out.writeByte(251);
+			out.writeShort(frame - previousFrame - 1);
+			previousFrame = frame;
+		}
+	}
+
+	private static String internalName(Class<?> type) {
+		return type.getName().replace('.', '/');
+	}
+
+	/**
+	 * Handles to create instances of a generated implementation and to read the memoized values.
+	 *
+	 * @param constructor   typed as {@code (IntFunction)Object}
+	 * @param values        per getter, typed as {@code (Object)Object}, {@literal null} if the getter is not memoized
+	 * @param resolvedFlags per getter, typed as {@code (Object)boolean}, {@literal null} if the getter is not memoized
+	 */
+	record GeneratedImplementation(MethodHandle constructor, MethodHandle[] values, MethodHandle[] resolvedFlags) {
+	}
+
+	private enum Primitive {
+		BOOLEAN(boolean.class, "java/lang/Boolean", "Z", 0xac),
+		BYTE(byte.class, "java/lang/Byte", "B", 0xac),
+		CHAR(char.class, "java/lang/Character", "C", 0xac),
+		SHORT(short.class, "java/lang/Short", "S", 0xac),
+		INT(int.class, "java/lang/Integer", "I", 0xac),
+		LONG(long.class, "java/lang/Long", "J", 0xad),
+		FLOAT(float.class, "java/lang/Float", "F", 0xae),
+		DOUBLE(double.class, "java/lang/Double", "D", 0xaf);
+
+		private final Class<?> type;
+		private final String wrapper;
+		private final String descriptor;
+		private final int returnOpcode;
+
+		Primitive(Class<?> type, String wrapper, String descriptor, int returnOpcode) {
+			this.type = type;
+			this.wrapper = wrapper;
+			this.descriptor = descriptor;
+			this.returnOpcode = returnOpcode;
+		}
+
+		static Primitive of(Class<?> type) {
+			for (Primitive primitive : values()) {
+				if (primitive.type == type) {
+					return primitive;
+				}
+			}
+			throw new IllegalArgumentException("Unsupported return type " + type);
+		}
+	}
+
+	private static final class Code {
+
+		private byte[] bytes = new byte[32];
+		private int length;
+		private int[] frames = new int[0];
+
+		Code op(int opcode) {
+			return u1(opcode);
+		}
+
+		Code u1(int value) {
+			if (length == bytes.length) {
+				bytes = Arrays.copyOf(bytes, length * 2);
+			}
+			bytes[length++] = (byte) value;
+			return this;
+		}
+
+		Code u2(int value) {
+			return u1(value >>> 8).u1(value);
+		}
+
+		int position() {
+			return length;
+		}
+
+		void patchU2(int position, int value) {
+			bytes[position] = (byte) (value >>> 8);
+			bytes[position + 1] = (byte) value;
+		}
+
+		/**
+		 * Marks a branch target, the locals are the ones of the method entry and the stack is empty.
+		 */
+		void frameAt(int position) {
+			frames = Arrays.copyOf(frames, frames.length + 1);
+			frames[frames.length - 1] = position;
+		}
+
+		int[] frames() {
+			return frames;
+		}
+
+		byte[] toByteArray() {
+			return Arrays.copyOf(bytes, length);
+		}
+	}
+
+	private static final class ConstantPool {
+
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		private final DataOutputStream out = new DataOutputStream(bytes);
+		private final Map<String, Integer> entries = new HashMap<>();
+		private int size = 1;
+
+		int utf8(String value) {
+			return entry("Utf8:" + value, () -> {
+				out.writeByte(1);
+				out.writeUTF(value);
+			});
+		}
+
+		int classInfo(String internalName) {
+			int name = utf8(internalName);
+			return entry("Class:" + internalName, () -> {
+				out.writeByte(7);
+				out.writeShort(name);
+			});
+		}
+
+		int fieldRef(String owner, String name, String descriptor) {
+			return memberRef(9, owner, name, descriptor);
+		}
+
+		int methodRef(String owner, String name, String descriptor) {
+			return memberRef(10, owner, name, descriptor);
+		}
+
+		int interfaceMethodRef(String owner, String name, String descriptor) {
+			return memberRef(11, owner, name, descriptor);
+		}
+
+		private int memberRef(int tag, String owner, String name, String descriptor) {
+			int ownerClass = classInfo(owner);
+			int nameAndType = nameAndType(name, descriptor);
+			return entry(tag + ":" + owner + "." + name + descriptor, () -> {
+				out.writeByte(tag);
+				out.writeShort(ownerClass);
+				out.writeShort(nameAndType);
+			});
+		}
+
+		private int nameAndType(String name, String descriptor) {
+			int nameIndex = utf8(name);
+			int descriptorIndex = utf8(descriptor);
+			return entry("NameAndType:" + name + descriptor, () -> {
+				out.writeByte(12);
+				out.writeShort(nameIndex);
+				out.writeShort(descriptorIndex);
+			});
+		}
+
+		private int entry(String key, EntryWriter writer) {
+			Integer index = entries.get(key);
+			if (index != null) {
+				return index;
+			}
+			try {
+				writer.write();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			entries.put(key, size);
+			return size++;
+		}
+
+		void writeTo(DataOutputStream target) throws IOException {
+			target.writeShort(size);
+			target.write(bytes.toByteArray());
+		}
+
+		@FunctionalInterface
+		private interface EntryWriter {
+			void write() throws IOException;
+		}
+	}
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.mapper;
+
+import com.meistermeier.neo4j.toolbelt.conversion.ConverterRegistry;
+import com.meistermeier.neo4j.toolbelt.internal.MappingSupport;
+import com.meistermeier.neo4j.toolbelt.internal.TypeModel;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.types.MapAccessor;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Describes a projection interface and creates lazy instances of it.
+ * Instances read and convert their properties only when the matching getter gets called.
+ * The implementation of the interface gets generated once per set of memoized properties.
+ *
+ * @param <T> Type of the projection interface.
+ * @author Gerrit Meier
+ */
+final class ProjectionType<T> {
+
+	private static final ClassValue<ProjectionType<?>> PROJECTION_TYPES = new ClassValue<>() {
+		@Override
+		protected ProjectionType<?> computeValue(Class<?> type) {
+			return new ProjectionType<>(type);
+		}
+	};
+
+	private final Class<T> projectionInterface;
+	private final List<Method> getters;
+	private final ProjectionProperty[] properties;
+	private final Map<BitSet, Implementation> implementations = new ConcurrentHashMap<>();
+
+	private ProjectionType(Class<T> projectionInterface) {
+		if (!projectionInterface.isInterface()) {
+			throw new IllegalArgumentException("Projections need to be defined as interface, " + projectionInterface + " is not an interface");
+		}
+		this.projectionInterface = projectionInterface;
+
+		List<Method> projectionGetters = new ArrayList<>();
+		List<ProjectionProperty> projectionProperties = new ArrayList<>();
+		for (Method method : projectionInterface.getMethods()) {
+			if (!Modifier.isAbstract(method.getModifiers()) || isObjectMethod(method)) {
+				continue;
+			}
+			if (method.getParameterCount() != 0 || method.getReturnType() == void.class) {
+				throw new IllegalArgumentException("Projections can only define getters, %s is not a getter".formatted(method));
+			}
+			projectionGetters.add(method);
+			projectionProperties.add(new ProjectionProperty(propertyName(method), method.getReturnType(), genericType(method), defaultValue(method.getReturnType())));
+		}
+		this.getters = List.copyOf(projectionGetters);
+		this.properties = projectionProperties.toArray(new ProjectionProperty[0]);
+	}
+
+	@SuppressWarnings("unchecked")
+	static <T> ProjectionType<T> of(Class<T> projectionInterface) {
+		return (ProjectionType<T>) PROJECTION_TYPES.get(projectionInterface);
+	}
+
+	/**
+	 * Provides the implementation that memoizes the given properties.
+	 *
+	 * @param memoizedProperties Names of the properties to memoize.
+	 * @return generated implementation
+	 */
+	Implementation implementation(String... memoizedProperties) {
+		Set<String> names = Set.of(memoizedProperties);
+		Set<String> knownNames = Arrays.stream(properties).map(ProjectionProperty::name).collect(Collectors.toSet());
+		for (String name : names) {
+			if (!knownNames.contains(name)) {
+				throw new IllegalArgumentException("Projection %s does not define a property %s".formatted(projectionInterface.getName(), name));
+			}
+		}
+		BitSet memoized = new BitSet(properties.length);
+		for (int i = 0; i < properties.length; i++) {
+			memoized.set(i, names.contains(properties[i].name()));
+		}
+		return implementations.computeIfAbsent(memoized, Implementation::new);
+	}
+
+	private static boolean isObjectMethod(Method method) {
+		try {
+			Object.class.getMethod(method.getName(), method.getParameterTypes());
+			return true;
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+
+	private static String propertyName(Method method) {
+		// record style accessors like name() use the method name as is
+		String propertyName = TypeModel.getterPropertyName(method);
+		return propertyName != null ? propertyName : method.getName();
+	}
+
+	private static Class<?> genericType(Method method) {
+		Class<?> returnType = method.getReturnType();
+		if (returnType.isAssignableFrom(Map.class)) {
+			return Map.class;
+		}
+		if (returnType.getTypeParameters().length == 0) {
+			return returnType;
+		}
+		if (method.getGenericReturnType() instanceof ParameterizedType parameterizedType) {
+			Type typeArgument = parameterizedType.getActualTypeArguments()[0];
+			return typeArgument instanceof Class<?> typeArgumentClass ? typeArgumentClass : Object.class;
+		}
+		return Object.class;
+	}
+
+	/**
+	 * Missing properties of a primitive type get returned as the type's default value, e.g. {@code 0} or {@code false}.
+	 */
+	private static Object defaultValue(Class<?> type) {
+		return type.isPrimitive() ? Array.get(Array.newInstance(type, 1), 0) : null;
+	}
+
+	private record ProjectionProperty(String name, Class<?> type, Class<?> genericType, Object defaultValue) {
+	}
+
+	/**
+	 * Generated implementation of the projection interface for one set of memoized properties.
+	 */
+	final class Implementation {
+
+		private final ProjectionClassGenerator.GeneratedImplementation generated;
+
+		private Implementation(BitSet memoized) {
+			boolean[] memoizedGetters = new boolean[properties.length];
+			for (int i = 0; i < memoizedGetters.length; i++) {
+				memoizedGetters[i] = memoized.get(i);
+			}
+			this.generated = ProjectionClassGenerator.defineImplementation(projectionInterface, getters, memoizedGetters);
+		}
+
+		T newInstance(Record record, ConverterRegistry converterRegistry) {
+			IntFunction<Object> accessor = new Accessor(record, converterRegistry, this);
+			try {
+				return projectionInterface.cast((Object) generated.constructor().invokeExact(accessor));
+			} catch (RuntimeException | Error e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		/**
+		 * Renders only the memoized properties that got resolved already, so {@code toString} never converts anything.
+		 */
+		private String render(Object projection) {
+			StringJoiner renderedProperties = new StringJoiner(", ", projectionInterface.getSimpleName() + "[", "]");
+			try {
+				for (int i = 0; i < properties.length; i++) {
+					if (generated.resolvedFlags()[i] != null && (boolean) generated.resolvedFlags()[i].invokeExact(projection)) {
+						renderedProperties.add(properties[i].name() + "=" + (Object) generated.values()[i].invokeExact(projection));
+					}
+				}
+			} catch (RuntimeException | Error e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new IllegalStateException(e);
+			}
+			return renderedProperties.toString();
+		}
+	}
+
+	/**
+	 * Backing accessor of a single projection instance.
+	 * Gets called by the generated getters with the index of the property and by {@code toString} with the projection itself.
+	 */
+	private final class Accessor implements IntFunction<Object>, Function<Object, String> {
+
+		private final Record record;
+		private final MapAccessor head;
+		private final ConverterRegistry converterRegistry;
+		private final Implementation implementation;
+
+		Accessor(Record record, ConverterRegistry converterRegistry, Implementation implementation) {
+			this.record = record;
+			this.head = MappingSupport.headOf(record);
+			this.converterRegistry = converterRegistry;
+			this.implementation = implementation;
+		}
+
+		@Override
+		public Object apply(int index) {
+			ProjectionProperty property = properties[index];
+			Value value = head.get(property.name());
+			if (value.isNull() && head != record) {
+				// related nodes are returned next to the node
+				value = record.get(property.name());
+			}
+			Object converted = converterRegistry.convert(value, property.type(), property.genericType());
+			return converted == null ? property.defaultValue() : converted;
+		}
+
+		@Override
+		public String apply(Object projection) {
+			return implementation.render(projection);
+		}
+	}
+}
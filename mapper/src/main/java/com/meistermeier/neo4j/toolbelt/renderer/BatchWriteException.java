@@ -0,0 +1,55 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.renderer;
+
+/**
+ * Gets thrown if a chunk could not be written, even after retrying it.
+ * All chunks before the failed one are already committed.
+ *
+ * @author Gerrit Meier
+ */
+public class BatchWriteException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final long rowsWritten;
+	private final int failedChunk;
+
+	BatchWriteException(long rowsWritten, int failedChunk, Throwable cause) {
+		super("Failed to write chunk %d after %d committed rows".formatted(failedChunk, rowsWritten), cause);
+		this.rowsWritten = rowsWritten;
+		this.failedChunk = failedChunk;
+	}
+
+	/**
+	 * Number of rows that got committed before the failing chunk.
+	 * An import can be resumed by skipping this number of rows.
+	 *
+	 * @return committed rows
+	 */
+	public long getRowsWritten() {
+		return rowsWritten;
+	}
+
+	/**
+	 * Zero-based index of the failed chunk.
+	 *
+	 * @return index of the failed chunk
+	 */
+	public int getFailedChunk() {
+		return failedChunk;
+	}
+}
@@ -0,0 +1,27 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.renderer;
+
+/**
+ * Outcome of a {@link BatchWriter#write(Iterable, String)} call.
+ *
+ * @param rows    number of rows that got written
+ * @param chunks  number of chunks, each one written in its own transaction
+ * @param retries number of retried chunk transactions
+ * @author Gerrit Meier
+ */
+public record BatchWriteResult(long rows, int chunks, int retries) {
+}
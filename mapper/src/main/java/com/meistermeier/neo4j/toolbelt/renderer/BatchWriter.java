@@ -0,0 +1,487 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.renderer;
+
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Session;
+import org.neo4j.driver.SessionConfig;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.Values;
+import org.neo4j.driver.exceptions.RetryableException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Writes rows in chunks with an {@code UNWIND} statement, e.g. {@code UNWIND $rows AS row CREATE (n:Node) SET n = row}.
+ * The rows get rendered lazily, so only one chunk is held in memory at a time.
+ * A chunk gets closed when it reaches either the configured number of rows or the estimated number of bytes,
+ * and gets written in its own write transaction.
+ * Rows can also be provided as {@link Stream} or {@link Flow.Publisher}, those get rendered on a worker
+ * while the previous chunk gets written.
+ * Workers run on a shared pool of daemon threads unless another executor is configured with {@link #withExecutor(Executor)}.
+ * Call {@link Renderer#createBatchWriter(Driver)} to get an instance.
+ *
+ * @author Gerrit Meier
+ */
+public final class BatchWriter {
+
+	/**
+	 * Default maximum number of rows per chunk.
+	 */
+	public static final int DEFAULT_MAX_ROWS_PER_CHUNK = 10_000;
+
+	/**
+	 * Default maximum estimated size of a chunk in bytes.
+	 */
+	public static final long DEFAULT_MAX_BYTES_PER_CHUNK = 8 * 1024 * 1024;
+
+	/**
+	 * Default number of retries for a failed chunk, on top of the retries of the driver's managed transactions.
+	 */
+	public static final int DEFAULT_MAX_RETRIES = 3;
+
+	private static final int MAX_BUFFERED_ROWS = 1_024;
+
+	private final Driver driver;
+	private final ObjectRenderer objectRenderer;
+	private final SessionConfig sessionConfig;
+	private final String parameterName;
+	private final int maxRowsPerChunk;
+	private final long maxBytesPerChunk;
+	private final int maxRetries;
+	private final Duration retryBackoff;
+	private final Executor executor;
+
+	BatchWriter(Driver driver, ObjectRenderer objectRenderer) {
+		this(driver, objectRenderer, SessionConfig.defaultConfig(), "rows",
+				DEFAULT_MAX_ROWS_PER_CHUNK, DEFAULT_MAX_BYTES_PER_CHUNK, DEFAULT_MAX_RETRIES, Duration.ofMillis(100), null);
+	}
+
+	private BatchWriter(Driver driver, ObjectRenderer objectRenderer, SessionConfig sessionConfig, String parameterName,
+						int maxRowsPerChunk, long maxBytesPerChunk, int maxRetries, Duration retryBackoff, Executor executor) {
+		this.driver = driver;
+		this.objectRenderer = objectRenderer;
+		this.sessionConfig = sessionConfig;
+		this.parameterName = parameterName;
+		this.maxRowsPerChunk = maxRowsPerChunk;
+		this.maxBytesPerChunk = maxBytesPerChunk;
+		this.maxRetries = maxRetries;
+		this.retryBackoff = retryBackoff;
+		this.executor = executor;
+	}
+
+	/**
+	 * Creates a new writer that opens its sessions with the given configuration, e.g. to select the database.
+	 *
+	 * @param sessionConfig session configuration
+	 * @return new writer
+	 */
+	public BatchWriter withSessionConfig(SessionConfig sessionConfig) {
+		return new BatchWriter(driver, objectRenderer, sessionConfig, parameterName, maxRowsPerChunk, maxBytesPerChunk, maxRetries, retryBackoff, executor);
+	}
+
+	/**
+	 * Creates a new writer that provides the rows of a chunk with the given parameter name (default: {@code rows}).
+	 *
+	 * @param parameterName name of the parameter in the statement
+	 * @return new writer
+	 */
+	public BatchWriter withParameterName(String parameterName) {
+		return new BatchWriter(driver, objectRenderer, sessionConfig, parameterName, maxRowsPerChunk, maxBytesPerChunk, maxRetries, retryBackoff, executor);
+	}
+
+	/**
+	 * Creates a new writer with the given chunk bounds.
+	 * A single row that exceeds {@code maxBytesPerChunk} on its own gets written as a chunk of one row.
+	 *
+	 * @param maxRowsPerChunk  maximum number of rows per chunk
+	 * @param maxBytesPerChunk maximum estimated size of a chunk in bytes
+	 * @return new writer
+	 */
+	public BatchWriter withChunkLimits(int maxRowsPerChunk, long maxBytesPerChunk) {
+		if (maxRowsPerChunk < 1 || maxBytesPerChunk < 1) {
+			throw new IllegalArgumentException("Chunk limits must be positive");
+		}
+		return new BatchWriter(driver, objectRenderer, sessionConfig, parameterName, maxRowsPerChunk, maxBytesPerChunk, maxRetries, retryBackoff, executor);
+	}
+
+	/**
+	 * Creates a new writer with the given retry behaviour for chunks that failed with a retryable exception.
+	 * The backoff doubles with every attempt.
+	 *
+	 * @param maxRetries   maximum number of retries per chunk
+	 * @param retryBackoff wait time before the first retry
+	 * @return new writer
+	 */
+	public BatchWriter withRetries(int maxRetries, Duration retryBackoff) {
+		if (maxRetries < 0) {
+			throw new IllegalArgumentException("Number of retries must not be negative");
+		}
+		return new BatchWriter(driver, objectRenderer, sessionConfig, parameterName, maxRowsPerChunk, maxBytesPerChunk, maxRetries, retryBackoff, executor);
+	}
+
+	/**
+	 * Creates a new writer that runs its workers on the given executor instead of the shared pool of daemon threads.
+	 * Writing a stream or publisher occupies one task of the executor for the duration of the write,
+	 * a {@link BulkImporter} occupies one task per partition.
+	 *
+	 * @param executor executor for rendering and importing workers
+	 * @return new writer
+	 */
+	public BatchWriter withExecutor(Executor executor) {
+		return new BatchWriter(driver, objectRenderer, sessionConfig, parameterName, maxRowsPerChunk, maxBytesPerChunk, maxRetries, retryBackoff,
+				Objects.requireNonNull(executor, "Executor must not be null"));
+	}
+
+	/**
+	 * Creates an importer that partitions the rows and writes the partitions in parallel with the configuration of this writer.
+	 *
+	 * @param concurrency number of partitions and therefore maximum number of concurrent write transactions
+	 * @return new importer
+	 */
+	public BulkImporter inParallel(int concurrency) {
+		return new BulkImporter(this, concurrency, Math.min(maxRowsPerChunk, MAX_BUFFERED_ROWS));
+	}
+
+	Executor executor() {
+		return executor != null ? executor : SharedExecutor.INSTANCE;
+	}
+
+	/**
+	 * Renders and writes all rows in chunks.
+	 *
+	 * @param rows  rows to write
+	 * @param query {@code UNWIND} statement consuming the chunk parameter
+	 * @return summary of the written chunks
+	 * @throws BatchWriteException if a chunk could not be written
+	 */
+	public BatchWriteResult write(Iterable<?> rows, String query) {
+		return write(rows, query, objectRenderer::render);
+	}
+
+	/**
+	 * Renders and writes all rows in chunks with the given upsert statement.
+	 * Only the properties the statement uses get rendered, the chunk parameter is named after the statement's parameter.
+	 *
+	 * @param rows            rows to write
+	 * @param upsertStatement statement to merge the rows with
+	 * @return summary of the written chunks
+	 * @throws BatchWriteException if a chunk could not be written
+	 */
+	public BatchWriteResult write(Iterable<?> rows, UpsertStatement upsertStatement) {
+		return withParameterName(upsertStatement.getParameterName())
+				.write(rows, upsertStatement.getCypher(), upsertStatement::renderRow);
+	}
+
+	private BatchWriteResult write(Iterable<?> rows, String query, Function<Object, Value> rowRenderer) {
+		try (Session session = driver.session(sessionConfig)) {
+			ChunkWriter chunkWriter = new ChunkWriter(session, query);
+			Chunker chunker = new Chunker(rows.iterator(), rowRenderer);
+			for (List<Value> chunk = chunker.nextChunk(); chunk != null; chunk = chunker.nextChunk()) {
+				chunkWriter.write(chunk);
+			}
+			return chunkWriter.result();
+		}
+	}
+
+	/**
+	 * Renders and writes all rows of a stream of unknown length in chunks.
+	 * The next chunk gets rendered on a worker while the transaction of the previous chunk is in flight.
+	 * The worker stops pulling rows as long as a rendered chunk is waiting, so at most three chunks are held in memory.
+	 * The stream gets closed when all rows are written or the write failed, in both cases after the worker stopped pulling rows.
+	 *
+	 * @param rows  rows to write
+	 * @param query {@code UNWIND} statement consuming the chunk parameter
+	 * @return summary of the written chunks
+	 * @throws BatchWriteException if a chunk could not be written
+	 */
+	public BatchWriteResult write(Stream<?> rows, String query) {
+		try (rows) {
+			return writePipelined(rows.iterator(), query, () -> {
+			});
+		}
+	}
+
+	/**
+	 * Renders and writes all rows emitted by the publisher in chunks, like {@link #write(Stream, String)}.
+	 * Rows get requested from the publisher only as fast as they get rendered and written.
+	 * The subscription gets cancelled if the write fails.
+	 *
+	 * @param publisher publisher of the rows to write
+	 * @param query     {@code UNWIND} statement consuming the chunk parameter
+	 * @return summary of the written chunks
+	 * @throws BatchWriteException if a chunk could not be written
+	 */
+	public BatchWriteResult write(Flow.Publisher<?> publisher, String query) {
+		PublisherIterator rows = new PublisherIterator(Math.min(maxRowsPerChunk, MAX_BUFFERED_ROWS));
+		publisher.subscribe(rows);
+		return writePipelined(rows, query, rows::cancel);
+	}
+
+	private BatchWriteResult writePipelined(Iterator<?> rows, String query, Runnable cancellation) {
+		RenderWorker renderWorker = new RenderWorker(new Chunker(rows, objectRenderer::render));
+		executor().execute(renderWorker);
+
+		try (Session session = driver.session(sessionConfig)) {
+			ChunkWriter chunkWriter = new ChunkWriter(session, query);
+			for (RenderedChunk renderedChunk = take(renderWorker.renderedChunks, chunkWriter); renderedChunk != RenderedChunk.END;
+				 renderedChunk = take(renderWorker.renderedChunks, chunkWriter)) {
+				renderedChunk.rethrowFailure();
+				chunkWriter.write(renderedChunk.values());
+			}
+			return chunkWriter.result();
+		} finally {
+			cancellation.run();
+			// the caller closes the source afterwards, so the worker must not touch it anymore
+			renderWorker.stopAndAwait();
+		}
+	}
+
+	private static void putFailure(BlockingQueue<RenderedChunk> renderedChunks, Throwable failure) {
+		try {
+			renderedChunks.put(new RenderedChunk(null, failure));
+		} catch (InterruptedException e) {
+			// the writing side gave up
+		}
+	}
+
+	private static RenderedChunk take(BlockingQueue<RenderedChunk> renderedChunks, ChunkWriter chunkWriter) {
+		try {
+			return renderedChunks.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new BatchWriteException(chunkWriter.rows, chunkWriter.chunks, e);
+		}
+	}
+
+	/**
+	 * Renders chunks one ahead of the writing side.
+	 * Gets interrupted only while it is running, so an interrupt never leaks into the next task of a pooled thread.
+	 */
+	private static final class RenderWorker implements Runnable {
+
+		private static final int NEW = 0;
+		private static final int RUNNING = 1;
+		private static final int DONE = 2;
+
+		// a single slot: the worker renders the next chunk while the current one gets written, but not further
+		private final BlockingQueue<RenderedChunk> renderedChunks = new ArrayBlockingQueue<>(1);
+		private final CountDownLatch finished = new CountDownLatch(1);
+		private final Chunker chunker;
+		private int state = NEW;
+		private Thread thread;
+
+		RenderWorker(Chunker chunker) {
+			this.chunker = chunker;
+		}
+
+		@Override
+		public void run() {
+			if (!start()) {
+				return;
+			}
+			try {
+				for (List<Value> chunk = chunker.nextChunk(); chunk != null && !Thread.currentThread().isInterrupted(); chunk = chunker.nextChunk()) {
+					renderedChunks.put(new RenderedChunk(chunk, null));
+				}
+				renderedChunks.put(RenderedChunk.END);
+			} catch (InterruptedException e) {
+				// the writing side gave up
+			} catch (Throwable e) {
+				putFailure(renderedChunks, e);
+			} finally {
+				finish();
+			}
+		}
+
+		private synchronized boolean start() {
+			if (state != NEW) {
+				return false;
+			}
+			state = RUNNING;
+			thread = Thread.currentThread();
+			return true;
+		}
+
+		private void finish() {
+			synchronized (this) {
+				state = DONE;
+				thread = null;
+				// clears an interrupt of stopAndAwait that arrived after the last blocking call
+				Thread.interrupted();
+			}
+			finished.countDown();
+		}
+
+		/**
+		 * Stops the worker and waits until it does not pull rows anymore.
+		 * A worker that did not start yet will not start at all.
+		 */
+		void stopAndAwait() {
+			synchronized (this) {
+				if (state == NEW) {
+					state = DONE;
+					return;
+				}
+				if (state == RUNNING) {
+					thread.interrupt();
+				}
+			}
+			boolean interrupted = false;
+			while (true) {
+				try {
+					finished.await();
+					break;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Pool of daemon threads shared by all writers without an explicit executor, created on first use.
+	 */
+	private static final class SharedExecutor {
+
+		private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+		static final ExecutorService INSTANCE = Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "batch-writer-worker-" + THREAD_COUNT.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Renders rows and collects them into chunks within the configured limits.
+	 */
+	private final class Chunker {
+
+		private final Iterator<?> rows;
+		private final Function<Object, Value> rowRenderer;
+		private Value pending;
+		private long pendingBytes;
+
+		Chunker(Iterator<?> rows, Function<Object, Value> rowRenderer) {
+			this.rows = rows;
+			this.rowRenderer = rowRenderer;
+		}
+
+		/**
+		 * @return next chunk or {@literal null} if all rows are rendered
+		 */
+		List<Value> nextChunk() {
+			List<Value> chunk = new ArrayList<>();
+			long chunkBytes = 0;
+			if (pending != null) {
+				chunk.add(pending);
+				chunkBytes = pendingBytes;
+				pending = null;
+			}
+			while (chunk.size() < maxRowsPerChunk && rows.hasNext()) {
+				Value value = rowRenderer.apply(rows.next());
+				long rowBytes = PayloadSizeEstimator.estimate(value);
+				if (!chunk.isEmpty() && chunkBytes + rowBytes > maxBytesPerChunk) {
+					pending = value;
+					pendingBytes = rowBytes;
+					break;
+				}
+				chunk.add(value);
+				chunkBytes += rowBytes;
+			}
+			return chunk.isEmpty() ? null : chunk;
+		}
+	}
+
+	private record RenderedChunk(List<Value> values, Throwable failure) {
+
+		static final RenderedChunk END = new RenderedChunk(List.of(), null);
+
+		void rethrowFailure() {
+			if (failure instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			} else if (failure instanceof Error error) {
+				throw error;
+			} else if (failure != null) {
+				throw new IllegalStateException(failure);
+			}
+		}
+	}
+
+	private final class ChunkWriter {
+
+		private final Session session;
+		private final String query;
+		private long rows;
+		private int chunks;
+		private int retries;
+
+		ChunkWriter(Session session, String query) {
+			this.session = session;
+			this.query = query;
+		}
+
+		void write(List<Value> chunk) {
+			Value parameters = Values.value(Map.of(parameterName, Values.value(chunk.toArray(new Value[0]))));
+			for (int attempt = 0; ; attempt++) {
+				try {
+					session.executeWrite(tx -> tx.run(query, parameters).consume());
+					break;
+				} catch (RuntimeException e) {
+					if (!(e instanceof RetryableException) || attempt >= maxRetries) {
+						throw new BatchWriteException(rows, chunks, e);
+					}
+					retries++;
+					backOff(attempt, e);
+				}
+			}
+			rows += chunk.size();
+			chunks++;
+		}
+
+		BatchWriteResult result() {
+			return new BatchWriteResult(rows, chunks, retries);
+		}
+
+		private void backOff(int attempt, RuntimeException failure) {
+			try {
+				Thread.sleep(retryBackoff.multipliedBy(1L << Math.min(attempt, 16)).toMillis());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new BatchWriteException(rows, chunks, failure);
+			}
+		}
+	}
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.renderer;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Outcome of a {@link BulkImporter#importAll(Iterable, java.util.function.Function, String)} call.
+ *
+ * @param rows       number of rows that got written
+ * @param chunks     number of chunks, each one written in its own transaction
+ * @param retries    number of retried chunk transactions
+ * @param elapsed    duration of the whole import
+ * @param partitions results of the individual partitions
+ * @author Gerrit Meier
+ */
+public record BulkImportResult(long rows, int chunks, int retries, Duration elapsed, List<BatchWriteResult> partitions) {
+
+	/**
+	 * Throughput of the whole import.
+	 *
+	 * @return written rows per second
+	 */
+	public double rowsPerSecond() {
+		long nanos = elapsed.toNanos();
+		return nanos == 0 ? 0 : rows * 1_000_000_000d / nanos;
+	}
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.renderer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Imports rows with multiple sessions in parallel.
+ * The rows get partitioned by a key, rows with the same key always end up in the same partition,
+ * so concurrent transactions do not compete for the locks of the same nodes.
+ * Every partition gets rendered and written by its own worker with a {@link BatchWriter},
+ * so there are never more concurrent write transactions than partitions.
+ * The workers run on the executor of the {@link BatchWriter}, which has to be able to run all partitions at once,
+ * the import fails if a partition does not start within {@value #PARTITION_START_TIMEOUT_SECONDS} seconds.
+ * Call {@link BatchWriter#inParallel(int)} to get an instance.
+ *
+ * @author Gerrit Meier
+ */
+public final class BulkImporter {
+
+	private static final Object END = new Object();
+	private static final long PARTITION_START_TIMEOUT_SECONDS = 30;
+
+	private final BatchWriter batchWriter;
+	private final int concurrency;
+	private final int queueCapacity;
+	private final Duration startTimeout;
+
+	BulkImporter(BatchWriter batchWriter, int concurrency, int queueCapacity) {
+		this(batchWriter, concurrency, queueCapacity, Duration.ofSeconds(PARTITION_START_TIMEOUT_SECONDS));
+	}
+
+	BulkImporter(BatchWriter batchWriter, int concurrency, int queueCapacity, Duration startTimeout) {
+		if (concurrency < 1) {
+			throw new IllegalArgumentException("Concurrency must be positive");
+		}
+		this.batchWriter = batchWriter;
+		this.concurrency = concurrency;
+		this.queueCapacity = queueCapacity;
+		this.startTimeout = startTimeout;
+	}
+
+	/**
+	 * Partitions, renders and writes all rows.
+	 * If one partition fails, the others stop after their current chunk and the failure gets rethrown.
+	 *
+	 * @param rows         rows to import
+	 * @param partitionKey key to partition the rows by, e.g. the id of the node the row gets merged into
+	 * @param query        {@code UNWIND} statement consuming the chunk parameter
+	 * @param <T>          type of the rows
+	 * @return summary of the import
+	 * @throws BatchWriteException      if a chunk could not be written
+	 * @throws IllegalArgumentException if a row is {@literal null}, rows before it might be written already
+	 * @throws IllegalStateException    if the executor cannot run all partitions at once, rows might be written already
+	 */
+	public <T> BulkImportResult importAll(Iterable<? extends T> rows, Function<? super T, ?> partitionKey, String query) {
+		Executor executor = batchWriter.executor();
+		if (executor instanceof ThreadPoolExecutor threadPool && threadPool.getMaximumPoolSize() < concurrency) {
+			throw new IllegalStateException("The executor runs at most %d tasks at once, but the import needs %d for its partitions"
+					.formatted(threadPool.getMaximumPoolSize(), concurrency));
+		}
+
+		long start = System.nanoTime();
+		List<PartitionIterator> partitions = new ArrayList<>(concurrency);
+		for (int i = 0; i < concurrency; i++) {
+			partitions.add(new PartitionIterator(i, queueCapacity, startTimeout));
+		}
+
+		List<FutureTask<BatchWriteResult>> partitionResults = new ArrayList<>(concurrency);
+		try {
+			for (PartitionIterator partition : partitions) {
+				FutureTask<BatchWriteResult> partitionResult = new FutureTask<>(() -> {
+					partition.start();
+					try {
+						return batchWriter.write(() -> partition, query);
+					} catch (RuntimeException | Error e) {
+						partitions.forEach(PartitionIterator::abort);
+						throw e;
+					}
+				});
+				partitionResults.add(partitionResult);
+				executor.execute(partitionResult);
+			}
+
+			dispatch(rows, partitionKey, partitions);
+			for (int i = 0; i < concurrency; i++) {
+				if (!partitions.get(i).awaitStart()) {
+					// another partition failed before this one started, there is nothing to wait for
+					partitionResults.get(i).cancel(false);
+				}
+			}
+			return collect(partitionResults, Duration.ofNanos(System.nanoTime() - start));
+		} finally {
+			partitions.forEach(PartitionIterator::abort);
+			partitionResults.forEach(partitionResult -> partitionResult.cancel(true));
+		}
+	}
+
+	private <T> void dispatch(Iterable<? extends T> rows, Function<? super T, ?> partitionKey, List<PartitionIterator> partitions) {
+		long index = 0;
+		for (T row : rows) {
+			if (row == null) {
+				// the partitions use null as "no row yet", and there is no key to partition a missing row by
+				throw new IllegalArgumentException("Cannot import null rows, found one at index " + index);
+			}
+			index++;
+			int partition = Math.floorMod(Objects.hashCode(partitionKey.apply(row)), concurrency);
+			if (!partitions.get(partition).offer(row)) {
+				// a partition failed, the failure gets reported when collecting the results
+				return;
+			}
+		}
+		for (PartitionIterator partition : partitions) {
+			partition.offer(END);
+		}
+	}
+
+	private static BulkImportResult collect(List<? extends Future<BatchWriteResult>> partitionResults, Duration elapsed) {
+		List<BatchWriteResult> results = new ArrayList<>(partitionResults.size());
+		RuntimeException failure = null;
+		for (Future<BatchWriteResult> partitionResult : partitionResults) {
+			try {
+				results.add(partitionResult.get());
+			} catch (CancellationException e) {
+				// never started because of another partition's failure
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof CancellationException) {
+					// stopped because of another partition's failure
+					continue;
+				}
+				if (cause instanceof Error error) {
+					throw error;
+				}
+				if (failure == null) {
+					failure = (RuntimeException) cause;
+				} else {
+					failure.addSuppressed(cause);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new CancellationException("Interrupted while waiting for the import");
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+
+		long rows = 0;
+		int chunks = 0;
+		int retries = 0;
+		for (BatchWriteResult result : results) {
+			rows += result.rows();
+			chunks += result.chunks();
+			retries += result.retries();
+		}
+		return new BulkImportResult(rows, chunks, retries, elapsed, List.copyOf(results));
+	}
+
+	/**
+	 * Bounded hand-over of the rows of one partition from the dispatching thread to the partition's worker.
+	 */
+	private static final class PartitionIterator implements Iterator<Object> {
+
+		private final int index;
+		private final BlockingQueue<Object> rows;
+		private final Duration startTimeout;
+		private final CountDownLatch started = new CountDownLatch(1);
+		private volatile boolean aborted;
+		private Object next;
+
+		PartitionIterator(int index, int capacity, Duration startTimeout) {
+			this.index = index;
+			this.rows = new ArrayBlockingQueue<>(capacity);
+			this.startTimeout = startTimeout;
+		}
+
+		void start() {
+			started.countDown();
+		}
+
+		boolean offer(Object row) {
+			try {
+				while (!aborted) {
+					if (rows.offer(row, 50, TimeUnit.MILLISECONDS)) {
+						return true;
+					}
+					// a full queue is only drained once the worker of the partition runs
+					awaitStart();
+				}
+				return false;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new CancellationException("Interrupted while dispatching rows");
+			}
+		}
+
+		/**
+		 * Waits until the worker of this partition runs.
+		 *
+		 * @return {@literal true} if the worker runs, {@literal false} if the import got aborted before
+		 * @throws IllegalStateException if the worker does not start in time
+		 */
+		boolean awaitStart() {
+			long deadline = System.nanoTime() + startTimeout.toNanos();
+			try {
+				while (!started.await(50, TimeUnit.MILLISECONDS)) {
+					if (aborted) {
+						return false;
+					}
+					if (System.nanoTime() - deadline > 0) {
+						throw new IllegalStateException("Partition %d did not start within %s, the executor has to be able to run all partitions at once"
+								.formatted(index, startTimeout));
+					}
+				}
+				return true;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new CancellationException("Interrupted while waiting for the partitions to start");
+			}
+		}
+
+		void abort() {
+			aborted = true;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (next == null) {
+				if (aborted) {
+					throw new CancellationException("Import got aborted");
+				}
+				try {
+					next = rows.poll(50, TimeUnit.MILLISECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new CancellationException("Import got aborted");
+				}
+			}
+			return next != END;
+		}
+
+		@Override
+		public Object next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			Object row = next;
+			next = null;
+			return row;
+		}
+	}
+}
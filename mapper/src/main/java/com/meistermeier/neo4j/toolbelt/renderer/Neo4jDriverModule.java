@@ -21,11 +21,19 @@ import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import org.neo4j.driver.Value;
 import org.neo4j.driver.Values;
+import org.neo4j.driver.types.IsoDuration;
+import org.neo4j.driver.types.Point;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.Period;
+import java.time.ZonedDateTime;
+import java.util.List;
 
 /**
  * Adds some conversion for Jackson to the {@code ObjectMapper}
@@ -34,16 +42,31 @@ import java.time.LocalTime;
  */
 class Neo4jDriverModule extends SimpleModule {
 
+	/**
+	 * Types that get handed over to the driver as they are.
+	 * Primitive arrays skip the reflective bean walk, but the driver still creates one value object per element,
+	 * except for {@code byte[]} and {@code char[]} that become a single bytes and string value.
+	 */
+	static final List<Class<?>> DRIVER_TYPES = List.of(
+			String.class, Boolean.class, Character.class,
+			Long.class, Integer.class, Short.class, Byte.class, Double.class, Float.class,
+			LocalDate.class, LocalDateTime.class, LocalTime.class,
+			OffsetTime.class, OffsetDateTime.class, ZonedDateTime.class, Duration.class, Period.class,
+			byte[].class, char[].class, boolean[].class, short[].class, int[].class, long[].class, float[].class, double[].class
+	);
+
+	/**
+	 * Driver interfaces whose implementations get handed over to the driver as they are.
+	 */
+	static final List<Class<?>> DRIVER_INTERFACES = List.of(Point.class, IsoDuration.class);
+
 	Neo4jDriverModule() {
-		addSerializer(Integer.class, new Neo4jTypeSerializer<>());
-		addSerializer(Double.class, new Neo4jTypeSerializer<>());
-		addSerializer(Float.class, new Neo4jTypeSerializer<>());
-		addSerializer(Long.class, new Neo4jTypeSerializer<>());
-		addSerializer(Boolean.class, new Neo4jTypeSerializer<>());
-		addSerializer(String.class, new Neo4jTypeSerializer<>());
-		addSerializer(LocalDate.class, new Neo4jTypeSerializer<>());
-		addSerializer(LocalDateTime.class, new Neo4jTypeSerializer<>());
-		addSerializer(LocalTime.class, new Neo4jTypeSerializer<>());
+		DRIVER_TYPES.forEach(this::addDriverTypeSerializer);
+		DRIVER_INTERFACES.forEach(this::addDriverTypeSerializer);
+	}
+
+	private <T> void addDriverTypeSerializer(Class<T> type) {
+		addSerializer(type, new Neo4jTypeSerializer<>());
 	}
 
 	private static class Neo4jTypeSerializer<T> extends JsonSerializer<T> {
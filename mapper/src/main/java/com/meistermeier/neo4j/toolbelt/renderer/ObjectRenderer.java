@@ -0,0 +1,157 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.renderer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.Values;
+import org.neo4j.driver.types.IsoDuration;
+import org.neo4j.driver.types.Point;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Renders objects directly into driver values.
+ * Records and classes get rendered with their {@link RenderPlan}, which gets built once per class.
+ * Types that cannot be handled directly, e.g. types carrying Jackson annotations, get rendered with Jackson.
+ *
+ * @author Gerrit Meier
+ */
+final class ObjectRenderer {
+
+	private static final Set<Class<?>> DRIVER_TYPES = Set.copyOf(Neo4jDriverModule.DRIVER_TYPES);
+
+	private final ObjectMapper fallbackMapper;
+	private final ClassValue<RenderPlan> renderPlans = new ClassValue<>() {
+		@Override
+		protected RenderPlan computeValue(Class<?> type) {
+			long start = System.nanoTime();
+			RenderPlan renderPlan = RenderPlan.build(type, ObjectRenderer.this::render);
+			buildTimeNanos.add(System.nanoTime() - start);
+			plansBuilt.increment();
+			if (renderPlan == RenderPlan.JACKSON_FALLBACK) {
+				jacksonFallbackPlans.increment();
+			}
+			return renderPlan;
+		}
+	};
+
+	private final LongAdder plansBuilt = new LongAdder();
+	private final LongAdder jacksonFallbackPlans = new LongAdder();
+	private final LongAdder planLookups = new LongAdder();
+	private final LongAdder buildTimeNanos = new LongAdder();
+
+	ObjectRenderer(ObjectMapper fallbackMapper) {
+		this.fallbackMapper = fallbackMapper;
+	}
+
+	/**
+	 * Renders any supported object into a driver value.
+	 *
+	 * @param object Object to render.
+	 * @return driver value
+	 */
+	Value render(Object object) {
+		if (object == null) {
+			return Values.NULL;
+		}
+		if (object instanceof Value value) {
+			return value;
+		}
+		if (DRIVER_TYPES.contains(object.getClass()) || object instanceof Point || object instanceof IsoDuration) {
+			return Values.value(object);
+		}
+		if (object instanceof Enum<?> enumValue) {
+			return Values.value(enumValue.name());
+		}
+		if (object instanceof Map<?, ?> map) {
+			return renderMap(map);
+		}
+		if (object instanceof Iterable<?> iterable) {
+			return renderList(iterable);
+		}
+		if (object instanceof Object[] array) {
+			// the elements of an array might be null
+			return renderList(Arrays.asList(array));
+		}
+
+		planLookups.increment();
+		RenderPlan renderPlan = renderPlans.get(object.getClass());
+		if (renderPlan == RenderPlan.JACKSON_FALLBACK) {
+			return Values.value(fallbackMapper.convertValue(object, Object.class));
+		}
+		return Values.value(renderPlan.render(object));
+	}
+
+	/**
+	 * Renders all elements into a driver list value.
+	 *
+	 * @param iterable Elements to render.
+	 * @return driver list value
+	 */
+	Value renderList(Iterable<?> iterable) {
+		List<Value> values = new ArrayList<>();
+		for (Object element : iterable) {
+			values.add(render(element));
+		}
+		return Values.value(values.toArray(new Value[0]));
+	}
+
+	/**
+	 * Provides the plan for objects that get rendered property by property.
+	 *
+	 * @param object Object to get the plan for.
+	 * @return plan of the object's type or {@literal null}, if the object is a driver type, a container or gets rendered by Jackson
+	 */
+	RenderPlan entityPlan(Object object) {
+		if (object == null || object instanceof Value || DRIVER_TYPES.contains(object.getClass())
+				|| object instanceof Point || object instanceof IsoDuration || object instanceof Enum<?>
+				|| object instanceof Map<?, ?> || object instanceof Iterable<?> || object instanceof Object[]) {
+			return null;
+		}
+		RenderPlan renderPlan = renderPlans.get(object.getClass());
+		return renderPlan == RenderPlan.JACKSON_FALLBACK ? null : renderPlan;
+	}
+
+	/**
+	 * Provides the cached plan for the given type.
+	 *
+	 * @param type Type to get the plan for.
+	 * @return plan of the type, might be {@link RenderPlan#JACKSON_FALLBACK}
+	 */
+	RenderPlan renderPlan(Class<?> type) {
+		return renderPlans.get(type);
+	}
+
+	RenderPlanStatistics statistics() {
+		return new RenderPlanStatistics(plansBuilt.sum(), jacksonFallbackPlans.sum(), planLookups.sum(), Duration.ofNanos(buildTimeNanos.sum()));
+	}
+
+	private Value renderMap(Map<?, ?> map) {
+		Map<String, Object> values = new HashMap<>(map.size() * 4 / 3 + 1);
+		for (Map.Entry<?, ?> entry : map.entrySet()) {
+			values.put(String.valueOf(entry.getKey()), render(entry.getValue()));
+		}
+		return Values.value(values);
+	}
+}
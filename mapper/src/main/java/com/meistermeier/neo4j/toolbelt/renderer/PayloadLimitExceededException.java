@@ -0,0 +1,53 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.renderer;
+
+/**
+ * Gets thrown if rendered parameters exceed the limit set with {@link Renderer#withPayloadLimit(long)}.
+ * Nothing has been sent at this point.
+ *
+ * @author Gerrit Meier
+ */
+public class PayloadLimitExceededException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final long limit;
+	private final long estimatedSize;
+
+	PayloadLimitExceededException(long limit, long estimatedSize) {
+		super("Estimated payload size of at least %d bytes exceeds the limit of %d bytes".formatted(estimatedSize, limit));
+		this.limit = limit;
+		this.estimatedSize = estimatedSize;
+	}
+
+	/**
+	 * @return configured limit in bytes
+	 */
+	public long getLimit() {
+		return limit;
+	}
+
+	/**
+	 * Estimated size when the limit got exceeded.
+	 * For collections, rendering stops as soon as the limit is exceeded, so the full size might be larger.
+	 *
+	 * @return estimated size in bytes
+	 */
+	public long getEstimatedSize() {
+		return estimatedSize;
+	}
+}
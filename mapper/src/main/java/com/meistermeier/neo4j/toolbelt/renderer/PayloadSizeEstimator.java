@@ -0,0 +1,144 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.renderer;
+
+import org.neo4j.driver.Value;
+import org.neo4j.driver.types.TypeSystem;
+
+/**
+ * Estimates the number of bytes a value takes when it gets sent to the server.
+ * The estimate follows the PackStream encoding of the value without walking into the driver's serialization.
+ * Scalars, strings and containers are exact, temporal and spatial values are approximated with their maximum size.
+ * Can be used on its own, e.g. to size batches: {@code PayloadSizeEstimator.estimate(Renderer.INSTANCE.toParameters(row))}.
+ *
+ * @author Gerrit Meier
+ */
+public final class PayloadSizeEstimator {
+
+	private static final TypeSystem TYPE_SYSTEM = TypeSystem.getDefault();
+
+	private PayloadSizeEstimator() {
+	}
+
+	/**
+	 * Estimates the encoded size of the value.
+	 *
+	 * @param value value to estimate, {@literal null} counts as null value
+	 * @return estimated size in bytes
+	 */
+	public static long estimate(Value value) {
+		if (value == null || value.isNull()) {
+			return 1;
+		}
+		if (TYPE_SYSTEM.BOOLEAN().isTypeOf(value)) {
+			return 1;
+		}
+		if (TYPE_SYSTEM.INTEGER().isTypeOf(value)) {
+			return integerSize(value.asLong());
+		}
+		if (TYPE_SYSTEM.FLOAT().isTypeOf(value)) {
+			return 9;
+		}
+		if (TYPE_SYSTEM.STRING().isTypeOf(value)) {
+			return stringSize(value.asString());
+		}
+		if (TYPE_SYSTEM.BYTES().isTypeOf(value)) {
+			int length = value.asByteArray().length;
+			return (length < 0x100 ? 2 : length < 0x10000 ? 3 : 5) + length;
+		}
+		if (TYPE_SYSTEM.LIST().isTypeOf(value)) {
+			long size = headerSize(value.size());
+			for (Value element : value.values()) {
+				size += estimate(element);
+			}
+			return size;
+		}
+		if (TYPE_SYSTEM.MAP().isTypeOf(value)) {
+			long size = headerSize(value.size());
+			for (String key : value.keys()) {
+				size += stringSize(key) + estimate(value.get(key));
+			}
+			return size;
+		}
+		if (TYPE_SYSTEM.DATE().isTypeOf(value)) {
+			return 2 + integerSize(value.asLocalDate().toEpochDay());
+		}
+		if (TYPE_SYSTEM.LOCAL_TIME().isTypeOf(value)) {
+			return 2 + 9;
+		}
+		if (TYPE_SYSTEM.TIME().isTypeOf(value)) {
+			return 2 + 9 + 5;
+		}
+		if (TYPE_SYSTEM.LOCAL_DATE_TIME().isTypeOf(value)) {
+			return 2 + 9 + 5;
+		}
+		if (TYPE_SYSTEM.DATE_TIME().isTypeOf(value)) {
+			return 2 + 9 + 5 + 5;
+		}
+		if (TYPE_SYSTEM.DURATION().isTypeOf(value)) {
+			return 2 + 4 * 9;
+		}
+		if (TYPE_SYSTEM.POINT().isTypeOf(value)) {
+			return 2 + 5 + 3 * 9;
+		}
+		// nodes, relationships and paths are not meant to be sent as parameters
+		return 16;
+	}
+
+	private static long integerSize(long value) {
+		if (value >= -16 && value <= 127) {
+			return 1;
+		}
+		if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+			return 2;
+		}
+		if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+			return 3;
+		}
+		if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+			return 5;
+		}
+		return 9;
+	}
+
+	private static long stringSize(String value) {
+		long utf8Length = 0;
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c < 0x80) {
+				utf8Length += 1;
+			} else if (c < 0x800) {
+				utf8Length += 2;
+			} else if (Character.isSurrogate(c)) {
+				// a surrogate pair becomes four bytes in total
+				utf8Length += 2;
+			} else {
+				utf8Length += 3;
+			}
+		}
+		return headerSize(utf8Length) + utf8Length;
+	}
+
+	private static long headerSize(long length) {
+		if (length < 0x10) {
+			return 1;
+		}
+		if (length < 0x100) {
+			return 2;
+		}
+		return length < 0x10000 ? 3 : 5;
+	}
+}
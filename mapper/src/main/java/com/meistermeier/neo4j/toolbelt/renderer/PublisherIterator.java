@@ -0,0 +1,115 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.renderer;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Blocking iterator over the items of a {@link Flow.Publisher}.
+ * Requests items in batches of {@code prefetch}, so there are never more than {@code prefetch} items buffered.
+ *
+ * @author Gerrit Meier
+ */
+final class PublisherIterator implements Iterator<Object>, Flow.Subscriber<Object> {
+
+	private static final Object COMPLETE = new Object();
+
+	private final int prefetch;
+	private final int replenishThreshold;
+	private final BlockingQueue<Object> items = new LinkedBlockingQueue<>();
+	private volatile Flow.Subscription subscription;
+	private volatile boolean cancelled;
+	private int consumedSinceRequest;
+	private Object next;
+
+	PublisherIterator(int prefetch) {
+		this.prefetch = prefetch;
+		this.replenishThreshold = Math.max(1, prefetch / 2);
+	}
+
+	@Override
+	public void onSubscribe(Flow.Subscription subscription) {
+		if (this.subscription != null || cancelled) {
+			subscription.cancel();
+			return;
+		}
+		this.subscription = subscription;
+		subscription.request(prefetch);
+	}
+
+	@Override
+	public void onNext(Object item) {
+		items.add(item);
+	}
+
+	@Override
+	public void onError(Throwable throwable) {
+		items.add(new Failure(throwable));
+	}
+
+	@Override
+	public void onComplete() {
+		items.add(COMPLETE);
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (next == null) {
+			try {
+				next = items.take();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new CancellationException("Interrupted while waiting for the publisher");
+			}
+		}
+		if (next instanceof Failure failure) {
+			throw failure.throwable() instanceof RuntimeException runtimeException
+					? runtimeException
+					: new IllegalStateException("Publisher failed", failure.throwable());
+		}
+		return next != COMPLETE;
+	}
+
+	@Override
+	public Object next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		Object item = next;
+		next = null;
+		if (++consumedSinceRequest >= replenishThreshold) {
+			subscription.request(consumedSinceRequest);
+			consumedSinceRequest = 0;
+		}
+		return item;
+	}
+
+	void cancel() {
+		cancelled = true;
+		Flow.Subscription currentSubscription = subscription;
+		if (currentSubscription != null) {
+			currentSubscription.cancel();
+		}
+	}
+
+	private record Failure(Throwable throwable) {
+	}
+}
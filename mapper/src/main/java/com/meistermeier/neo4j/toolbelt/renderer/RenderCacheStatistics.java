@@ -0,0 +1,38 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.renderer;
+
+/**
+ * Snapshot of the render result cache of a {@link Renderer}, see {@link Renderer#withResultCache(int)}.
+ *
+ * @param hits    number of parameters that got served from the cache
+ * @param misses  number of parameters that had to be rendered
+ * @param size    number of cached parameters
+ * @param maxSize maximum number of cached parameters, {@literal 0} if the cache is disabled
+ * @author Gerrit Meier
+ */
+public record RenderCacheStatistics(long hits, long misses, int size, int maxSize) {
+
+	/**
+	 * Share of lookups that got served from the cache.
+	 *
+	 * @return hit ratio between 0 and 1
+	 */
+	public double hitRatio() {
+		long lookups = hits + misses;
+		return lookups == 0 ? 0 : (double) hits / lookups;
+	}
+}
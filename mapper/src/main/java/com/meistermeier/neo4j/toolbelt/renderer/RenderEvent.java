@@ -0,0 +1,73 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.renderer;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import org.neo4j.driver.Value;
+
+import java.util.Collection;
+
+/**
+ * Flight recorder event for rendering an object or collection with {@link Renderer#toParameters(Object, String)}.
+ * Only records renderings that took longer than 1 ms by default.
+ * The size gets only estimated for events that get committed.
+ *
+ * @author Gerrit Meier
+ */
+@Name("com.meistermeier.neo4j.toolbelt.ParameterRendering")
+@Label("Parameter Rendering")
+@Description("Rendering of an object or a collection of objects into parameters")
+@Category({"Neo4j Java Toolbelt", "Renderer"})
+@Threshold("1 ms")
+@StackTrace(false)
+final class RenderEvent extends Event {
+
+	@Label("Type")
+	@Description("Type of the rendered object or of the first element of a rendered collection")
+	Class<?> type;
+
+	@Label("Element Count")
+	int elementCount;
+
+	@Label("Estimated Size")
+	@DataAmount
+	long estimatedSize;
+
+	void commit(Object instance, Value parameters) {
+		if (shouldCommit()) {
+			if (instance instanceof Collection<?> collection) {
+				this.type = collection.isEmpty() ? null : classOf(collection.iterator().next());
+				this.elementCount = collection.size();
+			} else {
+				this.type = classOf(instance);
+				this.elementCount = 1;
+			}
+			this.estimatedSize = PayloadSizeEstimator.estimate(parameters);
+			commit();
+		}
+	}
+
+	private static Class<?> classOf(Object instance) {
+		return instance == null ? null : instance.getClass();
+	}
+}
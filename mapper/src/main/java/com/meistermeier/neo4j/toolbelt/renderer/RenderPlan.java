@@ -0,0 +1,376 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.renderer;
+
+import com.meistermeier.neo4j.toolbelt.internal.PropertyModel;
+import com.meistermeier.neo4j.toolbelt.internal.TypeModel;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.Values;
+import org.neo4j.driver.types.IsoDuration;
+import org.neo4j.driver.types.Point;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.Period;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Compiled rendering instructions for one class: the property names, their accessors and a value writer per property.
+ * Gets built once per class and follows the property naming rules of Jackson.
+ *
+ * @author Gerrit Meier
+ */
+final class RenderPlan {
+
+	/**
+	 * Marker for types that cannot be handled without Jackson.
+	 */
+	static final RenderPlan JACKSON_FALLBACK = new RenderPlan(new String[0], new Class<?>[0], new Type[0], new MethodHandle[0], new ValueWriter[0], new boolean[0]);
+
+	private static final Set<Class<?>> IMMUTABLE_DRIVER_TYPES = Neo4jDriverModule.DRIVER_TYPES.stream()
+			.filter(type -> !type.isArray())
+			.collect(Collectors.toUnmodifiableSet());
+
+	private static final Map<Class<?>, ValueWriter> DRIVER_TYPE_WRITERS = driverTypeWriters();
+
+	private final String[] propertyNames;
+	private final Class<?>[] propertyTypes;
+	private final Type[] propertyGenericTypes;
+	private final MethodHandle[] accessors;
+	private final ValueWriter[] writers;
+	private final boolean[] genericWriters;
+	private final SnapshotMode[] snapshotModes;
+
+	private RenderPlan(String[] propertyNames, Class<?>[] propertyTypes, Type[] propertyGenericTypes, MethodHandle[] accessors,
+					   ValueWriter[] writers, boolean[] genericWriters) {
+		this.propertyNames = propertyNames;
+		this.propertyTypes = propertyTypes;
+		this.propertyGenericTypes = propertyGenericTypes;
+		this.accessors = accessors;
+		this.writers = writers;
+		this.genericWriters = genericWriters;
+		this.snapshotModes = new SnapshotMode[propertyTypes.length];
+		for (int i = 0; i < propertyTypes.length; i++) {
+			this.snapshotModes[i] = SnapshotMode.of(propertyTypes[i]);
+		}
+	}
+
+	/**
+	 * Renders all properties of the given object.
+	 *
+	 * @param object Instance of the type this plan was built for.
+	 * @return map of property names to driver values
+	 */
+	Map<String, Object> render(Object object) {
+		Map<String, Object> values = new LinkedHashMap<>(propertyNames.length * 4 / 3 + 1);
+		for (int i = 0; i < propertyNames.length; i++) {
+			values.put(propertyNames[i], write(i, object));
+		}
+		return values;
+	}
+
+	/**
+	 * Renders all properties of the given object, properties that are not of a driver type get written with the given writer.
+	 *
+	 * @param object        Instance of the type this plan was built for.
+	 * @param genericWriter Writer for all properties that are not of a driver type.
+	 * @return map of property names to driver values
+	 */
+	Map<String, Object> render(Object object, ValueWriter genericWriter) {
+		Map<String, Object> values = new LinkedHashMap<>(propertyNames.length * 4 / 3 + 1);
+		for (int i = 0; i < propertyNames.length; i++) {
+			Object propertyValue = read(i, object);
+			ValueWriter writer = genericWriters[i] ? genericWriter : writers[i];
+			values.put(propertyNames[i], propertyValue == null ? Values.NULL : writer.write(propertyValue));
+		}
+		return values;
+	}
+
+	/**
+	 * Renders only the selected properties of the given object.
+	 *
+	 * @param object          Instance of the type this plan was built for.
+	 * @param propertyIndices Indices of the properties to render.
+	 * @return map of property names to driver values
+	 */
+	Map<String, Object> render(Object object, int[] propertyIndices) {
+		Map<String, Object> values = new LinkedHashMap<>(propertyIndices.length * 4 / 3 + 1);
+		for (int i : propertyIndices) {
+			values.put(propertyNames[i], write(i, object));
+		}
+		return values;
+	}
+
+	int propertyCount() {
+		return propertyNames.length;
+	}
+
+	String propertyName(int index) {
+		return propertyNames[index];
+	}
+
+	Type propertyGenericType(int index) {
+		return propertyGenericTypes[index];
+	}
+
+	/**
+	 * Checks if values of the given type can be stored as a property of a node or relationship.
+	 * Collections and arrays are storable if their elements are, the element type of a collection gets taken from its type argument.
+	 *
+	 * @param type Declared type of a property, including its type arguments.
+	 * @return true, if the type can be stored
+	 */
+	static boolean isStorable(Type type) {
+		if (type instanceof Class<?> clazz) {
+			if (Neo4jDriverModule.DRIVER_TYPES.contains(clazz)) {
+				// covers the primitive arrays
+				return true;
+			}
+			// the element type of a raw collection is unknown
+			return clazz.isArray() ? isStorableElement(clazz.getComponentType()) : isStorableElement(clazz);
+		}
+		if (type instanceof GenericArrayType arrayType) {
+			return isStorableElement(arrayType.getGenericComponentType());
+		}
+		if (type instanceof ParameterizedType parameterizedType && parameterizedType.getRawType() instanceof Class<?> rawType
+				&& Collection.class.isAssignableFrom(rawType)) {
+			Type[] typeArguments = parameterizedType.getActualTypeArguments();
+			return typeArguments.length == 1 && isStorableElement(typeArguments[0]);
+		}
+		return false;
+	}
+
+	private static boolean isStorableElement(Type type) {
+		if (type instanceof WildcardType wildcardType) {
+			type = wildcardType.getUpperBounds()[0];
+		}
+		if (!(type instanceof Class<?> clazz) || clazz.isArray()) {
+			return false;
+		}
+		Class<?> wrappedType = clazz.isPrimitive() ? MethodType.methodType(clazz).wrap().returnType() : clazz;
+		return Neo4jDriverModule.DRIVER_TYPES.contains(wrappedType)
+				|| clazz.isEnum()
+				|| Neo4jDriverModule.DRIVER_INTERFACES.stream().anyMatch(driverInterface -> driverInterface.isAssignableFrom(clazz));
+	}
+
+	/**
+	 * Captures the current property values of the given object in a compact form.
+	 * Immutable values are kept by reference and primitive arrays get copied.
+	 * All other values get rendered, but only the fingerprint of the rendered value is kept, not a deep copy.
+	 *
+	 * @param object Instance of the type this plan was built for.
+	 * @return one entry per property
+	 */
+	Object[] snapshot(Object object) {
+		Object[] snapshot = new Object[propertyNames.length];
+		for (int i = 0; i < propertyNames.length; i++) {
+			Object propertyValue = read(i, object);
+			snapshot[i] = switch (snapshotModes[i]) {
+				case REFERENCE -> propertyValue;
+				case ARRAY_COPY -> propertyValue == null ? null : copyOf(propertyValue);
+				case RENDERED -> ValueFingerprint.of(writeValue(i, propertyValue));
+			};
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Renders only the properties that differ from the snapshot, plus the always included ones.
+	 *
+	 * @param object           Instance of the type this plan was built for.
+	 * @param snapshot         Snapshot created by {@link #snapshot(Object)}.
+	 * @param alwaysIncluded   Names of properties to render in any case, e.g. the key properties.
+	 * @return map of changed property names to driver values
+	 */
+	Map<String, Object> renderChanged(Object object, Object[] snapshot, Collection<String> alwaysIncluded) {
+		Map<String, Object> values = new LinkedHashMap<>();
+		for (int i = 0; i < propertyNames.length; i++) {
+			Object propertyValue = read(i, object);
+			Value renderedValue = null;
+			boolean changed;
+			if (snapshotModes[i] == SnapshotMode.RENDERED) {
+				renderedValue = writeValue(i, propertyValue);
+				changed = ValueFingerprint.of(renderedValue) != (Long) snapshot[i];
+			} else {
+				changed = !Objects.deepEquals(propertyValue, snapshot[i]);
+			}
+			if (changed || alwaysIncluded.contains(propertyNames[i])) {
+				values.put(propertyNames[i], renderedValue != null ? renderedValue : writeValue(i, propertyValue));
+			}
+		}
+		return values;
+	}
+
+	private Value write(int index, Object object) {
+		return writeValue(index, read(index, object));
+	}
+
+	private Value writeValue(int index, Object propertyValue) {
+		return propertyValue == null ? Values.NULL : writers[index].write(propertyValue);
+	}
+
+	private static Object copyOf(Object array) {
+		int length = Array.getLength(array);
+		Object copy = Array.newInstance(array.getClass().getComponentType(), length);
+		System.arraycopy(array, 0, copy, 0, length);
+		return copy;
+	}
+
+	private Object read(int index, Object object) {
+		try {
+			return accessors[index].invokeExact(object);
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new IllegalStateException("Cannot read property %s of %s".formatted(propertyNames[index], object.getClass()), e);
+		}
+	}
+
+	/**
+	 * Builds the plan for the given type.
+	 *
+	 * @param type          Type to introspect.
+	 * @param genericWriter Writer for all properties that are not of a driver type.
+	 * @return new plan or {@link #JACKSON_FALLBACK}
+	 */
+	static RenderPlan build(Class<?> type, ValueWriter genericWriter) {
+		if (type.getName().startsWith("java.") || type.getName().startsWith("javax.") || type.isArray()) {
+			return JACKSON_FALLBACK;
+		}
+		TypeModel typeModel = TypeModel.of(type);
+		List<PropertyModel> properties = typeModel.properties();
+		if (typeModel.hasJacksonAnnotations() || properties.isEmpty()) {
+			// Jackson refuses to render empty beans, let it report this
+			return JACKSON_FALLBACK;
+		}
+
+		int size = properties.size();
+		String[] propertyNames = new String[size];
+		Class<?>[] propertyTypes = new Class<?>[size];
+		Type[] propertyGenericTypes = new Type[size];
+		MethodHandle[] accessors = new MethodHandle[size];
+		ValueWriter[] writers = new ValueWriter[size];
+		boolean[] genericWriters = new boolean[size];
+		for (int i = 0; i < size; i++) {
+			PropertyModel property = properties.get(i);
+			propertyNames[i] = property.name();
+			propertyTypes[i] = property.type();
+			propertyGenericTypes[i] = property.genericType();
+			accessors[i] = property.accessor();
+			if (accessors[i] == null) {
+				// e.g. types of modules that are not open to us, Jackson might still be able to render them
+				return JACKSON_FALLBACK;
+			}
+			writers[i] = writerFor(property.type(), genericWriter);
+			genericWriters[i] = writers[i] == genericWriter;
+		}
+		return new RenderPlan(propertyNames, propertyTypes, propertyGenericTypes, accessors, writers, genericWriters);
+	}
+
+	/**
+	 * Properties declared as one of the types registered in {@link Neo4jDriverModule} get written
+	 * without looking at the value's type again.
+	 */
+	private static ValueWriter writerFor(Class<?> declaredType, ValueWriter genericWriter) {
+		Class<?> type = declaredType.isPrimitive() ? MethodType.methodType(declaredType).wrap().returnType() : declaredType;
+		ValueWriter driverTypeWriter = DRIVER_TYPE_WRITERS.get(type);
+		if (driverTypeWriter != null) {
+			return driverTypeWriter;
+		}
+		if (Neo4jDriverModule.DRIVER_TYPES.contains(type)) {
+			return Values::value;
+		}
+		if (type.isEnum()) {
+			return value -> Values.value(((Enum<?>) value).name());
+		}
+		if (Point.class.isAssignableFrom(type)) {
+			return value -> Values.value((Point) value);
+		}
+		if (IsoDuration.class.isAssignableFrom(type)) {
+			return value -> Values.value((IsoDuration) value);
+		}
+		return genericWriter;
+	}
+
+	private static Map<Class<?>, ValueWriter> driverTypeWriters() {
+		Map<Class<?>, ValueWriter> writers = new HashMap<>();
+		writers.put(String.class, value -> Values.value((String) value));
+		writers.put(Long.class, value -> Values.value((long) value));
+		writers.put(Integer.class, value -> Values.value((int) value));
+		writers.put(Double.class, value -> Values.value((double) value));
+		writers.put(Float.class, value -> Values.value((float) value));
+		writers.put(Boolean.class, value -> Values.value((boolean) value));
+		writers.put(LocalDate.class, value -> Values.value((LocalDate) value));
+		writers.put(LocalDateTime.class, value -> Values.value((LocalDateTime) value));
+		writers.put(LocalTime.class, value -> Values.value((LocalTime) value));
+		writers.put(OffsetTime.class, value -> Values.value((OffsetTime) value));
+		writers.put(OffsetDateTime.class, value -> Values.value((OffsetDateTime) value));
+		writers.put(ZonedDateTime.class, value -> Values.value((ZonedDateTime) value));
+		writers.put(Duration.class, value -> Values.value((Duration) value));
+		writers.put(Period.class, value -> Values.value((Period) value));
+		writers.put(byte[].class, value -> Values.value((byte[]) value));
+		writers.put(char[].class, value -> Values.value((char[]) value));
+		writers.put(boolean[].class, value -> Values.value((boolean[]) value));
+		writers.put(short[].class, value -> Values.value((short[]) value));
+		writers.put(int[].class, value -> Values.value((int[]) value));
+		writers.put(long[].class, value -> Values.value((long[]) value));
+		writers.put(float[].class, value -> Values.value((float[]) value));
+		writers.put(double[].class, value -> Values.value((double[]) value));
+		return Map.copyOf(writers);
+	}
+
+	/**
+	 * Writes a non-null property value as driver value.
+	 */
+	@FunctionalInterface
+	interface ValueWriter {
+
+		Value write(Object value);
+	}
+
+	private enum SnapshotMode {
+		REFERENCE, ARRAY_COPY, RENDERED;
+
+		static SnapshotMode of(Class<?> type) {
+			if (type.isPrimitive() || type.isEnum() || IMMUTABLE_DRIVER_TYPES.contains(type)) {
+				return REFERENCE;
+			}
+			if (type.isArray() && type.getComponentType().isPrimitive()) {
+				return ARRAY_COPY;
+			}
+			return RENDERED;
+		}
+	}
+}
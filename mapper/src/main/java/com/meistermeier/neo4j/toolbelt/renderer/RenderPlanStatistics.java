@@ -0,0 +1,39 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.renderer;
+
+import java.time.Duration;
+
+/**
+ * Snapshot of the render plan cache of a {@link Renderer}.
+ *
+ * @param plansBuilt           number of classes that got introspected
+ * @param jacksonFallbackPlans number of classes, out of {@code plansBuilt}, that get rendered with Jackson
+ * @param planLookups          number of times a plan was requested to render an object
+ * @param buildTime            total time spent introspecting classes
+ * @author Gerrit Meier
+ */
+public record RenderPlanStatistics(long plansBuilt, long jacksonFallbackPlans, long planLookups, Duration buildTime) {
+
+	/**
+	 * Number of lookups that got served by an already built plan.
+	 *
+	 * @return cache hits
+	 */
+	public long cacheHits() {
+		return Math.max(0, planLookups - plansBuilt);
+	}
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.renderer;
+
+import org.neo4j.driver.Value;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of rendered parameters, evicting the least recently used entry.
+ * Records are cached by equality, all other objects by identity with weak references,
+ * so the cache does not keep them alive.
+ *
+ * @author Gerrit Meier
+ */
+final class RenderResultCache {
+
+	private final int maxSize;
+	private final Map<Object, Value> renderedValues;
+	private final ReferenceQueue<Object> collectedKeys = new ReferenceQueue<>();
+	private long hits;
+	private long misses;
+
+	RenderResultCache(int maxSize) {
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("Cache size must be positive");
+		}
+		this.maxSize = maxSize;
+		this.renderedValues = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Object, Value> eldest) {
+				return size() > RenderResultCache.this.maxSize;
+			}
+		};
+	}
+
+	Value get(Object instance, Function<Object, Value> renderer) {
+		Object key = instance instanceof Record ? instance : new WeakIdentityKey(instance, null);
+		synchronized (this) {
+			expungeCollectedKeys();
+			Value value = renderedValues.get(key);
+			if (value != null) {
+				hits++;
+				return value;
+			}
+			misses++;
+		}
+
+		// render outside the lock, concurrent misses for the same instance render the same value
+		Value value = renderer.apply(instance);
+		Object storedKey = instance instanceof Record ? instance : new WeakIdentityKey(instance, collectedKeys);
+		synchronized (this) {
+			renderedValues.put(storedKey, value);
+		}
+		return value;
+	}
+
+	synchronized RenderCacheStatistics statistics() {
+		expungeCollectedKeys();
+		return new RenderCacheStatistics(hits, misses, renderedValues.size(), maxSize);
+	}
+
+	private void expungeCollectedKeys() {
+		for (Object collectedKey = collectedKeys.poll(); collectedKey != null; collectedKey = collectedKeys.poll()) {
+			renderedValues.remove(collectedKey);
+		}
+	}
+
+	/**
+	 * Identity based key that does not prevent the instance from being garbage collected.
+	 */
+	private static final class WeakIdentityKey extends WeakReference<Object> {
+
+		private final int hashCode;
+
+		WeakIdentityKey(Object instance, ReferenceQueue<Object> queue) {
+			super(instance, queue);
+			this.hashCode = System.identityHashCode(instance);
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof WeakIdentityKey otherKey)) {
+				return false;
+			}
+			Object instance = get();
+			return instance != null && instance == otherKey.get();
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+	}
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.renderer;
+
+/**
+ * Compact state of an object's properties at the time it got rendered, created by {@link Renderer#snapshot(Object)}.
+ * Immutable property values are only referenced, primitive arrays are copied and nested objects and collections
+ * are kept as fingerprint of their rendered form.
+ *
+ * @author Gerrit Meier
+ */
+public final class RenderSnapshot {
+
+	private final Class<?> type;
+	private final Object[] propertyValues;
+
+	RenderSnapshot(Class<?> type, Object[] propertyValues) {
+		this.type = type;
+		this.propertyValues = propertyValues;
+	}
+
+	Class<?> type() {
+		return type;
+	}
+
+	Object[] propertyValues() {
+		return propertyValues;
+	}
+}
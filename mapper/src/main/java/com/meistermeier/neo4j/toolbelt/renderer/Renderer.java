@@ -16,12 +16,13 @@
 package com.meistermeier.neo4j.toolbelt.renderer;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.neo4j.driver.Driver;
 import org.neo4j.driver.Value;
 import org.neo4j.driver.Values;
+import org.neo4j.driver.types.TypeSystem;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -38,11 +39,55 @@ public class Renderer {
 	 */
 	public final static Renderer INSTANCE = new Renderer();
 
-	private final ObjectMapper mapper;
+	private static final String SHARED_INSTANCES_PARAMETER = "shared";
+
+	private static final long NO_PAYLOAD_LIMIT = Long.MAX_VALUE;
+
+	private final ObjectRenderer objectRenderer;
+	private final RenderResultCache resultCache;
+	private final long payloadLimit;
 
 	private Renderer() {
-		mapper = new ObjectMapper();
-		mapper.registerModule(new Neo4jDriverModule());
+		ObjectMapper fallbackMapper = new ObjectMapper();
+		fallbackMapper.registerModule(new Neo4jDriverModule());
+		this.objectRenderer = new ObjectRenderer(fallbackMapper);
+		this.resultCache = null;
+		this.payloadLimit = NO_PAYLOAD_LIMIT;
+	}
+
+	private Renderer(ObjectRenderer objectRenderer, RenderResultCache resultCache, long payloadLimit) {
+		this.objectRenderer = objectRenderer;
+		this.resultCache = resultCache;
+		this.payloadLimit = payloadLimit;
+	}
+
+	/**
+	 * Creates a new renderer that caches the rendered parameters of up to {@code maxSize} objects.
+	 * Records are cached by equality, all other objects by identity without keeping them alive.
+	 * Only meant for immutable parameter objects that get rendered over and over again, e.g. a tenant context.
+	 * Collections do not get cached.
+	 *
+	 * @param maxSize Maximum number of cached parameters, the least recently used ones get evicted.
+	 * @return new renderer with its own cache
+	 */
+	public Renderer withResultCache(int maxSize) {
+		return new Renderer(objectRenderer, new RenderResultCache(maxSize), payloadLimit);
+	}
+
+	/**
+	 * Creates a new renderer that fails with a {@link PayloadLimitExceededException}, if the estimated size
+	 * of rendered parameters exceeds the given limit, see {@link PayloadSizeEstimator}.
+	 * Collections stop getting rendered as soon as the limit is exceeded.
+	 * Use {@link #toParameterChunks(Collection, String)} to split a collection into parameters within the limit instead.
+	 *
+	 * @param maxBytes Maximum estimated size of rendered parameters in bytes.
+	 * @return new renderer with the given limit
+	 */
+	public Renderer withPayloadLimit(long maxBytes) {
+		if (maxBytes < 1) {
+			throw new IllegalArgumentException("Payload limit must be positive");
+		}
+		return new Renderer(objectRenderer, resultCache, maxBytes);
 	}
 
 	/**
@@ -67,12 +112,181 @@ public class Renderer {
 	 * @return map of parameters
 	 */
 	public <T> Value toParameters(T instance, String collectionName) {
+		RenderEvent event = new RenderEvent();
+		event.begin();
+		Value parameters = renderParameters(instance, collectionName);
+		event.commit(instance, parameters);
+		return parameters;
+	}
+
+	private Value renderParameters(Object instance, String collectionName) {
+
+		if (instance instanceof Collection<?> collection) {
+			if (payloadLimit == NO_PAYLOAD_LIMIT) {
+				return Values.value(Map.of(collectionName, objectRenderer.renderList(collection)));
+			}
+			List<Value> rows = new ArrayList<>(collection.size());
+			long estimatedSize = 0;
+			for (Object element : collection) {
+				Value row = objectRenderer.render(element);
+				estimatedSize += PayloadSizeEstimator.estimate(row);
+				checkPayloadLimit(estimatedSize);
+				rows.add(row);
+			}
+			return Values.value(Map.of(collectionName, Values.value(rows.toArray(new Value[0]))));
+		}
+
+		Value parameters = resultCache == null || instance == null
+				? objectRenderer.render(instance)
+				: resultCache.get(instance, objectRenderer::render);
+		if (!TypeSystem.getDefault().MAP().isTypeOf(parameters)) {
+			throw new IllegalArgumentException("Cannot render %s as map of parameters".formatted(instance.getClass()));
+		}
+		if (payloadLimit != NO_PAYLOAD_LIMIT) {
+			checkPayloadLimit(PayloadSizeEstimator.estimate(parameters));
+		}
+		return parameters;
+	}
+
+	/**
+	 * Renders the provided collection into one or more maps of parameters,
+	 * each one within the limit set with {@link #withPayloadLimit(long)}.
+	 * Without a limit, the whole collection gets rendered into a single map of parameters.
+	 *
+	 * @param instances      Instances to render.
+	 * @param collectionName Name of the rendered collection in every map of parameters.
+	 * @param <T>            Type of instances.
+	 * @return maps of parameters, each one containing the rendered collection of a chunk
+	 * @throws PayloadLimitExceededException if a single instance exceeds the limit on its own
+	 */
+	public <T> List<Value> toParameterChunks(Collection<T> instances, String collectionName) {
+		List<Value> chunks = new ArrayList<>();
+		List<Value> rows = new ArrayList<>();
+		long estimatedSize = 0;
+		for (T instance : instances) {
+			Value row = objectRenderer.render(instance);
+			long rowSize = PayloadSizeEstimator.estimate(row);
+			checkPayloadLimit(rowSize);
+			if (estimatedSize + rowSize > payloadLimit) {
+				chunks.add(Values.value(Map.of(collectionName, Values.value(rows.toArray(new Value[0])))));
+				rows.clear();
+				estimatedSize = 0;
+			}
+			rows.add(row);
+			estimatedSize += rowSize;
+		}
+		if (!rows.isEmpty() || chunks.isEmpty()) {
+			chunks.add(Values.value(Map.of(collectionName, Values.value(rows.toArray(new Value[0])))));
+		}
+		return chunks;
+	}
 
-		if (Collection.class.isAssignableFrom(instance.getClass())) {
-			return Values.value(Map.of(collectionName, mapper.convertValue(instance, List.class)));
+	private void checkPayloadLimit(long estimatedSize) {
+		if (estimatedSize > payloadLimit) {
+			throw new PayloadLimitExceededException(payloadLimit, estimatedSize);
 		}
+	}
 
-		Map<String, Value> sourceMap = new HashMap<>(Collections.unmodifiableMap(mapper.convertValue(instance, Map.class)));
-		return Values.value(sourceMap);
+	/**
+	 * Renders the provided collection into a map of parameters, rendering every nested object only once.
+	 * Nested objects get replaced by their index in the side table {@code shared},
+	 * e.g. {@code UNWIND $rows AS row WITH row, $shared[row.category] AS category}.
+	 * The same instance referenced from multiple rows ends up only once in this table.
+	 *
+	 * @param instances      Instances to render.
+	 * @param collectionName Name of the rendered collection, must not be {@code shared}.
+	 * @param <T>            Type of instances.
+	 * @return map of parameters with the rendered collection and the {@code shared} side table
+	 */
+	public <T> Value toParametersWithSharedInstances(Collection<T> instances, String collectionName) {
+		if (SHARED_INSTANCES_PARAMETER.equals(collectionName)) {
+			throw new IllegalArgumentException("The collection name %s is reserved for the shared instances".formatted(SHARED_INSTANCES_PARAMETER));
+		}
+		SharedInstancesRenderer sharedInstancesRenderer = new SharedInstancesRenderer(objectRenderer);
+		Value[] rows = new Value[instances.size()];
+		int i = 0;
+		for (T instance : instances) {
+			rows[i++] = sharedInstancesRenderer.renderRow(instance);
+		}
+		Value parameters = Values.value(Map.of(collectionName, Values.value(rows), SHARED_INSTANCES_PARAMETER, sharedInstancesRenderer.sharedInstances()));
+		if (payloadLimit != NO_PAYLOAD_LIMIT) {
+			checkPayloadLimit(PayloadSizeEstimator.estimate(parameters));
+		}
+		return parameters;
+	}
+
+	/**
+	 * Captures the current properties of the given object to render only the changed ones later on.
+	 *
+	 * @param instance Instance of a record or class.
+	 * @return snapshot of the instance's properties
+	 * @throws IllegalArgumentException if the properties of the instance's type cannot be derived
+	 */
+	public RenderSnapshot snapshot(Object instance) {
+		return new RenderSnapshot(instance.getClass(), renderPlanFor(instance.getClass()).snapshot(instance));
+	}
+
+	/**
+	 * Renders only the properties that changed since the snapshot was taken into a map of parameters.
+	 *
+	 * @param instance       Current state of the snapshot's object.
+	 * @param snapshot       Snapshot of a previous state.
+	 * @param alwaysIncluded Properties to render, even if they did not change, e.g. the ones to identify the node.
+	 * @return map of changed parameters
+	 * @throws IllegalArgumentException if the instance is not of the snapshot's type
+	 */
+	public Value toChangedParameters(Object instance, RenderSnapshot snapshot, String... alwaysIncluded) {
+		if (instance.getClass() != snapshot.type()) {
+			throw new IllegalArgumentException("Snapshot of %s cannot be compared to %s".formatted(snapshot.type(), instance.getClass()));
+		}
+		return Values.value(renderPlanFor(instance.getClass()).renderChanged(instance, snapshot.propertyValues(), List.of(alwaysIncluded)));
+	}
+
+	/**
+	 * Creates a writer that renders and writes rows in chunks with the given driver.
+	 *
+	 * @param driver Driver to open the sessions with.
+	 * @return new batch writer with default chunk limits
+	 */
+	public BatchWriter createBatchWriter(Driver driver) {
+		return new BatchWriter(driver, objectRenderer);
+	}
+
+	/**
+	 * Creates a batched {@code MERGE} statement for the given type.
+	 *
+	 * @param type Type of the rows to upsert.
+	 * @return statement with the label and key derived from the type
+	 * @throws IllegalArgumentException if the properties of the type cannot be derived
+	 */
+	public UpsertStatement createUpsertStatement(Class<?> type) {
+		return UpsertStatement.of(type, renderPlanFor(type));
+	}
+
+	private RenderPlan renderPlanFor(Class<?> type) {
+		RenderPlan renderPlan = objectRenderer.renderPlan(type);
+		if (renderPlan == RenderPlan.JACKSON_FALLBACK) {
+			throw new IllegalArgumentException("Cannot derive the properties of %s".formatted(type));
+		}
+		return renderPlan;
+	}
+
+	/**
+	 * Statistics about the render result cache of this renderer.
+	 *
+	 * @return current statistics, all zero if the cache is not enabled
+	 */
+	public RenderCacheStatistics getRenderCacheStatistics() {
+		return resultCache == null ? new RenderCacheStatistics(0, 0, 0, 0) : resultCache.statistics();
+	}
+
+	/**
+	 * Statistics about the render plans this renderer built and used.
+	 * A plan gets built once per rendered class, so the number of built plans should stay stable for repeated rendering.
+	 *
+	 * @return current statistics
+	 */
+	public RenderPlanStatistics getRenderPlanStatistics() {
+		return objectRenderer.statistics();
 	}
 }
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.renderer;
+
+import org.neo4j.driver.Value;
+import org.neo4j.driver.Values;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders nested objects only once per instance into a side table and references them by their index in this table.
+ * Every nested object ends up in the table, independent of the number of references,
+ * so the statement can resolve all of them the same way.
+ * Cyclic references get rendered as references as well.
+ * An instance is meant for a single render call.
+ *
+ * @author Gerrit Meier
+ */
+final class SharedInstancesRenderer {
+
+	private final ObjectRenderer objectRenderer;
+	private final Map<Object, Integer> indexes = new IdentityHashMap<>();
+	private final List<Value> sharedInstances = new ArrayList<>();
+
+	SharedInstancesRenderer(ObjectRenderer objectRenderer) {
+		this.objectRenderer = objectRenderer;
+	}
+
+	/**
+	 * Renders a top-level row, the row itself does not get added to the side table.
+	 *
+	 * @param row Row to render.
+	 * @return rendered row
+	 */
+	Value renderRow(Object row) {
+		RenderPlan renderPlan = objectRenderer.entityPlan(row);
+		return renderPlan == null ? render(row) : Values.value(renderPlan.render(row, this::render));
+	}
+
+	/**
+	 * @return all rendered nested objects, in order of their index
+	 */
+	Value sharedInstances() {
+		return Values.value(sharedInstances.toArray(new Value[0]));
+	}
+
+	private Value render(Object object) {
+		if (object instanceof Map<?, ?> map) {
+			Map<String, Object> values = new HashMap<>(map.size() * 4 / 3 + 1);
+			for (Map.Entry<?, ?> entry : map.entrySet()) {
+				values.put(String.valueOf(entry.getKey()), render(entry.getValue()));
+			}
+			return Values.value(values);
+		}
+		if (object instanceof Iterable<?> iterable) {
+			List<Value> values = new ArrayList<>();
+			for (Object element : iterable) {
+				values.add(render(element));
+			}
+			return Values.value(values.toArray(new Value[0]));
+		}
+		if (object instanceof Object[] array) {
+			// the elements of an array might be null
+			return render(Arrays.asList(array));
+		}
+
+		RenderPlan renderPlan = objectRenderer.entityPlan(object);
+		if (renderPlan == null) {
+			return objectRenderer.render(object);
+		}
+		Integer index = indexes.get(object);
+		if (index == null) {
+			// reserve the index first, references from within the object point to itself
+			index = sharedInstances.size();
+			indexes.put(object, index);
+			sharedInstances.add(Values.NULL);
+			sharedInstances.set(index, Values.value(renderPlan.render(object, this::render)));
+		}
+		return Values.value(index);
+	}
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.renderer;
+
+import com.meistermeier.neo4j.toolbelt.internal.MappingSupport;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.Values;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Batched {@code MERGE} statement derived from the properties of a record/class, the same ones the {@link Renderer} renders.
+ * <p>
+ * {@code Renderer.INSTANCE.createUpsertStatement(Person.class)} creates
+ * {@code UNWIND $rows AS row MERGE (n:Person {id: row.id}) SET n.name = row.name, n.born = row.born}.
+ * The label is the simple name of the class and the key is the property {@code id}, if there is one.
+ * Both can be changed via {@link #withLabel(String)} and {@link #withKeys(String...)}.
+ * Only properties that can be stored on a node get set, nested objects, maps and collections of them get skipped.
+ * <p>
+ * The statement text only depends on the type, so the server can reuse the plan of the statement.
+ * With an index on the key properties, the {@code MERGE} gets index-backed.
+ *
+ * @author Gerrit Meier
+ */
+public final class UpsertStatement {
+
+	private static final String DEFAULT_KEY = "id";
+
+	private final Class<?> type;
+	private final RenderPlan renderPlan;
+	private final String label;
+	private final List<String> keys;
+	private final String parameterName;
+	private final int[] renderedProperties;
+	private final String cypher;
+
+	private UpsertStatement(Class<?> type, RenderPlan renderPlan, String label, List<String> keys, String parameterName) {
+		this.type = type;
+		this.renderPlan = renderPlan;
+		this.label = label;
+		this.keys = keys;
+		this.parameterName = parameterName;
+
+		List<String> settableProperties = new ArrayList<>();
+		List<Integer> renderedPropertyIndices = new ArrayList<>();
+		for (int i = 0; i < renderPlan.propertyCount(); i++) {
+			String propertyName = renderPlan.propertyName(i);
+			if (keys.contains(propertyName)) {
+				renderedPropertyIndices.add(i);
+			} else if (RenderPlan.isStorable(renderPlan.propertyGenericType(i))) {
+				renderedPropertyIndices.add(i);
+				settableProperties.add(propertyName);
+			}
+		}
+		this.renderedProperties = renderedPropertyIndices.stream().mapToInt(Integer::intValue).toArray();
+		this.cypher = keys.isEmpty() ? null : cypher(label, keys, settableProperties, parameterName);
+	}
+
+	static UpsertStatement of(Class<?> type, RenderPlan renderPlan) {
+		List<String> keys = new ArrayList<>();
+		for (int i = 0; i < renderPlan.propertyCount(); i++) {
+			if (renderPlan.propertyName(i).equals(DEFAULT_KEY)) {
+				keys.add(DEFAULT_KEY);
+			}
+		}
+		return new UpsertStatement(type, renderPlan, type.getSimpleName(), List.copyOf(keys), "rows");
+	}
+
+	/**
+	 * Defines the label of the merged nodes (default: the simple name of the class).
+	 *
+	 * @param label label of the nodes
+	 * @return new statement with the given label
+	 */
+	public UpsertStatement withLabel(String label) {
+		return new UpsertStatement(type, renderPlan, label, keys, parameterName);
+	}
+
+	/**
+	 * Defines the properties that identify a node (default: {@code id}).
+	 *
+	 * @param keys names of the key properties
+	 * @return new statement with the given keys
+	 */
+	public UpsertStatement withKeys(String... keys) {
+		if (keys.length == 0) {
+			throw new IllegalArgumentException("At least one key property is needed");
+		}
+		for (String key : keys) {
+			if (!hasProperty(key)) {
+				throw new IllegalArgumentException("%s has no property %s".formatted(type, key));
+			}
+		}
+		return new UpsertStatement(type, renderPlan, label, List.of(keys), parameterName);
+	}
+
+	/**
+	 * Defines the name of the rows parameter (default: {@code rows}).
+	 *
+	 * @param parameterName name of the parameter
+	 * @return new statement with the given parameter name
+	 */
+	public UpsertStatement withParameterName(String parameterName) {
+		return new UpsertStatement(type, renderPlan, label, keys, parameterName);
+	}
+
+	/**
+	 * Provides the statement, e.g. {@code UNWIND $rows AS row MERGE (n:Person {id: row.id}) SET n.name = row.name}.
+	 *
+	 * @return cypher statement
+	 * @throws IllegalStateException if the type has no {@code id} property and no keys were defined
+	 */
+	public String getCypher() {
+		if (cypher == null) {
+			throw new IllegalStateException("%s has no property %s, define the key properties with withKeys(...)".formatted(type, DEFAULT_KEY));
+		}
+		return cypher;
+	}
+
+	/**
+	 * Name of the rows parameter, used in {@link #getCypher()}.
+	 *
+	 * @return parameter name
+	 */
+	public String getParameterName() {
+		return parameterName;
+	}
+
+	/**
+	 * Renders the rows into the parameters of the statement.
+	 * Only key and settable properties are part of the rows.
+	 *
+	 * @param rows instances of the type the statement was created for
+	 * @return parameters of the statement
+	 */
+	public Value toParameters(Iterable<?> rows) {
+		List<Value> renderedRows = new ArrayList<>();
+		for (Object row : rows) {
+			renderedRows.add(renderRow(row));
+		}
+		return Values.value(Map.of(parameterName, Values.value(renderedRows.toArray(new Value[0]))));
+	}
+
+	Value renderRow(Object row) {
+		if (!type.isInstance(row)) {
+			throw new IllegalArgumentException("Expected %s but got %s".formatted(type, row == null ? null : row.getClass()));
+		}
+		return Values.value(renderPlan.render(row, renderedProperties));
+	}
+
+	private boolean hasProperty(String propertyName) {
+		for (int i = 0; i < renderPlan.propertyCount(); i++) {
+			if (renderPlan.propertyName(i).equals(propertyName)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static String cypher(String label, List<String> keys, List<String> settableProperties, String parameterName) {
+		String keyMap = keys.stream()
+				.map(key -> MappingSupport.escape(key) + ": row." + MappingSupport.escape(key))
+				.collect(Collectors.joining(", ", "{", "}"));
+		StringBuilder cypher = new StringBuilder("UNWIND $").append(MappingSupport.escape(parameterName)).append(" AS row MERGE (n:")
+				.append(MappingSupport.escape(label)).append(" ").append(keyMap).append(")");
+		if (!settableProperties.isEmpty()) {
+			cypher.append(settableProperties.stream()
+					.map(property -> "n." + MappingSupport.escape(property) + " = row." + MappingSupport.escape(property))
+					.collect(Collectors.joining(", ", " SET ", "")));
+		}
+		return cypher.toString();
+	}
+
+	@Override
+	public String toString() {
+		return cypher == null ? "UpsertStatement for " + type + " without key properties" : cypher;
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.renderer;
+
+import org.neo4j.driver.Value;
+import org.neo4j.driver.types.TypeSystem;
+
+/**
+ * Condenses a driver value into a 64 bit hash, so a snapshot does not need to keep the rendered value around.
+ * Equal values have equal fingerprints, maps independent of their iteration order.
+ *
+ * @author Gerrit Meier
+ */
+final class ValueFingerprint {
+
+	private static final TypeSystem TYPE_SYSTEM = TypeSystem.getDefault();
+
+	private ValueFingerprint() {
+	}
+
+	static long of(Value value) {
+		if (value == null || value.isNull()) {
+			return mix(1, 0);
+		}
+		if (TYPE_SYSTEM.BOOLEAN().isTypeOf(value)) {
+			return mix(2, value.asBoolean() ? 1 : 0);
+		}
+		if (TYPE_SYSTEM.INTEGER().isTypeOf(value)) {
+			return mix(3, value.asLong());
+		}
+		if (TYPE_SYSTEM.FLOAT().isTypeOf(value)) {
+			return mix(4, Double.doubleToLongBits(value.asDouble()));
+		}
+		if (TYPE_SYSTEM.STRING().isTypeOf(value)) {
+			return mix(5, of(value.asString()));
+		}
+		if (TYPE_SYSTEM.BYTES().isTypeOf(value)) {
+			long hash = mix(6, 0);
+			for (byte b : value.asByteArray()) {
+				hash = mix(hash, b);
+			}
+			return hash;
+		}
+		if (TYPE_SYSTEM.LIST().isTypeOf(value)) {
+			long hash = mix(7, value.size());
+			for (Value element : value.values()) {
+				hash = mix(hash, of(element));
+			}
+			return hash;
+		}
+		if (TYPE_SYSTEM.MAP().isTypeOf(value)) {
+			// summing up the entries keeps the result independent of the iteration order
+			long entries = 0;
+			for (String key : value.keys()) {
+				entries += mix(of(key), of(value.get(key)));
+			}
+			return mix(mix(8, value.size()), entries);
+		}
+		// temporal and spatial values render all of their fields into their string form
+		return mix(mix(9, of(value.type().name())), of(value.toString()));
+	}
+
+	private static long of(String value) {
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < value.length(); i++) {
+			hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+		}
+		return hash;
+	}
+
+	private static long mix(long hash, long value) {
+		long z = hash * 0x9e3779b97f4a7c15L + value;
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+}
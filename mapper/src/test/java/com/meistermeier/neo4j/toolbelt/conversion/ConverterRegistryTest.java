@@ -0,0 +1,240 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.conversion;
+
+import org.junit.jupiter.api.Test;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.Values;
+import org.neo4j.driver.exceptions.value.Uncoercible;
+import org.neo4j.driver.internal.InternalRecord;
+import org.neo4j.driver.types.MapAccessor;
+import org.neo4j.driver.types.Type;
+import org.neo4j.driver.types.TypeSystem;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * @author Gerrit Meier
+ */
+public class ConverterRegistryTest {
+
+	@Test
+	void addingCustomConvertersKeepsPreviousOnes() {
+		ConverterRegistry registry = new ConverterRegistry()
+				.addCustomConverter(new FixedStringConverter("first", TypeSystem.getDefault().STRING()))
+				.addCustomConverter(new FixedStringConverter("second", TypeSystem.getDefault().INTEGER()));
+
+		assertThat(registry.convert(Values.value("a"), String.class, null)).isEqualTo("first");
+		assertThat(registry.convert(Values.value(1), String.class, null)).isEqualTo("second");
+	}
+
+	@Test
+	void higherPriorityWins() {
+		ConverterRegistry registry = ConverterRegistry.builder()
+				.addCustomConverter(new FixedStringConverter("low", TypeSystem.getDefault().STRING()), 1)
+				.addCustomConverter(new FixedStringConverter("high", TypeSystem.getDefault().STRING()), 10)
+				.build();
+
+		assertThat(registry.convert(Values.value("a"), String.class, null)).isEqualTo("high");
+	}
+
+	@Test
+	void samePriorityKeepsInsertionOrder() {
+		ConverterRegistry registry = ConverterRegistry.builder()
+				.addCustomConverter(new FixedStringConverter("first", TypeSystem.getDefault().STRING()))
+				.addCustomConverter(new FixedStringConverter("second", TypeSystem.getDefault().STRING()))
+				.build();
+
+		assertThat(registry.convert(Values.value("a"), String.class, null)).isEqualTo("first");
+	}
+
+	@Test
+	void cachesConverterSelectionIfEnabled() {
+		FixedStringConverter converter = new FixedStringConverter("converted", TypeSystem.getDefault().STRING());
+		ConverterRegistry registry = ConverterRegistry.builder().addCustomConverter(converter).withSelectionCache().build();
+
+		for (int i = 0; i < 10; i++) {
+			assertThat(registry.convert(Values.value("a" + i), String.class, null)).isEqualTo("converted");
+		}
+		assertThat(converter.canConvertCalls.get()).isEqualTo(1);
+	}
+
+	@Test
+	void doesNotCacheSelectionOfCustomConvertersByDefault() {
+		FixedStringConverter converter = new FixedStringConverter("converted", TypeSystem.getDefault().STRING());
+		ConverterRegistry registry = ConverterRegistry.builder().addCustomConverter(converter).build();
+
+		for (int i = 0; i < 10; i++) {
+			registry.convert(Values.value("a" + i), String.class, null);
+		}
+		assertThat(converter.canConvertCalls.get()).isEqualTo(10);
+	}
+
+	@Test
+	void failsForUnsupportedTarget() {
+		ConverterRegistry registry = new ConverterRegistry();
+
+		assertThatExceptionOfType(ConversionException.class)
+				.isThrownBy(() -> registry.convert(Values.value("a"), StringBuilder.class, null));
+		assertThatExceptionOfType(ConversionException.class)
+				.isThrownBy(() -> registry.convert(Values.value("b"), StringBuilder.class, null));
+	}
+
+	@Test
+	void convertsToPrimitiveTargets() {
+		ConverterRegistry registry = new ConverterRegistry();
+
+		assertThat((Object) registry.convert(Values.value(true), boolean.class, null)).isEqualTo(true);
+		assertThat((Object) registry.convert(Values.value(1L), long.class, null)).isEqualTo(1L);
+		assertThat((Object) registry.convert(Values.value(1.5d), double.class, null)).isEqualTo(1.5d);
+	}
+
+	@Test
+	void convertsColumnsOfMixedTypes() {
+		ConverterRegistry registry = new ConverterRegistry();
+		List<Value> values = List.of(Values.value(1L), Values.value(2L), Values.NULL, Values.value(3L));
+
+		Object[] converted = new Object[values.size()];
+		registry.convertAll(values, Long.class, null, converted);
+
+		assertThat(converted).containsExactly(1L, 2L, null, 3L);
+	}
+
+	@Test
+	void handsOverWholeColumnToBulkConverter() {
+		BulkUpperCaseConverter converter = new BulkUpperCaseConverter();
+		ConverterRegistry registry = ConverterRegistry.builder().addCustomConverter(converter).withSelectionCache().build();
+		List<Value> values = List.of(Values.value("a"), Values.value("b"), Values.value("c"));
+
+		Object[] converted = new Object[values.size()];
+		registry.convertAll(values, String.class, null, converted);
+
+		assertThat(converted).containsExactly("A", "B", "C");
+		assertThat(converter.bulkCalls.get()).isEqualTo(1);
+	}
+
+	@Test
+	void usesBulkConverterForListElements() {
+		BulkUpperCaseConverter converter = new BulkUpperCaseConverter();
+		ConverterRegistry registry = ConverterRegistry.builder().addCustomConverter(converter).withSelectionCache().build();
+
+		List<Object> converted = registry.convert(Values.value("a", "b"), List.class, String.class);
+
+		assertThat(converted).containsExactly("A", "B");
+		assertThat(converter.bulkCalls.get()).isEqualTo(1);
+	}
+
+	@Test
+	void failsWithOriginalExceptionOfFirstFailedField() {
+		ConverterRegistry registry = new ConverterRegistry();
+		var record = new InternalRecord(List.of("name", "number"), new Value[] {Values.value("a"), Values.value("x")});
+
+		assertThatExceptionOfType(Uncoercible.class)
+				.isThrownBy(() -> registry.convert(record, FieldTarget.class, null));
+	}
+
+	@Test
+	void reportsFailedFieldsWithTolerantConversion() {
+		ConverterRegistry registry = ConverterRegistry.builder().withTolerantConversion().build();
+		var record = new InternalRecord(List.of("name", "number"), new Value[] {Values.value(Map.of("first", "a")), Values.value("x")});
+
+		assertThatExceptionOfType(ConversionException.class)
+				.isThrownBy(() -> registry.convert(record, FieldTarget.class, null))
+				.satisfies(e -> assertThat(e.getFieldFailures())
+						.extracting(ConversionException.FieldFailure::field)
+						.containsExactly("name", "number"))
+				.withMessageContaining("failed fields: name");
+	}
+
+	@Test
+	void reportsFailedRowsOfBatchWithTolerantConversion() {
+		ConverterRegistry registry = ConverterRegistry.builder().withTolerantConversion().withSelectionCache().build();
+		List<Value> values = List.of(Values.value(1), Values.value("x"), Values.value(3), Values.value("y"));
+
+		Object[] converted = new Object[values.size()];
+		assertThatExceptionOfType(ConversionException.class)
+				.isThrownBy(() -> registry.convertAll(values, Integer.class, null, converted))
+				.satisfies(e -> assertThat(e.getRowFailures())
+						.extracting(ConversionException.RowFailure::row)
+						.containsExactly(1, 3));
+		assertThat(converted).containsExactly(1, null, 3, null);
+	}
+
+	@Test
+	void tolerantConversionSkipsStackTrace() {
+		ConverterRegistry registry = ConverterRegistry.builder().withTolerantConversion().build();
+
+		assertThatExceptionOfType(ConversionException.class)
+				.isThrownBy(() -> registry.convert(Values.value("a"), StringBuilder.class, null))
+				.satisfies(e -> assertThat(e.getStackTrace()).isEmpty())
+				.satisfies(e -> assertThat(e.getSourceType()).isEqualTo("STRING"))
+				.withMessage("Cannot convert \"a\" to class java.lang.StringBuilder");
+	}
+
+	public record FieldTarget(String name, Integer number) {
+	}
+
+	private static class BulkUpperCaseConverter implements ValueConverter {
+
+		private final AtomicInteger bulkCalls = new AtomicInteger();
+
+		@Override
+		public boolean canConvert(Value value, TypeMetaData<?> typeMetaData) {
+			return TypeSystem.getDefault().STRING().isTypeOf(value) && typeMetaData.type().equals(String.class);
+		}
+
+		@Override
+		public Object convert(Value value, TypeMetaData<?> typeMetaData) {
+			return value.asString().toUpperCase();
+		}
+
+		@Override
+		public void convertAll(List<? extends MapAccessor> values, TypeMetaData<?> typeMetaData, Object[] out) {
+			bulkCalls.incrementAndGet();
+			for (int i = 0; i < values.size(); i++) {
+				out[i] = ((Value) values.get(i)).asString().toUpperCase();
+			}
+		}
+	}
+
+	private static class FixedStringConverter implements ValueConverter {
+
+		private final String result;
+		private final Type sourceType;
+		private final AtomicInteger canConvertCalls = new AtomicInteger();
+
+		FixedStringConverter(String result, Type sourceType) {
+			this.result = result;
+			this.sourceType = sourceType;
+		}
+
+		@Override
+		public boolean canConvert(Value value, TypeMetaData<?> typeMetaData) {
+			canConvertCalls.incrementAndGet();
+			return sourceType.isTypeOf(value) && typeMetaData.type().equals(String.class);
+		}
+
+		@Override
+		public Object convert(Value value, TypeMetaData<?> typeMetaData) {
+			return result;
+		}
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.conversion;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.meistermeier.neo4j.toolbelt.mapper.Mapper;
+import org.junit.jupiter.api.Test;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.Values;
+import org.neo4j.driver.internal.InternalNode;
+import org.neo4j.driver.internal.InternalRecord;
+import org.neo4j.driver.internal.value.NodeValue;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Gerrit Meier
+ */
+class JacksonEntityConverterTest {
+
+	private final Mapper mapper = Mapper.INSTANCE.withCustomConverter(new JacksonEntityConverter());
+
+	@Test
+	void useJsonCreatorAndAliases() {
+		Value node = new NodeValue(new InternalNode(1L, List.of("Person"), Map.of(
+				"full_name", Values.value("Gerrit"), "born", Values.value(LocalDate.of(1983, 1, 1)), "unknown", Values.value(1))));
+		Value friends = Values.value(List.of(Map.of("name", "Michael")));
+		Record record = new InternalRecord(List.of("n", "friends"), new Value[] {node, friends});
+
+		Person person = mapper.createMapperFor(Person.class).apply(record);
+
+		assertThat(person.name()).isEqualTo("Gerrit");
+		assertThat(person.born()).isEqualTo(LocalDate.of(1983, 1, 1));
+		assertThat(person.friends()).extracting(Friend::name).containsExactly("Michael");
+	}
+
+	@Test
+	void readScalarsAndBinaryValues() {
+		Record record = new InternalRecord(List.of("id", "score", "active", "data", "tags"), new Value[] {
+				Values.value(42L), Values.value(1.5d), Values.value(true), Values.value(new byte[] {1, 2}), Values.value(List.of("a", "b"))
+		});
+
+		Scalars scalars = mapper.createMapperFor(Scalars.class).apply(record);
+
+		assertThat(scalars.id()).isEqualTo(42);
+		assertThat(scalars.score()).isEqualTo(1.5d);
+		assertThat(scalars.active()).isTrue();
+		assertThat(scalars.data()).containsExactly(1, 2);
+		assertThat(scalars.tags()).containsExactly("a", "b");
+	}
+
+	@Test
+	void mapCollections() {
+		Record record = new InternalRecord(List.of("people"), new Value[] {
+				Values.value(List.of(Map.of("name", "a"), Map.of("name", "b")))
+		});
+
+		assertThat(mapper.createCollectionMapperFor(Friend.class).apply(record)).extracting(Friend::name).containsExactly("a", "b");
+	}
+
+	@Test
+	void onlyHandleAnnotatedTypesByDefault() {
+		JacksonEntityConverter converter = new JacksonEntityConverter();
+		Value value = Values.value(Map.of("name", "a"));
+
+		assertThat(converter.canConvert(value, TypeMetaData.from(Plain.class, null))).isFalse();
+		assertThat(converter.withTypes(Plain.class).canConvert(value, TypeMetaData.from(Plain.class, null))).isTrue();
+		assertThat(converter.canConvert(value, TypeMetaData.from(Friend.class, null))).isTrue();
+	}
+
+	record Person(String name, LocalDate born, List<Friend> friends) {
+
+		@JsonCreator
+		Person(@JsonProperty("full_name") String name, @JsonProperty("born") LocalDate born, @JsonProperty("friends") List<Friend> friends, @JsonProperty("ignored") String ignored) {
+			this(name, born, friends);
+		}
+	}
+
+	record Friend(@JsonAlias("firstName") String name) {
+	}
+
+	record Scalars(@JsonProperty("id") int id, double score, boolean active, byte[] data, List<String> tags) {
+	}
+
+	record Plain(String name) {
+	}
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.conversion;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.meistermeier.neo4j.toolbelt.mapper.Mapper;
+import org.junit.jupiter.api.Test;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.Values;
+import org.neo4j.driver.internal.InternalRecord;
+import org.neo4j.driver.types.MapAccessor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Gerrit Meier
+ */
+class MappingEngineTest {
+
+	private static final Record PERSON_RECORD = new InternalRecord(List.of("name", "yearBorn", "pets"), new Value[] {
+			Values.value("Gerrit"), Values.value(1983), Values.value(List.of(Map.of("name", "Luna")))
+	});
+
+	@Test
+	void methodHandlesMapLikeReflection() {
+		Mapper mapper = Mapper.INSTANCE.withMappingEngineSelector(MappingEngineSelector.always(MappingEngine.methodHandles()));
+
+		Person person = mapper.createMapperFor(Person.class).apply(PERSON_RECORD);
+		List<Person> people = mapper.createBatchMapperFor(Person.class).apply(List.of(PERSON_RECORD, PERSON_RECORD));
+
+		assertThat(person).isEqualTo(Mapper.INSTANCE.createMapperFor(Person.class).apply(PERSON_RECORD));
+		assertThat(people).containsExactly(person, person);
+	}
+
+	@Test
+	void selectEngineByTypeShape() {
+		Mapper mapper = Mapper.INSTANCE.withMappingEngineSelector(MappingEngineSelector.byTypeShape(new ObjectMapper()));
+		Record record = new InternalRecord(List.of("full_name"), new Value[] {Values.value("Gerrit")});
+
+		assertThat(mapper.createMapperFor(AnnotatedPerson.class).apply(record).name()).isEqualTo("Gerrit");
+		assertThat(mapper.createMapperFor(Person.class).apply(PERSON_RECORD).pets()).extracting(Pet::name).containsExactly("Luna");
+	}
+
+	@Test
+	void overrideEngineForSingleType() {
+		MappingEngine fixedPets = new MappingEngine() {
+			@Override
+			public <T> T createInstance(Class<T> type, MapAccessor head, Map<String, MapAccessor> tail, ConverterRegistry converterRegistry) {
+				return type.cast(new Pet("fixed"));
+			}
+		};
+		Mapper mapper = Mapper.INSTANCE.withMappingEngineSelector(MappingEngineSelector.always(MappingEngine.reflective()).withEngine(Pet.class, fixedPets));
+
+		Function<Record, Person> personMapper = mapper.createMapperFor(Person.class);
+
+		assertThat(personMapper.apply(PERSON_RECORD)).isEqualTo(new Person("Gerrit", 1983, List.of(new Pet("fixed"))));
+	}
+
+	record Person(String name, int yearBorn, List<Pet> pets) {
+	}
+
+	record Pet(String name) {
+	}
+
+	record AnnotatedPerson(@JsonProperty("full_name") String name) {
+	}
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Gerrit Meier
+ */
+class TypeModelTest {
+
+	@Test
+	void typeModelsAreCached() {
+		assertThat(TypeModel.of(Person.class)).isSameAs(TypeModel.of(Person.class));
+		assertThat(TypeModel.of(Person.class).properties()).isSameAs(TypeModel.of(Person.class).properties());
+	}
+
+	@Test
+	void recordPropertiesMatchConstructorParameters() {
+		TypeModel typeModel = TypeModel.of(Person.class);
+
+		assertThat(typeModel.properties()).extracting(PropertyModel::name).containsExactly("name", "friends", "tags", "attributes");
+		assertThat(typeModel.mostParametersConstructor().parameterNames()).containsExactly("name", "friends", "tags", "attributes");
+	}
+
+	@Test
+	void parameterElementTypes() {
+		List<ParameterModel> parameters = TypeModel.of(Person.class).mostParametersConstructor().parameters();
+
+		assertThat(parameters).extracting(ParameterModel::elementType)
+				.containsExactly(String.class, Person.class, String.class, Map.class);
+	}
+
+	@Test
+	void beanPropertiesFollowJacksonNaming() {
+		assertThat(TypeModel.of(Bean.class).properties()).extracting(PropertyModel::name)
+				.containsExactlyInAnyOrder("url", "active", "visible", "count");
+	}
+
+	@Test
+	void accessorsReadProperties() throws Throwable {
+		PropertyModel name = TypeModel.of(Person.class).properties().get(0);
+
+		assertThat((Object) name.accessor().invokeExact((Object) new Person("Gerrit", List.of(), Set.of(), Map.of()))).isEqualTo("Gerrit");
+	}
+
+	@Test
+	void getterPropertyNames() throws NoSuchMethodException {
+		assertThat(TypeModel.getterPropertyName(Bean.class.getMethod("getURL"))).isEqualTo("url");
+		assertThat(TypeModel.getterPropertyName(Bean.class.getMethod("isActive"))).isEqualTo("active");
+		assertThat(TypeModel.getterPropertyName(Bean.class.getMethod("isWrapped"))).isNull();
+		assertThat(TypeModel.getterPropertyName(Bean.class.getMethod("toString"))).isNull();
+	}
+
+	record Person(String name, List<Person> friends, Set<String> tags, Map<String, Object> attributes) {
+	}
+
+	public static class Bean {
+
+		public int count;
+
+		public String getURL() {
+			return "http://localhost";
+		}
+
+		public boolean isActive() {
+			return true;
+		}
+
+		public boolean isVisible() {
+			return false;
+		}
+
+		public Boolean isWrapped() {
+			return true;
+		}
+	}
+}
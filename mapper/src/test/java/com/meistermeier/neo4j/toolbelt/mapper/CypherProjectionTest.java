@@ -0,0 +1,102 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.mapper;
+
+import org.junit.jupiter.api.Test;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.Values;
+import org.neo4j.driver.internal.InternalRecord;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Gerrit Meier
+ */
+class CypherProjectionTest {
+
+	@Test
+	void projectsSimpleProperties() {
+		assertThat(CypherProjection.of(Pet.class).toMapProjection("p"))
+				.isEqualTo("p{.name, .born}");
+	}
+
+	@Test
+	void projectsRelatedNodes() {
+		assertThat(CypherProjection.of(Person.class).toMapProjection("n"))
+				.isEqualTo("n{.name, .yearBorn, friends: [(n)--(friends:Friend) | friends{.name, pets: [(friends)--(pets:Pet) | pets{.name, .born}]}], .tags, .attributes}");
+	}
+
+	@Test
+	void projectsSingleRelatedNode() {
+		assertThat(CypherProjection.of(Pet.Owned.class).toMapProjection("o"))
+				.isEqualTo("o{.since, pet: head([(o)--(pet:Pet) | pet{.name, .born}])}");
+	}
+
+	@Test
+	void usesDefinedRelationshipPatterns() {
+		assertThat(CypherProjection.of(Person.class)
+				.withRelationship("friends", "-[:KNOWS]->")
+				.withRelationship("friends.pets", "-[:OWNS]->")
+				.toMapProjection("n"))
+				.isEqualTo("n{.name, .yearBorn, friends: [(n)-[:KNOWS]->(friends:Friend) | friends{.name, pets: [(friends)-[:OWNS]->(pets:Pet) | pets{.name, .born}]}], .tags, .attributes}");
+	}
+
+	@Test
+	void stopsAtCyclicDefinitions() {
+		assertThat(CypherProjection.of(TreeNode.class).toMapProjection("n"))
+				.isEqualTo("n{.name, children: [(n)--(children:TreeNode) | children{.name}]}");
+	}
+
+	@Test
+	void avoidsVariableClashes() {
+		assertThat(CypherProjection.of(Person.Friend.class).toMapProjection("pets"))
+				.isEqualTo("pets{.name, pets: [(pets)--(pets1:Pet) | pets1{.name, .born}]}");
+	}
+
+	@Test
+	void createsReturnItems() {
+		assertThat(CypherProjection.of(Person.class).toReturnItems("n"))
+				.isEqualTo("n.name AS name, n.yearBorn AS yearBorn, [(n)--(friends:Friend) | friends{.name, pets: [(friends)--(pets:Pet) | pets{.name, .born}]}] AS friends, n.tags AS tags, n.attributes AS attributes");
+	}
+
+	@Test
+	void projectedResultCanBeMapped() {
+		Value friends = Values.value(List.of(Map.of("name", "Friend", "pets", List.of(Map.of("name", "Pet", "born", LocalDate.of(2020, 1, 1))))));
+		Record record = new InternalRecord(List.of("name", "yearBorn", "friends"), new Value[] {Values.value("Person"), Values.value(1983), friends});
+
+		Person person = Mapper.INSTANCE.createMapperFor(Person.class).apply(record);
+
+		assertThat(person.friends()).containsExactly(new Person.Friend("Friend", List.of(new Pet("Pet", LocalDate.of(2020, 1, 1)))));
+	}
+
+	public record Person(String name, Integer yearBorn, List<Friend> friends, List<String> tags, Map<String, Object> attributes) {
+		public record Friend(String name, List<Pet> pets) {
+		}
+	}
+
+	public record Pet(String name, LocalDate born) {
+		public record Owned(LocalDate since, Pet pet) {
+		}
+	}
+
+	public record TreeNode(String name, List<TreeNode> children) {
+	}
+}
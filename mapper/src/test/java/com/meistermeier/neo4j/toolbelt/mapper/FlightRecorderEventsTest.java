@@ -0,0 +1,157 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.mapper;
+
+import com.meistermeier.neo4j.toolbelt.conversion.ConverterRegistry;
+import com.meistermeier.neo4j.toolbelt.renderer.Renderer;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.Values;
+import org.neo4j.driver.internal.InternalRecord;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class FlightRecorderEventsTest {
+
+	private static final String MAPPING = "com.meistermeier.neo4j.toolbelt.Mapping";
+	private static final String CONSTRUCTOR_SELECTION = "com.meistermeier.neo4j.toolbelt.ConstructorSelection";
+	private static final String CONVERTER_CACHE_MISS = "com.meistermeier.neo4j.toolbelt.ConverterCacheMiss";
+	private static final String PARAMETER_RENDERING = "com.meistermeier.neo4j.toolbelt.ParameterRendering";
+
+	private final Record record = new InternalRecord(List.of("name", "yearBorn"), new Value[]{Values.value("Gerrit"), Values.value(1983)});
+
+	@Test
+	void recordsMappingEvents() throws IOException {
+		Mapper mapper = Mapper.INSTANCE.withConverterRegistry(new ConverterRegistry());
+
+		List<RecordedEvent> events = record(() -> {
+			mapper.createMapperFor(Person.class).apply(record);
+			mapper.createBatchMapperFor(Person.class).apply(List.of(record, record));
+		}, MAPPING, CONVERTER_CACHE_MISS);
+
+		List<RecordedEvent> mappings = eventsOf(events, MAPPING);
+		assertThat(mappings).extracting(event -> event.getString("mapping"), event -> event.getInt("recordCount"))
+				.containsExactly(
+						tuple("single", 1),
+						tuple("batch", 2));
+		assertThat(mappings).allSatisfy(event -> assertThat(event.getClass("targetType").getName()).isEqualTo(Person.class.getName()));
+
+		// the converters for the record and its two properties only get selected once
+		assertThat(eventsOf(events, CONVERTER_CACHE_MISS)).hasSize(3);
+	}
+
+	@Test
+	void recordsConstructorSelectionOncePerType() throws IOException {
+		Record selectedRecord = new InternalRecord(List.of("name", "yearBorn"), new Value[]{Values.value("Gerrit"), Values.value(1983)});
+
+		List<RecordedEvent> events = record(() -> {
+			Mapper.INSTANCE.createMapperFor(SelectedPerson.class).apply(selectedRecord);
+			Mapper.INSTANCE.createBatchMapperFor(SelectedPerson.class).apply(List.of(selectedRecord, selectedRecord));
+		}, CONSTRUCTOR_SELECTION);
+
+		assertThat(eventsOf(events, CONSTRUCTOR_SELECTION)).singleElement().satisfies(event -> {
+			assertThat(event.getClass("entityType").getName()).isEqualTo(SelectedPerson.class.getName());
+			assertThat(event.getInt("availableProperties")).isEqualTo(2);
+			assertThat(event.getInt("parameterCount")).isEqualTo(2);
+		});
+	}
+
+	@Test
+	void recordsConstructorSelectionOncePerSetOfKeys() throws IOException {
+		Record nameOnly = new InternalRecord(List.of("name"), new Value[]{Values.value("Gerrit")});
+		Record nameAndYear = new InternalRecord(List.of("name", "yearBorn"), new Value[]{Values.value("Gerrit"), Values.value(1983)});
+
+		List<RecordedEvent> events = record(() -> {
+			for (Record selectedRecord : List.of(nameOnly, nameAndYear, nameOnly, nameAndYear)) {
+				Mapper.INSTANCE.createMapperFor(ConstructorOverloads.class).apply(selectedRecord);
+			}
+		}, CONSTRUCTOR_SELECTION);
+
+		assertThat(eventsOf(events, CONSTRUCTOR_SELECTION))
+				.extracting(event -> event.getInt("availableProperties"), event -> event.getInt("parameterCount"))
+				.containsExactly(tuple(1, 1), tuple(2, 2));
+	}
+
+	@Test
+	void recordsParameterRenderingEvents() throws IOException {
+		List<RecordedEvent> events = record(() -> {
+			Renderer.INSTANCE.toParameters(new Person("Gerrit", 1983));
+			Renderer.INSTANCE.toParameters(List.of(new Person("Gerrit", 1983), new Person("Michael", 1980)), "people");
+		}, PARAMETER_RENDERING);
+
+		List<RecordedEvent> renderings = eventsOf(events, PARAMETER_RENDERING);
+		assertThat(renderings).extracting(event -> event.getInt("elementCount")).containsExactly(1, 2);
+		assertThat(renderings).allSatisfy(event -> {
+			assertThat(event.getClass("type").getName()).isEqualTo(Person.class.getName());
+			assertThat(event.getLong("estimatedSize")).isPositive();
+		});
+	}
+
+	private static List<RecordedEvent> record(Runnable action, String... eventNames) throws IOException {
+		Path file = Files.createTempFile("toolbelt", ".jfr");
+		try (Recording recording = new Recording()) {
+			for (String eventName : eventNames) {
+				recording.enable(eventName).withThreshold(Duration.ZERO);
+			}
+			recording.start();
+			action.run();
+			recording.stop();
+			recording.dump(file);
+			long threadId = Thread.currentThread().getId();
+			return RecordingFile.readAllEvents(file).stream()
+					.filter(event -> event.getThread() != null && event.getThread().getJavaThreadId() == threadId)
+					.toList();
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	private static List<RecordedEvent> eventsOf(List<RecordedEvent> events, String eventName) {
+		return events.stream().filter(event -> event.getEventType().getName().equals(eventName)).toList();
+	}
+
+	public record Person(String name, Integer yearBorn) {
+	}
+
+	public record SelectedPerson(String name, Integer yearBorn) {
+	}
+
+	public static class ConstructorOverloads {
+
+		public final String name;
+		public final Integer yearBorn;
+
+		public ConstructorOverloads(String name) {
+			this(name, null);
+		}
+
+		public ConstructorOverloads(String name, Integer yearBorn) {
+			this.name = name;
+			this.yearBorn = yearBorn;
+		}
+	}
+}
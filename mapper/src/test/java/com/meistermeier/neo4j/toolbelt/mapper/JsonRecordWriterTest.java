@@ -0,0 +1,107 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.mapper;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.junit.jupiter.api.Test;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.Values;
+import org.neo4j.driver.internal.InternalNode;
+import org.neo4j.driver.internal.InternalRecord;
+import org.neo4j.driver.internal.value.NodeValue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Gerrit Meier
+ */
+class JsonRecordWriterTest {
+
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+	@Test
+	void writeAllFieldsOfARecord() throws IOException {
+		Record record = new InternalRecord(List.of("name", "born", "tags", "data"), new Value[] {
+				Values.value("Gerrit"), Values.value(LocalDate.of(2020, 1, 2)), Values.value(List.of("a", "b")), Values.value(new byte[] {1, 2, 3})
+		});
+
+		assertThat(write(JsonRecordWriter.INSTANCE, record))
+				.isEqualTo("{\"name\":\"Gerrit\",\"born\":\"2020-01-02\",\"tags\":[\"a\",\"b\"],\"data\":\"AQID\"}");
+	}
+
+	@Test
+	void writeNodesAsObjects() throws IOException {
+		Value node = new NodeValue(new InternalNode(1L, List.of("Person"), Map.of("name", Values.value("Gerrit"))));
+		Record record = new InternalRecord(List.of("n"), new Value[] {node});
+
+		assertThat(write(JsonRecordWriter.INSTANCE, record)).isEqualTo("{\"n\":{\"name\":\"Gerrit\"}}");
+	}
+
+	@Test
+	void writeTemporalsAsIsoStrings() throws IOException {
+		Record record = new InternalRecord(List.of("at"), new Value[] {Values.value(OffsetDateTime.of(2023, 1, 2, 3, 4, 5, 0, ZoneOffset.ofHours(1)).toZonedDateTime())});
+
+		assertThat(write(JsonRecordWriter.INSTANCE, record)).isEqualTo("{\"at\":\"2023-01-02T03:04:05+01:00\"}");
+	}
+
+	@Test
+	void selectFieldsByType() throws IOException {
+		Value node = personNode("Gerrit", 1983);
+		Value friends = Values.value(List.of(Map.of("name", "Michael", "yearBorn", 1980, "secret", "x")));
+		Record record = new InternalRecord(List.of("n", "friends", "other"), new Value[] {node, friends, Values.value("ignored")});
+
+		assertThat(write(JsonRecordWriter.INSTANCE.forType(Person.class), record))
+				.isEqualTo("{\"name\":\"Gerrit\",\"yearBorn\":1983,\"friends\":[{\"name\":\"Michael\",\"yearBorn\":1980,\"friends\":null}]}");
+	}
+
+	@Test
+	void writeAllRecordsAsArray() throws IOException {
+		List<Record> records = List.of(
+				new InternalRecord(List.of("name"), new Value[] {Values.value("a")}),
+				new InternalRecord(List.of("name"), new Value[] {Values.value("b")}));
+
+		StringWriter out = new StringWriter();
+		try (JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+			JsonRecordWriter.INSTANCE.writeAll(records, generator);
+		}
+		assertThat(out.toString()).isEqualTo("[{\"name\":\"a\"},{\"name\":\"b\"}]");
+	}
+
+	private static String write(JsonRecordWriter writer, Record record) throws IOException {
+		StringWriter out = new StringWriter();
+		try (JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+			writer.write(record, generator);
+		}
+		return out.toString();
+	}
+
+	private static Value personNode(String name, int yearBorn) {
+		return new NodeValue(new InternalNode(1L, List.of("Person"), Map.of("name", Values.value(name), "yearBorn", Values.value(yearBorn))));
+	}
+
+	record Person(String name, int yearBorn, List<Person> friends) {
+	}
+}
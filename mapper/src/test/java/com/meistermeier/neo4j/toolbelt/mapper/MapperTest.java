@@ -17,13 +17,16 @@ package com.meistermeier.neo4j.toolbelt.mapper;
 
 import com.meistermeier.neo4j.toolbelt.conversion.TypeMetaData;
 import com.meistermeier.neo4j.toolbelt.conversion.ValueConverter;
+import org.assertj.core.groups.Tuple;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.neo4j.driver.Record;
 import org.neo4j.driver.Value;
 import org.neo4j.driver.Values;
+import org.neo4j.driver.internal.InternalNode;
 import org.neo4j.driver.internal.InternalRecord;
+import org.neo4j.driver.internal.value.NodeValue;
 import org.neo4j.driver.types.TypeSystem;
 
 import java.util.ArrayList;
@@ -32,6 +35,7 @@ import java.util.Map;
 import java.util.function.Function;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
 
 class MapperTest {
 
@@ -198,6 +202,269 @@ class MapperTest {
 		}
 	}
 
+	@Nested
+	@DisplayName("Batch mapping")
+	class BatchMapping {
+
+		private final Function<List<Record>, List<RecordMapping.ConversionTargetRecord>> batchMapper = mapper.createBatchMapperFor(RecordMapping.ConversionTargetRecord.class);
+
+		@Test
+		void convertRecordsWithSameFields() {
+			var records = List.of(
+					asRecord(Map.of("a", "a1", "b", "b1")),
+					asRecord(Map.of("a", "a2", "b", "b2"))
+			);
+
+			List<RecordMapping.ConversionTargetRecord> result = batchMapper.apply(records);
+			assertThat(result)
+					.extracting("a", "b")
+					.containsExactly(Tuple.tuple("a1", "b1"), Tuple.tuple("a2", "b2"));
+		}
+
+		@Test
+		void convertRecordsWithDifferentFields() {
+			var records = List.of(
+					asRecord(Map.of("a", "a1")),
+					asRecord(Map.of("a", "a2", "c", Values.value("a", "b"))),
+					asRecord(Map.of("b", "b3"))
+			);
+
+			List<RecordMapping.ConversionTargetRecord> result = batchMapper.apply(records);
+			assertThat(result)
+					.extracting("a", "b", "c")
+					.containsExactly(
+							Tuple.tuple("a1", null, null),
+							Tuple.tuple("a2", null, List.of("a", "b")),
+							Tuple.tuple(null, "b3", null));
+		}
+
+		@Test
+		void convertCollectionOfMaps() {
+			var record = asRecord(Map.of("collected", List.of(Map.of("a", "a1"), Map.of("a", "a2"))));
+
+			Iterable<RecordMapping.ConversionTargetRecord> result = mapper.createCollectionMapperFor(RecordMapping.ConversionTargetRecord.class).apply(record);
+			assertThat(result)
+					.extracting("a")
+					.containsExactly("a1", "a2");
+		}
+	}
+
+	@Nested
+	@DisplayName("Tolerant mapping")
+	class TolerantMapping {
+
+		private final Function<List<Record>, MappingResult<TolerantTargetRecord>> tolerantMapper = mapper.createTolerantBatchMapperFor(TolerantTargetRecord.class);
+
+		@Test
+		void mapsCleanBatch() {
+			var records = List.of(
+					asRecord(Map.of("name", "a", "number", 1)),
+					asRecord(Map.of("name", "b", "number", 2))
+			);
+
+			MappingResult<TolerantTargetRecord> result = tolerantMapper.apply(records);
+			assertThat(result.mapped()).containsExactly(new TolerantTargetRecord("a", 1), new TolerantTargetRecord("b", 2));
+			assertThat(result.errorReport().hasErrors()).isFalse();
+		}
+
+		@Test
+		void skipsAndReportsFailedRecords() {
+			var records = List.of(
+					asRecord(Map.of("name", "a", "number", 1)),
+					asRecord(Map.of("name", Map.of("first", "b"), "number", "not a number")),
+					asRecord(Map.of("name", "c", "number", 3))
+			);
+
+			MappingResult<TolerantTargetRecord> result = tolerantMapper.apply(records);
+			assertThat(result.mapped()).containsExactly(new TolerantTargetRecord("a", 1), new TolerantTargetRecord("c", 3));
+			assertThat(result.errorReport().failedRows()).isEqualTo(1);
+			assertThat(result.errorReport().errors())
+					.containsExactlyInAnyOrder(
+							new MappingError(1, "name", "MAP", String.class),
+							new MappingError(1, "number", "STRING", Integer.class));
+		}
+
+		@Test
+		void convertsValidValuesOnlyOnceOnFailure() {
+			var countingConverter = new ProjectionMapping.CountingStringConverter();
+			var records = List.of(
+					asRecord(Map.of("name", "a", "number", 1)),
+					asRecord(Map.of("name", "b", "number", "not a number")),
+					asRecord(Map.of("name", "c", "number", 3))
+			);
+
+			MappingResult<TolerantTargetRecord> result = mapper.withCustomConverter(countingConverter)
+					.createTolerantBatchMapperFor(TolerantTargetRecord.class).apply(records);
+			assertThat(result.mapped()).containsExactly(new TolerantTargetRecord("a", 1), new TolerantTargetRecord("c", 3));
+			assertThat(result.errorReport().errors()).containsExactly(new MappingError(1, "number", "STRING", Integer.class));
+			assertThat(countingConverter.conversions).isEqualTo(3);
+		}
+
+		@Test
+		void limitsRecordedErrors() {
+			var records = List.of(
+					asRecord(Map.of("name", "a", "number", "x")),
+					asRecord(Map.of("name", "b", "number", "y")),
+					asRecord(Map.of("name", "c", "number", "z"))
+			);
+
+			MappingResult<TolerantTargetRecord> result = mapper.createTolerantBatchMapperFor(TolerantTargetRecord.class, 2).apply(records);
+			assertThat(result.mapped()).isEmpty();
+			assertThat(result.errorReport().failedRows()).isEqualTo(3);
+			assertThat(result.errorReport().errorCount()).isEqualTo(3);
+			assertThat(result.errorReport().errors()).hasSize(2);
+			assertThat(result.errorReport().isTruncated()).isTrue();
+		}
+
+		public record TolerantTargetRecord(String name, Integer number) { }
+	}
+
+	@Nested
+	@DisplayName("Projection mapping")
+	class ProjectionMapping {
+
+		@Test
+		void readsPropertiesViaGetters() {
+			var record = asRecord(Map.of("name", "Gerrit", "yearBorn", 1983, "active", true, "tags", List.of("a", "b")));
+
+			PersonProjection projection = mapper.createProjectionMapperFor(PersonProjection.class).apply(record);
+
+			assertThat(projection.getName()).isEqualTo("Gerrit");
+			assertThat(projection.yearBorn()).isEqualTo(1983);
+			assertThat(projection.isActive()).isTrue();
+			assertThat(projection.tags()).containsExactly("a", "b");
+			assertThat(projection.greeting()).isEqualTo("Hello Gerrit");
+			assertThat(projection.getClass().isHidden()).isTrue();
+		}
+
+		@Test
+		void returnsDefaultValueForMissingPrimitiveProperties() {
+			var record = asRecord(Map.of("name", "Gerrit"));
+
+			PersonProjection projection = mapper.createProjectionMapperFor(PersonProjection.class).apply(record);
+
+			assertThat(projection.yearBorn()).isZero();
+			assertThat(projection.isActive()).isFalse();
+			assertThat(projection.tags()).isNull();
+		}
+
+		@Test
+		void namesPropertiesLikeEntityGetters() {
+			var record = asRecord(Map.of("url", "https://neo4j.com"));
+
+			WebsiteProjection projection = mapper.createProjectionMapperFor(WebsiteProjection.class, "url").apply(record);
+
+			assertThat(projection.getURL()).isEqualTo("https://neo4j.com");
+		}
+
+		@Test
+		void rendersOnlyResolvedProperties() {
+			var countingConverter = new CountingStringConverter();
+			var record = asRecord(Map.of("name", "Gerrit", "yearBorn", 1983));
+
+			PersonProjection projection = mapper.withCustomConverter(countingConverter)
+					.createProjectionMapperFor(PersonProjection.class, "name", "yearBorn", "active").apply(record);
+			assertThat(projection.toString()).isEqualTo("PersonProjection[]");
+
+			projection.getName();
+			projection.isActive();
+			assertThat(projection.toString()).contains("name=Gerrit", "active=false").doesNotContain("yearBorn", "tags");
+			assertThat(countingConverter.conversions).isEqualTo(1);
+		}
+
+		@Test
+		void readsPropertiesOfNode() {
+			var node = new InternalNode(1L, List.of("Person"), Map.of("name", Values.value("Gerrit")));
+			var record = new InternalRecord(List.of("n"), new Value[] {new NodeValue(node)});
+
+			PersonProjection projection = mapper.createProjectionMapperFor(PersonProjection.class).apply(record);
+
+			assertThat(projection.getName()).isEqualTo("Gerrit");
+			assertThat(projection.tags()).isNull();
+		}
+
+		@Test
+		void convertsOnlyOnAccess() {
+			var countingConverter = new CountingStringConverter();
+			var record = asRecord(Map.of("name", "Gerrit", "yearBorn", 1983));
+
+			PersonProjection projection = mapper.withCustomConverter(countingConverter).createProjectionMapperFor(PersonProjection.class).apply(record);
+			assertThat(countingConverter.conversions).isZero();
+
+			projection.getName();
+			projection.getName();
+			assertThat(countingConverter.conversions).isEqualTo(2);
+		}
+
+		@Test
+		void memoizesConfiguredProperties() {
+			var countingConverter = new CountingStringConverter();
+			var record = asRecord(Map.of("name", "Gerrit", "yearBorn", 1983));
+
+			PersonProjection projection = mapper.withCustomConverter(countingConverter).createProjectionMapperFor(PersonProjection.class, "name").apply(record);
+
+			projection.getName();
+			projection.getName();
+			assertThat(countingConverter.conversions).isEqualTo(1);
+		}
+
+		@Test
+		void rejectsUnknownMemoizedProperties() {
+			assertThatIllegalArgumentException()
+					.isThrownBy(() -> mapper.createProjectionMapperFor(PersonProjection.class, "unknown"));
+		}
+
+		@Test
+		void rejectsNonGetterMethods() {
+			assertThatIllegalArgumentException()
+					.isThrownBy(() -> mapper.createProjectionMapperFor(InvalidProjection.class));
+		}
+
+		@Test
+		void rejectsClasses() {
+			assertThatIllegalArgumentException()
+					.isThrownBy(() -> mapper.createProjectionMapperFor(RecordMapping.ConversionTargetRecord.class));
+		}
+
+		interface PersonProjection {
+			String getName();
+
+			int yearBorn();
+
+			boolean isActive();
+
+			List<String> tags();
+
+			default String greeting() {
+				return "Hello " + getName();
+			}
+		}
+
+		interface WebsiteProjection {
+			String getURL();
+		}
+
+		interface InvalidProjection {
+			String name(String defaultValue);
+		}
+
+		static class CountingStringConverter implements ValueConverter {
+
+			int conversions;
+
+			@Override
+			public boolean canConvert(Value value, TypeMetaData<?> typeMetaData) {
+				return TypeSystem.getDefault().STRING().isTypeOf(value) && typeMetaData.type().equals(String.class);
+			}
+
+			@Override
+			public Object convert(Value value, TypeMetaData<?> typeMetaData) {
+				conversions++;
+				return value.asString();
+			}
+		}
+	}
+
 	@Nested
 	@DisplayName("Custom conversion")
 	class CustomConversion {
@@ -223,8 +490,44 @@ class MapperTest {
 					.isEqualTo(new CustomConversionRecord("Something"));
 		}
 
+		@Test
+		void keepsPreviouslyAddedCustomConverters() {
+			var stringConverter = new ValueConverter() {
+
+				@Override
+				public boolean canConvert(Value value, TypeMetaData<?> typeMetaData) {
+					return TypeSystem.getDefault().STRING().equals(value.type());
+				}
+
+				@Override
+				public String convert(Value value, TypeMetaData<?> typeMetaData) {
+					return value.asString().toUpperCase();
+				}
+			};
+			var integerConverter = new ValueConverter() {
+
+				@Override
+				public boolean canConvert(Value value, TypeMetaData<?> typeMetaData) {
+					return TypeSystem.getDefault().INTEGER().equals(value.type());
+				}
+
+				@Override
+				public Long convert(Value value, TypeMetaData<?> typeMetaData) {
+					return value.asLong() * 2;
+				}
+			};
+
+			assertThat(mapper.withCustomConverter(stringConverter)
+					.withCustomConverter(integerConverter)
+					.createMapperFor(MultipleCustomConversionRecord.class)
+					.apply(asRecord(Map.of("someString", "with Value", "someNumber", 21L))))
+					.isEqualTo(new MultipleCustomConversionRecord("WITH VALUE", 42L));
+		}
+
 		public record CustomConversionRecord(String someString) { }
 
+		public record MultipleCustomConversionRecord(String someString, Long someNumber) { }
+
 	}
 
 	static Record asRecord(Map<String, Object> values) {
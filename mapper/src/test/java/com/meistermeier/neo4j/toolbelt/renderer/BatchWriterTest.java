@@ -0,0 +1,279 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.renderer;
+
+import org.junit.jupiter.api.Test;
+import org.neo4j.driver.exceptions.ClientException;
+import org.neo4j.driver.exceptions.TransientException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * @author Gerrit Meier
+ */
+class BatchWriterTest {
+
+	private static final String QUERY = "UNWIND $rows AS row CREATE (n:Node) SET n = row";
+
+	private final RecordingDriver recordingDriver = new RecordingDriver();
+
+	@Test
+	void writeChunksBoundedByRowCount() {
+		BatchWriter batchWriter = Renderer.INSTANCE.createBatchWriter(recordingDriver.driver)
+				.withChunkLimits(4, Long.MAX_VALUE);
+
+		BatchWriteResult result = batchWriter.write(rows(10), QUERY);
+
+		assertThat(result).isEqualTo(new BatchWriteResult(10, 3, 0));
+		List<RecordingDriver.ExecutedStatement> statements = recordingDriver.executedStatements();
+		assertThat(statements).extracting(statement -> statement.rows("rows").size()).containsExactly(4, 4, 2);
+		assertThat(statements).extracting(RecordingDriver.ExecutedStatement::query).containsOnly(QUERY);
+		assertThat(statements.get(2).rows("rows")).containsExactly(Map.of("id", 8L, "name", "row8"), Map.of("id", 9L, "name", "row9"));
+	}
+
+	@Test
+	void writeChunksBoundedByEstimatedSize() {
+		long rowSize = PayloadSizeEstimator.estimate(Renderer.INSTANCE.toParameters(new Row(0, "row0")));
+		BatchWriter batchWriter = Renderer.INSTANCE.createBatchWriter(recordingDriver.driver)
+				.withChunkLimits(1_000, rowSize * 3);
+
+		BatchWriteResult result = batchWriter.write(rows(7), QUERY);
+
+		assertThat(result.chunks()).isEqualTo(3);
+		assertThat(recordingDriver.executedStatements()).extracting(statement -> statement.rows("rows").size()).containsExactly(3, 3, 1);
+	}
+
+	@Test
+	void useCustomParameterName() {
+		Renderer.INSTANCE.createBatchWriter(recordingDriver.driver)
+				.withParameterName("batch")
+				.write(rows(2), "UNWIND $batch AS row CREATE (n:Node) SET n = row");
+
+		assertThat(recordingDriver.executedStatements().get(0).rows("batch")).hasSize(2);
+	}
+
+	@Test
+	void retryRetryableFailures() {
+		recordingDriver.failWith(new TransientException("Neo.TransientError.General.Unknown", "try again"));
+		BatchWriter batchWriter = Renderer.INSTANCE.createBatchWriter(recordingDriver.driver)
+				.withChunkLimits(5, Long.MAX_VALUE)
+				.withRetries(1, Duration.ZERO);
+
+		BatchWriteResult result = batchWriter.write(rows(10), QUERY);
+
+		assertThat(result).isEqualTo(new BatchWriteResult(10, 2, 1));
+		assertThat(recordingDriver.executedStatements()).hasSize(2);
+	}
+
+	@Test
+	void reportProgressOnFailure() {
+		BatchWriter batchWriter = Renderer.INSTANCE.createBatchWriter(recordingDriver.driver)
+				.withChunkLimits(5, Long.MAX_VALUE)
+				.withRetries(3, Duration.ZERO);
+		Iterable<Row> failingAfterFirstChunk = () -> IntStream.range(0, 10)
+				.peek(i -> {
+					if (i == 5) {
+						recordingDriver.failWith(new ClientException("Neo.ClientError.Statement.SyntaxError", "invalid"));
+					}
+				})
+				.mapToObj(i -> new Row(i, "row" + i))
+				.iterator();
+
+		assertThatExceptionOfType(BatchWriteException.class)
+				.isThrownBy(() -> batchWriter.write(failingAfterFirstChunk, QUERY))
+				.satisfies(e -> {
+					assertThat(e.getRowsWritten()).isEqualTo(5);
+					assertThat(e.getFailedChunk()).isEqualTo(1);
+					assertThat(e).hasCauseInstanceOf(ClientException.class);
+				});
+	}
+
+	@Test
+	void renderStreamsOnWorkerThread() {
+		Set<String> renderThreads = ConcurrentHashMap.newKeySet();
+		BatchWriter batchWriter = Renderer.INSTANCE.createBatchWriter(recordingDriver.driver)
+				.withChunkLimits(3, Long.MAX_VALUE);
+
+		BatchWriteResult result = batchWriter.write(
+				IntStream.range(0, 10).mapToObj(i -> new ThreadRecordingRow(i, renderThreads)), QUERY);
+
+		assertThat(result).isEqualTo(new BatchWriteResult(10, 4, 0));
+		assertThat(renderThreads).singleElement().asString().startsWith("batch-writer-worker-");
+		assertThat(recordingDriver.executedStatements())
+				.extracting(RecordingDriver.ExecutedStatement::threadName)
+				.containsOnly(Thread.currentThread().getName());
+		assertThat(recordingDriver.executedStatements())
+				.flatExtracting(statement -> statement.rows("rows"))
+				.extracting(row -> (Object) ((Map<?, ?>) row).get("id"))
+				.containsExactly(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L);
+	}
+
+	@Test
+	void stopPullingRowsWhileChunksAreWaiting() {
+		AtomicInteger pulledRows = new AtomicInteger();
+		AtomicBoolean closed = new AtomicBoolean();
+		recordingDriver.failWith(new ClientException("Neo.ClientError.Statement.SyntaxError", "invalid"));
+		BatchWriter batchWriter = Renderer.INSTANCE.createBatchWriter(recordingDriver.driver)
+				.withChunkLimits(10, Long.MAX_VALUE);
+		Stream<Row> endlessRows = Stream.iterate(0, i -> i + 1)
+				.peek(i -> pulledRows.incrementAndGet())
+				.map(i -> new Row(i, "row" + i))
+				.onClose(() -> closed.set(true));
+
+		assertThatExceptionOfType(BatchWriteException.class)
+				.isThrownBy(() -> batchWriter.write(endlessRows, QUERY));
+
+		// chunk in flight, chunk waiting in the queue and the chunk the worker is rendering
+		assertThat(pulledRows.get()).isLessThanOrEqualTo(3 * 10 + 1);
+		assertThat(closed).isTrue();
+	}
+
+	@Test
+	void renderOnConfiguredExecutor() {
+		Set<String> renderThreads = ConcurrentHashMap.newKeySet();
+		AtomicInteger tasks = new AtomicInteger();
+		BatchWriter batchWriter = Renderer.INSTANCE.createBatchWriter(recordingDriver.driver)
+				.withChunkLimits(3, Long.MAX_VALUE)
+				.withExecutor(task -> {
+					tasks.incrementAndGet();
+					new Thread(task, "custom-worker").start();
+				});
+
+		BatchWriteResult result = batchWriter.write(
+				IntStream.range(0, 10).mapToObj(i -> new ThreadRecordingRow(i, renderThreads)), QUERY);
+
+		assertThat(result.rows()).isEqualTo(10);
+		assertThat(tasks).hasValue(1);
+		assertThat(renderThreads).containsOnly("custom-worker");
+	}
+
+	@Test
+	void closeStreamOnlyAfterWorkerStoppedPullingRows() {
+		AtomicBoolean pulling = new AtomicBoolean();
+		AtomicBoolean closedWhilePulling = new AtomicBoolean();
+		recordingDriver.failWith(new ClientException("Neo.ClientError.Statement.SyntaxError", "invalid"));
+		BatchWriter batchWriter = Renderer.INSTANCE.createBatchWriter(recordingDriver.driver)
+				.withChunkLimits(10, Long.MAX_VALUE);
+		Stream<Row> slowRows = Stream.iterate(0, i -> i + 1)
+				.peek(i -> {
+					if (i == 10) {
+						// a source that does not react to interrupts, e.g. a blocking read
+						pulling.set(true);
+						long deadline = System.nanoTime() + Duration.ofMillis(200).toNanos();
+						while (System.nanoTime() < deadline) {
+							Thread.onSpinWait();
+						}
+						pulling.set(false);
+					}
+				})
+				.map(i -> new Row(i, "row" + i))
+				.onClose(() -> closedWhilePulling.set(pulling.get()));
+
+		assertThatExceptionOfType(BatchWriteException.class)
+				.isThrownBy(() -> batchWriter.write(slowRows, QUERY));
+
+		assertThat(closedWhilePulling).isFalse();
+	}
+
+	@Test
+	void writeRowsOfPublisher() throws Exception {
+		BatchWriter batchWriter = Renderer.INSTANCE.createBatchWriter(recordingDriver.driver)
+				.withChunkLimits(100, Long.MAX_VALUE);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try (SubmissionPublisher<Row> publisher = new SubmissionPublisher<>(executor, 16)) {
+			Thread submitter = new Thread(() -> {
+				// items without subscriber get dropped
+				while (!publisher.hasSubscribers()) {
+					Thread.onSpinWait();
+				}
+				rows(1_000).forEach(publisher::submit);
+				publisher.close();
+			});
+			submitter.start();
+
+			BatchWriteResult result = batchWriter.write(publisher, QUERY);
+
+			submitter.join();
+			assertThat(result).isEqualTo(new BatchWriteResult(1_000, 10, 0));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void failOnPublisherError() {
+		BatchWriter batchWriter = Renderer.INSTANCE.createBatchWriter(recordingDriver.driver);
+		Flow.Publisher<Row> failingPublisher = subscriber -> subscriber.onSubscribe(new Flow.Subscription() {
+			@Override
+			public void request(long n) {
+				subscriber.onNext(new Row(1, "row1"));
+				subscriber.onError(new IllegalStateException("producer failed"));
+			}
+
+			@Override
+			public void cancel() {
+			}
+		});
+
+		assertThatExceptionOfType(IllegalStateException.class)
+				.isThrownBy(() -> batchWriter.write(failingPublisher, QUERY))
+				.withMessage("producer failed");
+		assertThat(recordingDriver.executedStatements()).isEmpty();
+	}
+
+	private static List<Row> rows(int count) {
+		return IntStream.range(0, count).mapToObj(i -> new Row(i, "row" + i)).toList();
+	}
+
+	record Row(long id, String name) {
+	}
+
+	static final class ThreadRecordingRow {
+
+		private final long id;
+		private final Set<String> renderThreads;
+
+		ThreadRecordingRow(long id, Set<String> renderThreads) {
+			this.id = id;
+			this.renderThreads = renderThreads;
+		}
+
+		public long getId() {
+			return id;
+		}
+
+		public String getRenderedBy() {
+			String threadName = Thread.currentThread().getName();
+			renderThreads.add(threadName);
+			return threadName;
+		}
+	}
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.renderer;
+
+import org.junit.jupiter.api.Test;
+import org.neo4j.driver.exceptions.ClientException;
+import org.neo4j.driver.exceptions.TransientException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+/**
+ * @author Gerrit Meier
+ */
+class BulkImporterTest {
+
+	private static final String QUERY = "UNWIND $rows AS row MERGE (n:Node {key: row.key}) SET n.value = row.value";
+
+	private final RecordingDriver recordingDriver = new RecordingDriver().withTransactionDelay(5);
+
+	@Test
+	void importAllRowsInParallel() {
+		BulkImporter bulkImporter = Renderer.INSTANCE.createBatchWriter(recordingDriver.driver)
+				.withChunkLimits(10, Long.MAX_VALUE)
+				.inParallel(4);
+
+		BulkImportResult result = bulkImporter.importAll(rows(1_000, 50), KeyedRow::key, QUERY);
+
+		assertThat(result.rows()).isEqualTo(1_000);
+		assertThat(result.partitions()).hasSize(4);
+		assertThat(result.chunks()).isEqualTo(recordingDriver.executedStatements().size());
+		assertThat(result.rowsPerSecond()).isPositive();
+		assertThat(recordingDriver.executedStatements())
+				.flatExtracting(statement -> statement.rows("rows"))
+				.hasSize(1_000);
+		assertThat(recordingDriver.maxActiveTransactions()).isBetween(2, 4);
+	}
+
+	@Test
+	void keepRowsWithTheSamePartitionKeyOnOneWorker() {
+		Renderer.INSTANCE.createBatchWriter(recordingDriver.driver)
+				.withChunkLimits(7, Long.MAX_VALUE)
+				.inParallel(3)
+				.importAll(rows(500, 20), KeyedRow::key, QUERY);
+
+		Map<Object, Set<String>> threadsByKey = recordingDriver.executedStatements().stream()
+				.flatMap(statement -> statement.rows("rows").stream()
+						.map(row -> Map.entry(((Map<?, ?>) row).get("key"), statement.threadName())))
+				.collect(Collectors.groupingBy(Map.Entry::getKey, Collectors.mapping(Map.Entry::getValue, Collectors.toSet())));
+
+		assertThat(threadsByKey).hasSize(20);
+		assertThat(threadsByKey.values()).allSatisfy(threads -> assertThat(threads).hasSize(1));
+	}
+
+	@Test
+	void reportRetries() {
+		recordingDriver.failWith(new TransientException("Neo.TransientError.General.Unknown", "try again"));
+		BulkImportResult result = Renderer.INSTANCE.createBatchWriter(recordingDriver.driver)
+				.withRetries(1, Duration.ZERO)
+				.inParallel(2)
+				.importAll(rows(100, 10), KeyedRow::key, QUERY);
+
+		assertThat(result.retries()).isEqualTo(1);
+		assertThat(result.rows()).isEqualTo(100);
+	}
+
+	@Test
+	void stopAllPartitionsOnFailure() {
+		recordingDriver.failWith(new ClientException("Neo.ClientError.Statement.SyntaxError", "invalid"));
+		BulkImporter bulkImporter = Renderer.INSTANCE.createBatchWriter(recordingDriver.driver)
+				.withChunkLimits(10, Long.MAX_VALUE)
+				.inParallel(4);
+
+		assertThatExceptionOfType(BatchWriteException.class)
+				.isThrownBy(() -> bulkImporter.importAll(rows(100_000, 1_000), KeyedRow::key, QUERY))
+				.withCauseInstanceOf(ClientException.class);
+		assertThat(recordingDriver.executedStatements().size()).isLessThan(100_000 / 10);
+	}
+
+	@Test
+	void rejectNullRows() {
+		List<KeyedRow> rows = new ArrayList<>(rows(10, 2));
+		rows.set(7, null);
+		BulkImporter bulkImporter = Renderer.INSTANCE.createBatchWriter(recordingDriver.driver).inParallel(2);
+
+		assertThatExceptionOfType(IllegalArgumentException.class)
+				.isThrownBy(() -> bulkImporter.importAll(rows, KeyedRow::key, QUERY))
+				.withMessage("Cannot import null rows, found one at index 7");
+	}
+
+	@Test
+	void runPartitionsOnConfiguredExecutor() {
+		AtomicInteger tasks = new AtomicInteger();
+		BulkImportResult result = Renderer.INSTANCE.createBatchWriter(recordingDriver.driver)
+				.withExecutor(task -> {
+					tasks.incrementAndGet();
+					new Thread(task, "custom-worker").start();
+				})
+				.inParallel(3)
+				.importAll(rows(100, 10), KeyedRow::key, QUERY);
+
+		assertThat(result.rows()).isEqualTo(100);
+		assertThat(tasks).hasValue(3);
+		assertThat(recordingDriver.executedStatements())
+				.extracting(RecordingDriver.ExecutedStatement::threadName)
+				.containsOnly("custom-worker");
+	}
+
+	@Test
+	void rejectThreadPoolsSmallerThanConcurrency() {
+		ExecutorService executor = Executors.newFixedThreadPool(1);
+		try {
+			BulkImporter bulkImporter = Renderer.INSTANCE.createBatchWriter(recordingDriver.driver)
+					.withExecutor(executor)
+					.inParallel(3);
+
+			assertThatExceptionOfType(IllegalStateException.class)
+					.isThrownBy(() -> bulkImporter.importAll(rows(100, 10), KeyedRow::key, QUERY))
+					.withMessage("The executor runs at most 1 tasks at once, but the import needs 3 for its partitions");
+			assertThat(recordingDriver.executedStatements()).isEmpty();
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void failIfPartitionsDoNotStartOnUndersizedExecutor() {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			BatchWriter batchWriter = Renderer.INSTANCE.createBatchWriter(recordingDriver.driver)
+					.withChunkLimits(10, Long.MAX_VALUE)
+					.withExecutor(executor);
+			BulkImporter bulkImporter = new BulkImporter(batchWriter, 3, 10, Duration.ofMillis(200));
+
+			assertTimeoutPreemptively(Duration.ofSeconds(10), () -> assertThatExceptionOfType(IllegalStateException.class)
+					.isThrownBy(() -> bulkImporter.importAll(rows(1_000, 10), KeyedRow::key, QUERY))
+					.withMessageMatching("Partition [12] did not start within PT0\\.2S, .*"));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static List<KeyedRow> rows(int count, int keys) {
+		return IntStream.range(0, count).mapToObj(i -> new KeyedRow("key" + (i % keys), i)).toList();
+	}
+
+	record KeyedRow(String key, long value) {
+	}
+}
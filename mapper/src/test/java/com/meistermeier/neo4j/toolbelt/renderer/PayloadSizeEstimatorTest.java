@@ -0,0 +1,58 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.renderer;
+
+import org.junit.jupiter.api.Test;
+import org.neo4j.driver.Values;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Gerrit Meier
+ */
+class PayloadSizeEstimatorTest {
+
+	@Test
+	void estimateScalars() {
+		assertThat(PayloadSizeEstimator.estimate(Values.NULL)).isEqualTo(1);
+		assertThat(PayloadSizeEstimator.estimate(null)).isEqualTo(1);
+		assertThat(PayloadSizeEstimator.estimate(Values.value(true))).isEqualTo(1);
+		assertThat(PayloadSizeEstimator.estimate(Values.value(42))).isEqualTo(1);
+		assertThat(PayloadSizeEstimator.estimate(Values.value(-100))).isEqualTo(2);
+		assertThat(PayloadSizeEstimator.estimate(Values.value(1_000))).isEqualTo(3);
+		assertThat(PayloadSizeEstimator.estimate(Values.value(100_000))).isEqualTo(5);
+		assertThat(PayloadSizeEstimator.estimate(Values.value(Long.MAX_VALUE))).isEqualTo(9);
+		assertThat(PayloadSizeEstimator.estimate(Values.value(1.5d))).isEqualTo(9);
+	}
+
+	@Test
+	void estimateStringsWithTheirUtf8Length() {
+		assertThat(PayloadSizeEstimator.estimate(Values.value("abc"))).isEqualTo(1 + 3);
+		assertThat(PayloadSizeEstimator.estimate(Values.value("äöü"))).isEqualTo(1 + 6);
+		assertThat(PayloadSizeEstimator.estimate(Values.value("a".repeat(20)))).isEqualTo(2 + 20);
+		assertThat(PayloadSizeEstimator.estimate(Values.value("a".repeat(300)))).isEqualTo(3 + 300);
+	}
+
+	@Test
+	void estimateContainers() {
+		assertThat(PayloadSizeEstimator.estimate(Values.value(List.of(1, 2, 3)))).isEqualTo(1 + 3);
+		assertThat(PayloadSizeEstimator.estimate(Values.value(Map.of("a", 1)))).isEqualTo(1 + 2 + 1);
+		assertThat(PayloadSizeEstimator.estimate(Values.value(new byte[300]))).isEqualTo(3 + 300);
+	}
+}
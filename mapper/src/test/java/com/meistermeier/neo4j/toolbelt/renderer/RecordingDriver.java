@@ -0,0 +1,126 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.renderer;
+
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Result;
+import org.neo4j.driver.Session;
+import org.neo4j.driver.TransactionCallback;
+import org.neo4j.driver.TransactionContext;
+import org.neo4j.driver.Value;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for a driver that records all statements executed in write transactions.
+ *
+ * @author Gerrit Meier
+ */
+final class RecordingDriver {
+
+	private final List<ExecutedStatement> executedStatements = Collections.synchronizedList(new ArrayList<>());
+	private final Deque<RuntimeException> failures = new ConcurrentLinkedDeque<>();
+	private final AtomicInteger activeTransactions = new AtomicInteger();
+	private final AtomicInteger maxActiveTransactions = new AtomicInteger();
+	private volatile long transactionDelayMillis;
+
+	final Driver driver = proxy(Driver.class, (proxy, method, args) -> switch (method.getName()) {
+		case "session" -> newSession();
+		case "close" -> null;
+		default -> throw new UnsupportedOperationException(method.getName());
+	});
+
+	/**
+	 * The next write transactions fail with the given exceptions, in order.
+	 */
+	RecordingDriver failWith(RuntimeException... exceptions) {
+		failures.addAll(List.of(exceptions));
+		return this;
+	}
+
+	/**
+	 * Every write transaction takes at least the given time, to make concurrent transactions overlap.
+	 */
+	RecordingDriver withTransactionDelay(long millis) {
+		this.transactionDelayMillis = millis;
+		return this;
+	}
+
+	int maxActiveTransactions() {
+		return maxActiveTransactions.get();
+	}
+
+	List<ExecutedStatement> executedStatements() {
+		return List.copyOf(executedStatements);
+	}
+
+	@SuppressWarnings("unchecked")
+	private Session newSession() {
+		return proxy(Session.class, (proxy, method, args) -> switch (method.getName()) {
+			case "executeWrite" -> {
+				RuntimeException failure = failures.poll();
+				if (failure != null) {
+					throw failure;
+				}
+				maxActiveTransactions.accumulateAndGet(activeTransactions.incrementAndGet(), Math::max);
+				try {
+					Thread.sleep(transactionDelayMillis);
+					yield ((TransactionCallback<Object>) args[0]).execute(newTransactionContext());
+				} finally {
+					activeTransactions.decrementAndGet();
+				}
+			}
+			case "close" -> null;
+			default -> throw new UnsupportedOperationException(method.getName());
+		});
+	}
+
+	private TransactionContext newTransactionContext() {
+		return proxy(TransactionContext.class, (proxy, method, args) -> {
+			if (!method.getName().equals("run") || args.length != 2 || !(args[1] instanceof Value parameters)) {
+				throw new UnsupportedOperationException(method.getName());
+			}
+			executedStatements.add(new ExecutedStatement((String) args[0], parameters.asMap(), Thread.currentThread().getName()));
+			return proxy(Result.class, (resultProxy, resultMethod, resultArgs) -> {
+				if (resultMethod.getName().equals("consume")) {
+					return null;
+				}
+				throw new UnsupportedOperationException(resultMethod.getName());
+			});
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T proxy(Class<T> type, InvocationHandler invocationHandler) {
+		return (T) Proxy.newProxyInstance(RecordingDriver.class.getClassLoader(), new Class<?>[]{type}, invocationHandler);
+	}
+
+	record ExecutedStatement(String query, Map<String, Object> parameters, String threadName) {
+
+		@SuppressWarnings("unchecked")
+		List<Object> rows(String parameterName) {
+			return (List<Object>) parameters.get(parameterName);
+		}
+	}
+}
@@ -15,15 +15,30 @@
  */
 package com.meistermeier.neo4j.toolbelt.renderer;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import org.junit.jupiter.api.Test;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.Values;
+import org.neo4j.driver.types.Point;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
 
 /**
  * @author Gerrit Meier
@@ -69,6 +84,265 @@ public class RendererTest {
 		assertThat(parameters.get("k")).isEqualTo(Map.of("foo", "bar"));
 	}
 
+	@Test
+	void renderBeanProperties() {
+		Map<String, Object> parameters = renderer.toParameters(new ParameterBean()).asMap();
+
+		assertThat(parameters).containsOnly(
+				Map.entry("name", "bean"),
+				Map.entry("active", true),
+				Map.entry("url", "http://localhost"),
+				Map.entry("publicField", 5L)
+		);
+	}
+
+	@Test
+	void renderNestedObjects() {
+		Map<String, Object> parameters = renderer.toParameters(new Container(
+				Kind.LARGE,
+				new Nested("first", List.of(new Nested("second", List.of()))),
+				new Nested[]{new Nested("third", List.of())}
+		)).asMap();
+
+		assertThat(parameters.get("kind")).isEqualTo("LARGE");
+		assertThat(parameters.get("nested")).isEqualTo(Map.of(
+				"name", "first",
+				"children", List.of(Map.of("name", "second", "children", List.of()))
+		));
+		assertThat(parameters.get("nestedArray")).isEqualTo(List.of(Map.of("name", "third", "children", List.of())));
+	}
+
+	@Test
+	void renderArraysWithNullElements() {
+		Map<String, Object> parameters = renderer.toParameters(new Container(
+				Kind.LARGE, null, new Nested[]{new Nested("first", List.of()), null})).asMap();
+
+		assertThat(parameters.get("nestedArray")).isEqualTo(Arrays.asList(Map.of("name", "first", "children", List.of()), null));
+	}
+
+	@Test
+	void renderJacksonAnnotatedTypesWithJackson() {
+		UUID id = UUID.randomUUID();
+		Map<String, Object> parameters = renderer.toParameters(new Annotated(id, "value")).asMap();
+
+		assertThat(parameters).containsOnly(
+				Map.entry("id", id.toString()),
+				Map.entry("renamed", "value")
+		);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void buildRenderPlanOncePerClass() {
+		RenderPlanStatistics before = renderer.getRenderPlanStatistics();
+		List<PlanCounted> rows = new ArrayList<>();
+		for (int i = 0; i < 1_000; i++) {
+			rows.add(new PlanCounted(i, null));
+		}
+
+		Map<String, Object> parameters = renderer.toParameters(rows).asMap();
+
+		RenderPlanStatistics after = renderer.getRenderPlanStatistics();
+		assertThat(after.plansBuilt() - before.plansBuilt()).isEqualTo(1);
+		assertThat(after.planLookups() - before.planLookups()).isEqualTo(1_000);
+		List<?> renderedRows = (List<?>) parameters.get("rows");
+		assertThat(renderedRows).hasSize(1_000);
+		assertThat((Map<String, Object>) renderedRows.get(999))
+				.containsEntry("value", 999L)
+				.containsEntry("label", null);
+	}
+
+	@Test
+	void renderPrimitiveArraysAsDriverValues() {
+		Map<String, Object> parameters = renderer.toParameters(new PrimitiveArrays(
+				new int[]{1, 2}, new long[]{3L}, new double[]{0.5d}, new float[]{1.5f}, new byte[]{1, 2, 3}, new boolean[]{true})).asMap();
+
+		assertThat(parameters.get("ints")).isEqualTo(List.of(1L, 2L));
+		assertThat(parameters.get("longs")).isEqualTo(List.of(3L));
+		assertThat(parameters.get("doubles")).isEqualTo(List.of(0.5d));
+		assertThat(parameters.get("floats")).isEqualTo(List.of(1.5d));
+		assertThat(parameters.get("bytes")).isEqualTo(new byte[]{1, 2, 3});
+		assertThat(parameters.get("booleans")).isEqualTo(List.of(true));
+	}
+
+	@Test
+	void renderSmallNumbersAndCharactersAsDriverValues() {
+		Map<String, Object> parameters = renderer.toParameters(new SmallValues((short) 1, (byte) 2, 'c', (short) 3, (byte) 4, 'd')).asMap();
+
+		assertThat(parameters).containsOnly(
+				Map.entry("primitiveShort", 1L), Map.entry("primitiveByte", 2L), Map.entry("primitiveChar", "c"),
+				Map.entry("boxedShort", 3L), Map.entry("boxedByte", 4L), Map.entry("boxedChar", "d"));
+	}
+
+	@Test
+	void renderTemporalAndSpatialTypesAsDriverValues() {
+		OffsetDateTime offsetDateTime = OffsetDateTime.of(2023, 1, 2, 3, 4, 5, 0, ZoneOffset.ofHours(2));
+		ZonedDateTime zonedDateTime = ZonedDateTime.of(2023, 1, 2, 3, 4, 5, 0, ZoneId.of("Europe/Berlin"));
+		Point point = Values.point(4326, 12.0, 51.0).asPoint();
+
+		Value parameters = renderer.toParameters(new TemporalAndSpatial(
+				offsetDateTime, zonedDateTime, Duration.ofSeconds(90), point, Kind.SMALL, Map.of("when", zonedDateTime)));
+
+		assertThat(parameters.get("offsetDateTime").asOffsetDateTime()).isEqualTo(offsetDateTime);
+		assertThat(parameters.get("zonedDateTime").asZonedDateTime()).isEqualTo(zonedDateTime);
+		assertThat(parameters.get("duration").asIsoDuration().seconds()).isEqualTo(90);
+		assertThat(parameters.get("point").asPoint()).isEqualTo(point);
+		assertThat(parameters.get("kind").asString()).isEqualTo("SMALL");
+		assertThat(parameters.get("nested").get("when").asZonedDateTime()).isEqualTo(zonedDateTime);
+	}
+
+	@Test
+	void renderOnlyChangedProperties() {
+		MutableNode node = new MutableNode("n1", "name", new double[]{0.1, 0.2}, new ArrayList<>(List.of("a")));
+		RenderSnapshot snapshot = renderer.snapshot(node);
+
+		assertThat(renderer.toChangedParameters(node, snapshot).asMap()).isEmpty();
+
+		node.name = "new name";
+		node.embedding[1] = 0.3;
+		node.tags.add("b");
+
+		assertThat(renderer.toChangedParameters(node, snapshot).asMap()).containsOnly(
+				Map.entry("name", "new name"),
+				Map.entry("embedding", List.of(0.1, 0.3)),
+				Map.entry("tags", List.of("a", "b"))
+		);
+		assertThat(renderer.toChangedParameters(node, renderer.snapshot(node), "id").asMap())
+				.containsOnly(Map.entry("id", "n1"));
+	}
+
+	@Test
+	void detectInPlaceChangesOfCollections() {
+		// "Aa" and "BB" share their String hash code
+		MutableNode node = new MutableNode("n1", "name", null, new ArrayList<>(List.of("Aa", "x")));
+		RenderSnapshot snapshot = renderer.snapshot(node);
+
+		node.tags.set(0, "BB");
+
+		assertThat(renderer.toChangedParameters(node, snapshot).asMap()).containsOnly(Map.entry("tags", List.of("BB", "x")));
+	}
+
+	@Test
+	void renderChangedPropertiesSetToNull() {
+		MutableNode node = new MutableNode("n1", "name", null, List.of());
+		RenderSnapshot snapshot = renderer.snapshot(node);
+		node.name = null;
+
+		assertThat(renderer.toChangedParameters(node, snapshot).asMap()).containsOnlyKeys("name").containsEntry("name", null);
+	}
+
+	@Test
+	void renderSharedInstancesOnce() {
+		Category books = new Category("books", null);
+		Category fiction = new Category("fiction", books);
+		List<Product> products = List.of(
+				new Product("p1", fiction, List.of(books)),
+				new Product("p2", fiction, List.of()),
+				new Product("p3", books, List.of(fiction, books)));
+
+		Map<String, Object> parameters = renderer.toParametersWithSharedInstances(products, "rows").asMap();
+
+		Map<String, Object> renderedBooks = new HashMap<>();
+		renderedBooks.put("name", "books");
+		renderedBooks.put("parent", null);
+		assertThat(parameters.get("shared")).isEqualTo(List.of(Map.of("name", "fiction", "parent", 1L), renderedBooks));
+		assertThat(parameters.get("rows")).isEqualTo(List.of(
+				Map.of("id", "p1", "category", 0L, "related", List.of(1L)),
+				Map.of("id", "p2", "category", 0L, "related", List.of()),
+				Map.of("id", "p3", "category", 1L, "related", List.of(0L, 1L))
+		));
+	}
+
+	@Test
+	void renderSharedInstancesInArraysWithNullElements() {
+		Category books = new Category("books", null);
+
+		Map<String, Object> parameters = renderer.toParametersWithSharedInstances(
+				List.of(new Shelf("s1", new Category[]{books, null, books})), "rows").asMap();
+
+		assertThat(parameters.get("rows")).isEqualTo(List.of(Map.of("id", "s1", "categories", Arrays.asList(0L, null, 0L))));
+	}
+
+	@Test
+	void renderCyclicSharedInstancesAsReferences() {
+		Linked first = new Linked("first");
+		Linked second = new Linked("second");
+		first.next = second;
+		second.next = first;
+
+		Map<String, Object> parameters = renderer.toParametersWithSharedInstances(List.of(new Holder(first)), "rows").asMap();
+
+		assertThat(parameters.get("rows")).isEqualTo(List.of(Map.of("linked", 0L)));
+		assertThat(parameters.get("shared")).isEqualTo(List.of(
+				Map.of("name", "first", "next", 1L),
+				Map.of("name", "second", "next", 0L)));
+	}
+
+	@Test
+	void cacheRenderedRecordsByEquality() {
+		Renderer cachingRenderer = renderer.withResultCache(2);
+
+		Value first = cachingRenderer.toParameters(new Category("books", null));
+		Value second = cachingRenderer.toParameters(new Category("books", null));
+		cachingRenderer.toParameters(new Category("music", null));
+		cachingRenderer.toParameters(new Category("movies", null));
+		cachingRenderer.toParameters(new Category("books", null));
+
+		assertThat(second).isSameAs(first);
+		assertThat(cachingRenderer.getRenderCacheStatistics()).isEqualTo(new RenderCacheStatistics(1, 4, 2, 2));
+	}
+
+	@Test
+	void cacheRenderedObjectsByIdentity() {
+		Renderer cachingRenderer = renderer.withResultCache(10);
+		ParameterBean bean = new ParameterBean();
+
+		Value first = cachingRenderer.toParameters(bean);
+		Value second = cachingRenderer.toParameters(bean);
+		cachingRenderer.toParameters(new ParameterBean());
+
+		assertThat(second).isSameAs(first);
+		RenderCacheStatistics statistics = cachingRenderer.getRenderCacheStatistics();
+		assertThat(statistics.hits()).isEqualTo(1);
+		assertThat(statistics.misses()).isEqualTo(2);
+		assertThat(statistics.hitRatio()).isEqualTo(1 / 3d);
+	}
+
+	@Test
+	void failFastOnPayloadLimit() {
+		Renderer limitedRenderer = renderer.withPayloadLimit(1_000);
+		List<Category> categories = new ArrayList<>();
+		for (int i = 0; i < 1_000; i++) {
+			categories.add(new Category("category" + i, null));
+		}
+
+		assertThatExceptionOfType(PayloadLimitExceededException.class)
+				.isThrownBy(() -> limitedRenderer.toParameters(categories))
+				.satisfies(e -> assertThat(e.getEstimatedSize()).isBetween(1_001L, 1_100L));
+		assertThat(limitedRenderer.toParameters(categories.subList(0, 10)).get("rows").size()).isEqualTo(10);
+	}
+
+	@Test
+	void splitIntoChunksWithinPayloadLimit() {
+		Renderer limitedRenderer = renderer.withPayloadLimit(1_000);
+		List<Category> categories = new ArrayList<>();
+		for (int i = 0; i < 1_000; i++) {
+			categories.add(new Category("category" + i, null));
+		}
+
+		List<Value> chunks = limitedRenderer.toParameterChunks(categories, "rows");
+
+		assertThat(chunks).hasSizeGreaterThan(1);
+		assertThat(chunks).allSatisfy(chunk -> assertThat(PayloadSizeEstimator.estimate(chunk.get("rows"))).isLessThanOrEqualTo(1_000 + 5));
+		assertThat(chunks.stream().mapToInt(chunk -> chunk.get("rows").size()).sum()).isEqualTo(1_000);
+		assertThat(renderer.toParameterChunks(categories, "rows")).hasSize(1);
+	}
+
+	@Test
+	void failOnNonMapParameters() {
+		assertThatIllegalArgumentException().isThrownBy(() -> renderer.toParameters("a"));
+	}
+
 	private static ParameterClass createParameterInstance() {
 		return new ParameterClass(
 				"a1",
@@ -89,4 +363,88 @@ public class RendererTest {
 						  LocalDateTime h, LocalTime i, List<String> j, Map<String, Object> k) {
 	}
 
+	enum Kind {
+		SMALL, LARGE
+	}
+
+	record Nested(String name, List<Nested> children) {
+	}
+
+	record Container(Kind kind, Nested nested, Nested[] nestedArray) {
+	}
+
+	record PrimitiveArrays(int[] ints, long[] longs, double[] doubles, float[] floats, byte[] bytes, boolean[] booleans) {
+	}
+
+	record SmallValues(short primitiveShort, byte primitiveByte, char primitiveChar, Short boxedShort, Byte boxedByte, Character boxedChar) {
+	}
+
+	record TemporalAndSpatial(OffsetDateTime offsetDateTime, ZonedDateTime zonedDateTime, Duration duration, Point point,
+							  Kind kind, Map<String, Object> nested) {
+	}
+
+	record PlanCounted(int value, String label) {
+	}
+
+	record Annotated(UUID id, @JsonProperty("renamed") String original) {
+	}
+
+	record Category(String name, Category parent) {
+	}
+
+	record Product(String id, Category category, List<Category> related) {
+	}
+
+	record Shelf(String id, Category[] categories) {
+	}
+
+	record Holder(Linked linked) {
+	}
+
+	public static class Linked {
+
+		public final String name;
+		public Linked next;
+
+		Linked(String name) {
+			this.name = name;
+		}
+	}
+
+	public static class MutableNode {
+
+		public final String id;
+		public String name;
+		public double[] embedding;
+		public List<String> tags;
+
+		MutableNode(String id, String name, double[] embedding, List<String> tags) {
+			this.id = id;
+			this.name = name;
+			this.embedding = embedding;
+			this.tags = tags;
+		}
+	}
+
+	public static class ParameterBean {
+
+		public long publicField = 5L;
+
+		public String getName() {
+			return "bean";
+		}
+
+		public boolean isActive() {
+			return true;
+		}
+
+		public String getURL() {
+			return "http://localhost";
+		}
+
+		public String name() {
+			return "not a getter";
+		}
+	}
+
 }
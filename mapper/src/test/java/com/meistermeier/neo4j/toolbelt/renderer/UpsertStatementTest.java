@@ -0,0 +1,115 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.renderer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * @author Gerrit Meier
+ */
+class UpsertStatementTest {
+
+	@Test
+	void deriveStatementFromRecord() {
+		UpsertStatement upsertStatement = Renderer.INSTANCE.createUpsertStatement(Person.class);
+
+		assertThat(upsertStatement.getCypher()).isEqualTo(
+				"UNWIND $rows AS row MERGE (n:Person {id: row.id}) SET n.name = row.name, n.born = row.born, n.tags = row.tags");
+	}
+
+	@Test
+	void useCustomLabelKeysAndParameterName() {
+		UpsertStatement upsertStatement = Renderer.INSTANCE.createUpsertStatement(Person.class)
+				.withLabel("Human Being")
+				.withKeys("name", "born")
+				.withParameterName("people");
+
+		assertThat(upsertStatement.getCypher()).isEqualTo(
+				"UNWIND $people AS row MERGE (n:`Human Being` {name: row.name, born: row.born}) SET n.id = row.id, n.tags = row.tags");
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void renderOnlyUsedProperties() {
+		UpsertStatement upsertStatement = Renderer.INSTANCE.createUpsertStatement(Person.class);
+
+		Map<String, Object> parameters = upsertStatement.toParameters(List.of(
+				new Person("p1", "Gerrit", 1983, List.of("a"), new Address("Dresden")))).asMap();
+
+		assertThat(parameters).containsOnlyKeys("rows");
+		assertThat((List<Object>) parameters.get("rows")).containsExactly(
+				Map.of("id", "p1", "name", "Gerrit", "born", 1983L, "tags", List.of("a")));
+	}
+
+	@Test
+	void skipCollectionsAndArraysOfNestedObjects() {
+		UpsertStatement upsertStatement = Renderer.INSTANCE.createUpsertStatement(Customer.class);
+
+		assertThat(upsertStatement.getCypher()).isEqualTo(
+				"UNWIND $rows AS row MERGE (n:Customer {id: row.id}) SET n.nicknames = row.nicknames, n.scores = row.scores, n.levels = row.levels");
+	}
+
+	@Test
+	void requireKeysWithoutIdProperty() {
+		UpsertStatement upsertStatement = Renderer.INSTANCE.createUpsertStatement(Address.class);
+
+		assertThatIllegalStateException().isThrownBy(upsertStatement::getCypher);
+		assertThat(upsertStatement.withKeys("city").getCypher()).isEqualTo("UNWIND $rows AS row MERGE (n:Address {city: row.city})");
+	}
+
+	@Test
+	void rejectUnknownKeys() {
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> Renderer.INSTANCE.createUpsertStatement(Person.class).withKeys("unknown"));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void writeInChunksWithUpsertStatement() {
+		RecordingDriver recordingDriver = new RecordingDriver();
+		UpsertStatement upsertStatement = Renderer.INSTANCE.createUpsertStatement(Person.class).withParameterName("people");
+
+		BatchWriteResult result = Renderer.INSTANCE.createBatchWriter(recordingDriver.driver)
+				.write(List.of(new Person("p1", "Gerrit", 1983, List.of(), new Address("Dresden"))), upsertStatement);
+
+		assertThat(result.rows()).isEqualTo(1);
+		RecordingDriver.ExecutedStatement statement = recordingDriver.executedStatements().get(0);
+		assertThat(statement.query()).isEqualTo(upsertStatement.getCypher());
+		assertThat((Map<String, Object>) statement.rows("people").get(0)).doesNotContainKey("address");
+	}
+
+	record Person(String id, String name, int born, List<String> tags, Address address) {
+	}
+
+	record Address(String city) {
+	}
+
+	enum Level {
+		BRONZE, GOLD
+	}
+
+	record Customer(String id, List<Address> addresses, Address[] previousAddresses, Set<? extends String> nicknames,
+					long[] scores, List<Level> levels, List<List<String>> groups, Map<String, String> attributes) {
+	}
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2022-2023 Gerrit Meier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.meistermeier.neo4j.toolbelt.renderer;
+
+import org.junit.jupiter.api.Test;
+import org.neo4j.driver.Values;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Gerrit Meier
+ */
+class ValueFingerprintTest {
+
+	@Test
+	void equalValuesHaveEqualFingerprints() {
+		assertThat(ValueFingerprint.of(Values.value(List.of("a", 1L, LocalDate.of(2023, 1, 1)))))
+				.isEqualTo(ValueFingerprint.of(Values.value(List.of("a", 1L, LocalDate.of(2023, 1, 1)))));
+		assertThat(ValueFingerprint.of(null)).isEqualTo(ValueFingerprint.of(Values.NULL));
+	}
+
+	@Test
+	void ignoreIterationOrderOfMaps() {
+		Map<String, Object> first = new LinkedHashMap<>();
+		first.put("a", 1L);
+		first.put("b", "x");
+		Map<String, Object> second = new LinkedHashMap<>();
+		second.put("b", "x");
+		second.put("a", 1L);
+
+		assertThat(ValueFingerprint.of(Values.value(first))).isEqualTo(ValueFingerprint.of(Values.value(second)));
+	}
+
+	@Test
+	void distinguishValuesThatAreEqualInParts() {
+		assertThat(ValueFingerprint.of(Values.value("Aa"))).isNotEqualTo(ValueFingerprint.of(Values.value("BB")));
+		assertThat(ValueFingerprint.of(Values.value(List.of(1L, 2L)))).isNotEqualTo(ValueFingerprint.of(Values.value(List.of(2L, 1L))));
+		assertThat(ValueFingerprint.of(Values.value(1L))).isNotEqualTo(ValueFingerprint.of(Values.value(1.0d)));
+		assertThat(ValueFingerprint.of(Values.value(Map.of("a", "b")))).isNotEqualTo(ValueFingerprint.of(Values.value(Map.of("b", "a"))));
+		assertThat(ValueFingerprint.of(Values.value(LocalDate.of(2023, 1, 1)))).isNotEqualTo(ValueFingerprint.of(Values.value(LocalDate.of(2023, 1, 2))));
+	}
+}